@@ -0,0 +1,76 @@
+package com.aitrujobs.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline for {@link VectorKernelBenchmark}: the cosine over {@code List<Double>} with
+ * {@code Math.pow} that scored embeddings before the float kernels, on the same vectors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoxedCosineBenchmark {
+
+    @Param({"256", "384", "1536"})
+    public int dimensions;
+
+    private List<Double> a;
+    private List<Double> b;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        a = boxed(VectorKernelBenchmark.gaussian(random, dimensions));
+        b = boxed(VectorKernelBenchmark.gaussian(random, dimensions));
+    }
+
+    @Benchmark
+    public double cosine() {
+        return calculateCosineSimilarity(a, b);
+    }
+
+    /** As originally written in OpenAIService.calculateCosineSimilarity */
+    private static double calculateCosineSimilarity(List<Double> vectorA, List<Double> vectorB) {
+        if (vectorA.size() != vectorB.size()) {
+            throw new IllegalArgumentException("Vectors must have the same dimension");
+        }
+
+        double dotProduct = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+
+        for (int i = 0; i < vectorA.size(); i++) {
+            dotProduct += vectorA.get(i) * vectorB.get(i);
+            normA += Math.pow(vectorA.get(i), 2);
+            normB += Math.pow(vectorB.get(i), 2);
+        }
+
+        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    private static List<Double> boxed(float[] vector) {
+        List<Double> list = new ArrayList<>(vector.length);
+        for (float value : vector) {
+            list.add((double) value);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,82 @@
+package com.aitrujobs.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete latency against the under-1 ms p99 target. Sample-time mode reports
+ * percentiles; read {@code p0.99} in the output of {@code ./gradlew jmh}. Phrases are
+ * synthetic job titles, skills and locations, three per job.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestionIndexBenchmark {
+
+    private static final String[] LEVELS = {"Junior", "Senior", "Staff", "Principal", "Lead", "Intern"};
+    private static final String[] STACKS = {"Java", "Python", "Go", "Rust", "Kotlin", "TypeScript", "React",
+            "Android", "iOS", "Data", "Machine Learning", "Cloud", "Security", "Platform", "Backend", "Frontend"};
+    private static final String[] ROLES = {"Developer", "Engineer", "Architect", "Analyst", "Consultant", "Manager"};
+    private static final String[] SKILLS = {"Kubernetes", "Docker", "PostgreSQL", "Spring Boot", "GraphQL", "Kafka",
+            "Terraform", "AWS", "Azure", "Redis", "Elasticsearch", "TensorFlow", "Pandas", "Node.js", "Angular"};
+    private static final String[] CITIES = {"Berlin", "London", "Paris", "Madrid", "Amsterdam", "Warsaw", "Lisbon",
+            "Toronto", "Austin", "Seattle", "Bangalore", "Singapore", "Sydney", "Remote"};
+    /** Half-typed prefixes, and typos that miss the prefix match and go through correction */
+    private static final String[] PREFIXES = {"j", "ja", "jav", "sen", "dev", "eng", "ku", "pos", "ber", "rem",
+            "senior ja", "data eng", "mach", "spring b"};
+    private static final String[] TYPOS = {"kubernetas", "javva", "pyhton dev", "seniro java", "enginer",
+            "postgresq", "berln", "teraform", "elasticsaerch", "machin learning"};
+
+    @Param({"10000"})
+    public int jobs;
+
+    private SuggestionIndex index;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        Random corpus = new Random(42);
+        List<Map.Entry<String, String>> phrases = new ArrayList<>();
+        for (int i = 0; i < jobs; i++) {
+            phrases.add(Map.entry("title", pick(corpus, LEVELS) + " " + pick(corpus, STACKS) + " " + pick(corpus, ROLES)
+                    + (corpus.nextInt(4) == 0 ? " " + i : "")));
+            phrases.add(Map.entry("skill", pick(corpus, SKILLS)));
+            phrases.add(Map.entry("location", pick(corpus, CITIES)));
+        }
+        index = new SuggestionIndex();
+        index.replaceAll(phrases);
+        random = new Random(7);
+    }
+
+    @Benchmark
+    public List<SuggestionIndex.Suggestion> prefix() {
+        return index.suggest(pick(random, PREFIXES), 10);
+    }
+
+    @Benchmark
+    public List<SuggestionIndex.Suggestion> typo() {
+        return index.suggest(pick(random, TYPOS), 10);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,80 @@
+package com.aitrujobs.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar against Vector API similarity kernels at common embedding widths. Run with
+ * {@code ./gradlew jmh}; the {@code kernel} parameter puts both side by side, and
+ * {@link BoxedCosineBenchmark} measures the boxed cosine they replaced on the same inputs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class VectorKernelBenchmark {
+
+    @Param({"scalar", "simd"})
+    public String kernel;
+
+    @Param({"256", "384", "1536"})
+    public int dimensions;
+
+    private VectorKernel vectorKernel;
+    private float[] a;
+    private float[] b;
+    private byte[] codes;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        // Loaded by name as VectorMath does, so this source set needs no incubator module to compile
+        vectorKernel = "simd".equals(kernel)
+                ? (VectorKernel) Class.forName("com.aitrujobs.search.SimdVectorKernel").getDeclaredConstructor().newInstance()
+                : new ScalarVectorKernel();
+        Random random = new Random(42);
+        a = gaussian(random, dimensions);
+        b = gaussian(random, dimensions);
+        codes = new byte[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            codes[i] = (byte) (random.nextInt(256) - 128);
+        }
+    }
+
+    /** Benchmark input; the same seed gives every benchmark the same vectors */
+    static float[] gaussian(Random random, int dimensions) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    @Benchmark
+    public float dot() {
+        return vectorKernel.dot(a, b);
+    }
+
+    @Benchmark
+    public double cosine() {
+        return vectorKernel.cosine(a, b);
+    }
+
+    @Benchmark
+    public float dotInt8() {
+        return vectorKernel.dot(a, codes);
+    }
+}
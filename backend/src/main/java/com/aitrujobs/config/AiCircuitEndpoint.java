@@ -0,0 +1,27 @@
+package com.aitrujobs.config;
+
+import com.aitrujobs.service.OpenAICircuitBreaker;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/aicircuit - state and sliding-window statistics of the AI circuit breaker
+ */
+@Component
+@Endpoint(id = "aicircuit")
+public class AiCircuitEndpoint {
+
+    private final OpenAICircuitBreaker circuitBreaker;
+
+    public AiCircuitEndpoint(OpenAICircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @ReadOperation
+    public Map<String, Object> circuit() {
+        return circuitBreaker.snapshot();
+    }
+}
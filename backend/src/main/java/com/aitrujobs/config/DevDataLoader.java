@@ -34,26 +34,6 @@ public class DevDataLoader implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
-        // Clean up orphaned files from previous sessions (since we use in-memory DB)
-        try {
-            java.nio.file.Path uploadDir = java.nio.file.Paths.get("uploads", "resumes");
-            if (java.nio.file.Files.exists(uploadDir)) {
-                // Delete all files except the ones we'll create
-                java.nio.file.Files.list(uploadDir)
-                    .filter(path -> !path.getFileName().toString().equals("sample-default.pdf"))
-                    .forEach(path -> {
-                        try {
-                            java.nio.file.Files.deleteIfExists(path);
-                            System.out.println("Cleaned up orphaned file: " + path.getFileName());
-                        } catch (Exception e) {
-                            System.err.println("Failed to clean up file: " + path.getFileName());
-                        }
-                    });
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to clean up uploads directory: " + e.getMessage());
-        }
-
         // Seed a default recruiter and candidate if repository is empty
         if (userRepository.count() == 0) {
             User recruiter = new User();
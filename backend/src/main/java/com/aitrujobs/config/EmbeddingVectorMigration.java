@@ -0,0 +1,123 @@
+package com.aitrujobs.config;
+
+import com.aitrujobs.entity.FloatVectorConverter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-time migration of legacy embedding_vector TEXT columns ("[0.1, 0.2, ...]")
+ * into the packed float32 embedding column. The legacy column is dropped once its
+ * rows are converted, so subsequent startups skip the migration entirely.
+ */
+@Component
+@Order(0)
+@Slf4j
+public class EmbeddingVectorMigration implements CommandLineRunner {
+
+    private static final String LEGACY_COLUMN = "embedding_vector";
+    private static final String[] TABLES = {"jobs", "resumes"};
+    private static final int BATCH_SIZE = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    public EmbeddingVectorMigration(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        for (String table : TABLES) {
+            if (!hasLegacyColumn(table)) {
+                continue;
+            }
+            int converted = migrateTable(table);
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN " + LEGACY_COLUMN);
+            log.info("Migrated {} legacy embedding rows in {} to float32 storage", converted, table);
+        }
+    }
+
+    private int migrateTable(String table) {
+        String update = "UPDATE " + table + " SET embedding = ? WHERE id = ?";
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        int[] converted = {0};
+
+        jdbcTemplate.query(
+                "SELECT id, " + LEGACY_COLUMN + " FROM " + table + " WHERE " + LEGACY_COLUMN + " IS NOT NULL",
+                (RowCallbackHandler) rs -> {
+                    float[] vector = parseLegacyVector(rs.getString(2));
+                    if (vector == null) {
+                        log.warn("Skipping unparseable legacy embedding for {} id {}", table, rs.getLong(1));
+                        return;
+                    }
+                    batch.add(new Object[]{FloatVectorConverter.encode(vector), rs.getLong(1)});
+                    if (batch.size() == BATCH_SIZE) {
+                        converted[0] += flush(update, batch);
+                    }
+                });
+        converted[0] += flush(update, batch);
+        return converted[0];
+    }
+
+    private int flush(String update, List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(update, batch);
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    private boolean hasLegacyColumn(String table) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // H2 (DATABASE_TO_LOWER) and PostgreSQL report lower-case identifiers; check upper-case for plain H2
+            for (String name : new String[]{table, table.toUpperCase()}) {
+                String column = name.equals(table) ? LEGACY_COLUMN : LEGACY_COLUMN.toUpperCase();
+                try (ResultSet columns = metaData.getColumns(null, null, name, column)) {
+                    if (columns.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    static float[] parseLegacyVector(String text) {
+        String body = text.trim();
+        if (body.startsWith("[")) {
+            body = body.substring(1);
+        }
+        if (body.endsWith("]")) {
+            body = body.substring(0, body.length() - 1);
+        }
+        if (body.isBlank()) {
+            return null;
+        }
+        String[] parts = body.split(",");
+        float[] vector = new float[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                vector[i] = Float.parseFloat(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return vector;
+    }
+}
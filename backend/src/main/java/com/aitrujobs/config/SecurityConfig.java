@@ -1,5 +1,6 @@
 package com.aitrujobs.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -48,6 +49,8 @@ public class SecurityConfig {
             .csrf(AbstractHttpConfigurer::disable)
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
+                // Reactive (Mono) responses complete on an async dispatch; the request was authorized already
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Public endpoints
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                 .requestMatchers("/", "/index.html").permitAll()
@@ -66,7 +69,7 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.PUT, "/api/jobs/*").hasAnyRole("RECRUITER", "ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/jobs/*").hasAnyRole("RECRUITER", "ADMIN")
                 // Public job browsing (list, detail, search). Placed AFTER recruiter protections so recruiter paths are not exposed.
-                .requestMatchers(HttpMethod.GET, "/api/jobs", "/api/jobs/", "/api/jobs/search").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/jobs", "/api/jobs/", "/api/jobs/search", "/api/jobs/search/hybrid").permitAll()
                 // Allow individual job detail (numeric id) publicly. Using wildcard still, but recruiter paths already matched above.
                 .requestMatchers(HttpMethod.GET, "/api/jobs/*").permitAll()
                 .requestMatchers("/actuator/**").permitAll()
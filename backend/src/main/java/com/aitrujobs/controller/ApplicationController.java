@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -11,6 +12,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import com.aitrujobs.dto.Cursor;
+import com.aitrujobs.dto.CursorPage;
 import com.aitrujobs.entity.Application;
 import com.aitrujobs.entity.Job;
 import com.aitrujobs.entity.Resume;
@@ -21,7 +24,7 @@ import com.aitrujobs.repository.ApplicationRepository;
 import com.aitrujobs.repository.JobRepository;
 import com.aitrujobs.repository.ResumeRepository;
 import com.aitrujobs.repository.UserRepository;
-import com.aitrujobs.service.OpenAIService;
+import com.aitrujobs.service.AtsScoringService;
 import com.aitrujobs.service.NotificationService;
 
 import jakarta.validation.Valid;
@@ -52,7 +55,7 @@ public class ApplicationController {
     private UserRepository userRepository;
 
     @Autowired
-    private OpenAIService openAIService;
+    private AtsScoringService atsScoringService;
 
     @Autowired
     private NotificationService notificationService;
@@ -112,33 +115,25 @@ public class ApplicationController {
         application.setCreatedAt(LocalDateTime.now());
         application.setUpdatedAt(LocalDateTime.now());
         
-        // Calculate ATS score asynchronously
+        // Hybrid score from the stored embeddings, BM25 and skill overlap (no remote call here)
         Job job = jobOpt.get();
-        String resumeText = resume.getExtractedText();
-        String jobDescription = job.getDescription();
-        
-        if (resumeText != null && !resumeText.trim().isEmpty() && 
-            jobDescription != null && !jobDescription.trim().isEmpty()) {
-            try {
-                // Calculate ATS score using OpenAI service
-                Double atsScore = openAIService.calculateATSScore(resumeText, jobDescription)
-                    .doOnSuccess(score -> log.info("ATS score calculated: {} for application to job {}", score, job.getId()))
-                    .doOnError(error -> log.error("Failed to calculate ATS score for job {}: ", job.getId(), error))
-                    .onErrorReturn(0.0) // Default score if calculation fails
-                    .block(); // Block to get the result synchronously
-                
-                application.setAtsScore(atsScore);
-            } catch (Exception e) {
-                log.error("Error calculating ATS score for job {}: ", job.getId(), e);
-                application.setAtsScore(0.0); // Default score on error
-            }
-        } else {
-            log.warn("Cannot calculate ATS score - missing resume text or job description for job {}", job.getId());
-            application.setAtsScore(0.0); // Default score when text is missing
+        Optional<Double> atsScore = atsScoringService.scoreLocally(resume, job);
+        // Wait for a missing embedding only when one can be produced; otherwise score lexically now
+        boolean deferScore = atsScore.isEmpty() && atsScoringService.canEmbed(resume, job);
+        if (atsScore.isEmpty() && !deferScore) {
+            atsScore = Optional.of(atsScoringService.fallbackScore(resume, job));
         }
+        atsScore.ifPresent(score -> log.info("ATS score calculated: {} for application to job {}", score, job.getId()));
+        application.setAtsScore(atsScore.orElse(null));
         
         Application savedApplication = applicationRepository.save(application);
         
+        if (deferScore) {
+            // Left unscored until the missing embedding is stored, then filled in
+            log.info("Deferring ATS score for job {} until embeddings are available", job.getId());
+            atsScoringService.scoreLaterAsync(savedApplication);
+        }
+        
         Map<String, Object> response = new HashMap<>();
         response.put("id", savedApplication.getId());
         response.put("status", savedApplication.getStatus());
@@ -241,34 +236,75 @@ public class ApplicationController {
         }
 
         // Map to DTOs to avoid serialization issues
-        Page<com.aitrujobs.dto.RecruiterApplicationDTO> dtoPage = applications.map(app -> {
-            com.aitrujobs.dto.RecruiterApplicationDTO dto = new com.aitrujobs.dto.RecruiterApplicationDTO();
-            dto.setId(app.getId());
-            dto.setStatus(app.getStatus().toString());
-            dto.setAtsScore(app.getAtsScore());
-            dto.setCoverLetter(app.getCoverLetter());
-            dto.setFeedback(app.getFeedback());
-            dto.setRejectionReason(app.getRejectionReason());
-            dto.setCreatedAt(app.getCreatedAt());
-            dto.setUpdatedAt(app.getUpdatedAt());
-            if (app.getJob() != null) {
-                dto.setJobId(app.getJob().getId());
-                dto.setJobTitle(app.getJob().getTitle());
-            }
-            if (app.getUser() != null) {
-                dto.setUserId(app.getUser().getId());
-                dto.setUserName(app.getUser().getName());
-                dto.setUserEmail(app.getUser().getEmail());
-            }
-            if (app.getResume() != null) {
-                dto.setResumeId(app.getResume().getId());
-                dto.setResumeTitle(app.getResume().getTitle());
-            }
-            return dto;
-        });
+        Page<com.aitrujobs.dto.RecruiterApplicationDTO> dtoPage = applications.map(this::toRecruiterDto);
         return ResponseEntity.ok(dtoPage);
     }
 
+    /**
+     * The recruiter's applications, newest first, by keyset: pass the previous page's
+     * nextCursor to continue. No total is counted and deep pages cost the same as the first.
+     */
+    @GetMapping("/recruiter/cursor")
+    @Transactional
+    public ResponseEntity<CursorPage<com.aitrujobs.dto.RecruiterApplicationDTO>> getRecruiterApplicationsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String status) {
+        
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new UnauthorizedException("User not authenticated");
+        }
+        
+        User recruiter = userRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        if (!recruiter.getRole().equals(User.Role.RECRUITER)) {
+            throw new UnauthorizedException("Access denied: Recruiter role required");
+        }
+        
+        Application.Status statusEnum = status != null && !status.isEmpty()
+                ? Application.Status.valueOf(status.toUpperCase())
+                : null;
+        // Unsorted: the keyset queries fix their own (createdAt, id) order
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(size, 100)));
+        Slice<Application> applications;
+        if (cursor == null || cursor.isBlank()) {
+            applications = applicationRepository.findForRecruiterNewest(recruiter, statusEnum, pageable);
+        } else {
+            Cursor after = Cursor.decode(cursor);
+            applications = applicationRepository.findForRecruiterNewestAfter(
+                    recruiter, statusEnum, after.getCreatedAt(), after.getId(), pageable);
+        }
+        return ResponseEntity.ok(CursorPage.of(applications, Application::getCreatedAt, Application::getId,
+                this::toRecruiterDto));
+    }
+
+    private com.aitrujobs.dto.RecruiterApplicationDTO toRecruiterDto(Application app) {
+        com.aitrujobs.dto.RecruiterApplicationDTO dto = new com.aitrujobs.dto.RecruiterApplicationDTO();
+        dto.setId(app.getId());
+        dto.setStatus(app.getStatus().toString());
+        dto.setAtsScore(app.getAtsScore());
+        dto.setCoverLetter(app.getCoverLetter());
+        dto.setFeedback(app.getFeedback());
+        dto.setRejectionReason(app.getRejectionReason());
+        dto.setCreatedAt(app.getCreatedAt());
+        dto.setUpdatedAt(app.getUpdatedAt());
+        if (app.getJob() != null) {
+            dto.setJobId(app.getJob().getId());
+            dto.setJobTitle(app.getJob().getTitle());
+        }
+        if (app.getUser() != null) {
+            dto.setUserId(app.getUser().getId());
+            dto.setUserName(app.getUser().getName());
+            dto.setUserEmail(app.getUser().getEmail());
+        }
+        if (app.getResume() != null) {
+            dto.setResumeId(app.getResume().getId());
+            dto.setResumeTitle(app.getResume().getTitle());
+        }
+        return dto;
+    }
+
     @PutMapping("/{id}/status")
     @Transactional
     public ResponseEntity<?> updateApplicationStatus(
@@ -1,18 +1,33 @@
 package com.aitrujobs.controller;
 
+import com.aitrujobs.dto.Cursor;
+import com.aitrujobs.dto.CursorPage;
 import com.aitrujobs.entity.Job;
+import com.aitrujobs.entity.Resume;
 import com.aitrujobs.entity.User;
+import com.aitrujobs.event.JobChangedEvent;
 import com.aitrujobs.repository.JobRepository;
+import com.aitrujobs.repository.ResumeRepository;
 import com.aitrujobs.repository.UserRepository;
 import com.aitrujobs.repository.ApplicationRepository;
+import com.aitrujobs.search.SuggestionIndex;
+import com.aitrujobs.service.AtsScoringService;
 import com.aitrujobs.service.OpenAIService;
 import com.aitrujobs.service.JobMatchingService;
+import com.aitrujobs.service.JobFacetService;
+import com.aitrujobs.service.JobHybridSearchService;
+import com.aitrujobs.service.JobSearchService;
+import com.aitrujobs.service.JobSkillService;
+import com.aitrujobs.service.JobSuggestService;
+import com.aitrujobs.service.MatchExplanationService;
 import com.aitrujobs.service.NotificationService;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -27,6 +42,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/jobs")
@@ -53,6 +69,33 @@ public class JobController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private JobSearchService jobSearchService;
+
+    @Autowired
+    private JobSuggestService jobSuggestService;
+
+    @Autowired
+    private JobFacetService jobFacetService;
+
+    @Autowired
+    private JobSkillService jobSkillService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AtsScoringService atsScoringService;
+
+    @Autowired
+    private ResumeRepository resumeRepository;
+
+    @Autowired
+    private MatchExplanationService matchExplanationService;
+
+    @Autowired
+    private JobHybridSearchService jobHybridSearchService;
+
     @GetMapping
     public ResponseEntity<Page<Job>> getAllJobs(
             @RequestParam(defaultValue = "0") int page,
@@ -60,15 +103,18 @@ public class JobController {
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String location,
             @RequestParam(required = false) String jobType,
-            @RequestParam(required = false) String skills) {
+            @RequestParam(required = false) String skills,
+            @RequestParam(defaultValue = "any") String skillMatch) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<Job> jobs;
         
         if (search != null && !search.isEmpty()) {
-            jobs = jobRepository.searchJobs(search, pageable);
+            // Ranked by relevance rather than recency
+            jobs = jobSearchService.search(search, PageRequest.of(page, size));
         } else if (location != null || skills != null || jobType != null) {
-            jobs = jobRepository.findJobsWithFilters(location, skills, jobType, pageable);
+            jobs = jobFacetService.search(location, JobSkillService.parseList(skills), "all".equalsIgnoreCase(skillMatch),
+                    jobType, pageable, 0).getJobs();
         } else {
             jobs = jobRepository.findByIsPublishedTrue(pageable);
         }
@@ -76,6 +122,25 @@ public class JobController {
         return ResponseEntity.ok(jobs);
     }
 
+    /**
+     * Published jobs, newest first, by keyset: pass the previous page's nextCursor to
+     * continue. No total is counted and deep pages cost the same as the first.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<Job>> getJobsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        Pageable pageable = cursorPageable(size);
+        Slice<Job> jobs;
+        if (cursor == null || cursor.isBlank()) {
+            jobs = jobRepository.findPublishedNewest(pageable);
+        } else {
+            Cursor after = Cursor.decode(cursor);
+            jobs = jobRepository.findPublishedNewestAfter(after.getCreatedAt(), after.getId(), pageable);
+        }
+        return ResponseEntity.ok(CursorPage.of(jobs, Job::getCreatedAt, Job::getId, job -> job));
+    }
+
     // Compatibility endpoint for clients using /jobs/search
     @GetMapping("/search")
     public ResponseEntity<Page<Job>> searchJobs(
@@ -84,22 +149,59 @@ public class JobController {
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) String location,
             @RequestParam(required = false) String jobType,
-            @RequestParam(required = false) String skills) {
+            @RequestParam(required = false) String skills,
+            @RequestParam(defaultValue = "any") String skillMatch) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         // If any filter provided, use same logic as getAllJobs
         if (keyword != null && !keyword.isEmpty()) {
-            return ResponseEntity.ok(jobRepository.searchJobs(keyword, pageable));
+            return ResponseEntity.ok(jobSearchService.search(keyword, PageRequest.of(page, size)));
         }
         if (location != null || skills != null || jobType != null) {
-            return ResponseEntity.ok(jobRepository.findJobsWithFilters(location, skills, jobType, pageable));
+            return ResponseEntity.ok(jobFacetService.search(location, JobSkillService.parseList(skills),
+                    "all".equalsIgnoreCase(skillMatch), jobType, pageable, 0).getJobs());
         }
         // Default to published jobs
         return ResponseEntity.ok(jobRepository.findByIsPublishedTrue(pageable));
     }
 
+    /**
+     * Keyword and semantic search fused by rank, with per-stage timings
+     */
+    @GetMapping("/search/hybrid")
+    public Mono<ResponseEntity<JobHybridSearchService.HybridResults>> hybridSearch(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return jobHybridSearchService.search(query, PageRequest.of(page, size))
+                .map(ResponseEntity::ok);
+    }
+
+    // Filtered jobs plus location, job type and skill counts for the filter sidebar
+    @GetMapping("/facets")
+    public ResponseEntity<JobFacetService.FacetedJobs> getFacetedJobs(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String jobType,
+            @RequestParam(required = false) String skills,
+            @RequestParam(defaultValue = "any") String skillMatch,
+            @RequestParam(defaultValue = "20") int facetLimit) {
+        return ResponseEntity.ok(jobFacetService.search(location, JobSkillService.parseList(skills),
+                "all".equalsIgnoreCase(skillMatch), jobType, PageRequest.of(page, size), facetLimit));
+    }
+
+    // Search-box autocomplete; answered from memory on every keystroke
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionIndex.Suggestion>> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(jobSuggestService.suggest(query, Math.max(1, Math.min(limit, 50))));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Job> getJobById(@PathVariable Long id) {
-        Optional<Job> jobOpt = jobRepository.findById(id);
+        // The owner is fetched with the job; outside a session a lazy createdBy cannot be read
+        Optional<Job> jobOpt = jobRepository.findByIdWithCreatedBy(id);
         if (jobOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -142,25 +244,12 @@ public class JobController {
         job.setIsPublished(request.getIsPublished());
         job.setCreatedBy(recruiter);
 
+        jobSkillService.assignSkills(job);
         Job savedJob = jobRepository.save(job);
+        eventPublisher.publishEvent(new JobChangedEvent(savedJob, JobChangedEvent.Type.CREATED));
 
-        // Generate embedding asynchronously (optional)
-        if (request.getDescription() != null && openAIService.isConfigured()) {
-            openAIService.generateEmbedding(request.getDescription())
-                .subscribe(
-                    embedding -> {
-                        try {
-                            savedJob.setEmbeddingVector(embedding.toString());
-                            jobRepository.save(savedJob);
-                        } catch (Exception e) {
-                            // swallow errors to avoid impacting API response
-                        }
-                    },
-                    error -> {
-                        // log only; do not propagate
-                    }
-                );
-        }
+        // Generate and store the job embedding asynchronously; indexed once stored
+        atsScoringService.embedJobAsync(savedJob);
 
         return ResponseEntity.ok(savedJob);
     }
@@ -183,7 +272,7 @@ public class JobController {
             return ResponseEntity.status(404).body(Map.of("error", "User not found"));
         }
         User actor = userOpt.get();
-        boolean isOwner = job.getCreatedBy().getEmail().equals(email);
+        boolean isOwner = job.getCreatedBy().getId().equals(actor.getId());
         boolean isAdmin = actor.getRole() == User.Role.ADMIN;
         if (!isOwner && !isAdmin) {
             return ResponseEntity.status(403).body(Map.of("error", "Forbidden"));
@@ -200,7 +289,11 @@ public class JobController {
         // Publishing status is now handled by dedicated endpoints
         // job.setIsPublished(request.getIsPublished());
 
+        jobSkillService.assignSkills(job);
         Job updatedJob = jobRepository.save(job);
+        eventPublisher.publishEvent(new JobChangedEvent(updatedJob, JobChangedEvent.Type.UPDATED));
+        // Content may have changed; re-embed (unchanged text is served from the embedding cache)
+        atsScoringService.embedJobAsync(updatedJob);
         return ResponseEntity.ok(updatedJob);
     }
 
@@ -221,13 +314,14 @@ public class JobController {
             return ResponseEntity.status(404).body(Map.of("error", "User not found"));
         }
         User actor = userOpt.get();
-        boolean isOwner = jobOpt.get().getCreatedBy().getEmail().equals(email);
+        boolean isOwner = jobOpt.get().getCreatedBy().getId().equals(actor.getId());
         boolean isAdmin = actor.getRole() == User.Role.ADMIN;
         if (!isOwner && !isAdmin) {
             return ResponseEntity.status(403).body(Map.of("error", "Forbidden"));
         }
 
         jobRepository.deleteById(id);
+        eventPublisher.publishEvent(new JobChangedEvent(jobOpt.get(), JobChangedEvent.Type.DELETED));
         return ResponseEntity.ok(Map.of("message", "Job deleted successfully"));
     }
 
@@ -256,7 +350,9 @@ public class JobController {
     public ResponseEntity<Page<Job>> getJobsByRecruiter(
             @PathVariable Long recruiterId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String skills,
+            @RequestParam(defaultValue = "any") String skillMatch) {
         
         Optional<User> recruiterOpt = userRepository.findById(recruiterId);
         if (recruiterOpt.isEmpty()) {
@@ -264,7 +360,7 @@ public class JobController {
         }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Job> jobs = jobRepository.findByCreatedBy(recruiterOpt.get(), pageable);
+        Page<Job> jobs = findRecruiterJobs(recruiterOpt.get(), skills, skillMatch, pageable);
         
         return ResponseEntity.ok(jobs);
     }
@@ -273,7 +369,9 @@ public class JobController {
     @GetMapping("/recruiter")
     public ResponseEntity<Page<Job>> getJobsForAuthenticatedRecruiter(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String skills,
+            @RequestParam(defaultValue = "any") String skillMatch) {
         // Extract authenticated principal email
         String email = getAuthenticatedUserEmail().orElse(null);
         if (email == null) {
@@ -292,7 +390,7 @@ public class JobController {
         }
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         try {
-            Page<Job> jobs = jobRepository.findByCreatedBy(recruiter, pageable);
+            Page<Job> jobs = findRecruiterJobs(recruiter, skills, skillMatch, pageable);
             log.debug("Returning {} jobs for recruiter {}", jobs.getNumberOfElements(), email);
             return ResponseEntity.ok(jobs);
         } catch (Exception ex) {
@@ -301,6 +399,60 @@ public class JobController {
         }
     }
 
+    /**
+     * The authenticated recruiter's jobs, newest first, by keyset (see {@link #getJobsByCursor})
+     */
+    @GetMapping("/recruiter/cursor")
+    public ResponseEntity<CursorPage<Job>> getRecruiterJobsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        String email = getAuthenticatedUserEmail().orElse(null);
+        if (email == null) {
+            return ResponseEntity.status(401).build();
+        }
+        Optional<User> recruiterOpt = userRepository.findByEmail(email);
+        if (recruiterOpt.isEmpty()) {
+            return ResponseEntity.status(404).build();
+        }
+        User recruiter = recruiterOpt.get();
+        if (recruiter.getRole() != User.Role.RECRUITER && recruiter.getRole() != User.Role.ADMIN) {
+            return ResponseEntity.status(403).build();
+        }
+        Pageable pageable = cursorPageable(size);
+        Slice<Job> jobs;
+        if (cursor == null || cursor.isBlank()) {
+            jobs = jobRepository.findByCreatedByNewest(recruiter, pageable);
+        } else {
+            Cursor after = Cursor.decode(cursor);
+            jobs = jobRepository.findByCreatedByNewestAfter(recruiter, after.getCreatedAt(), after.getId(), pageable);
+        }
+        return ResponseEntity.ok(CursorPage.of(jobs, Job::getCreatedAt, Job::getId, job -> job));
+    }
+
+    /** Unsorted: the keyset queries fix their own (createdAt, id) order */
+    private static Pageable cursorPageable(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, 100)));
+    }
+
+    /**
+     * A recruiter's jobs, published or not, optionally with any / all of the skills;
+     * filtered in the database through the job_skills index
+     */
+    private Page<Job> findRecruiterJobs(User recruiter, String skills, String skillMatch, Pageable pageable) {
+        List<String> names = JobSkillService.parseList(skills);
+        if (names.isEmpty()) {
+            return jobRepository.findByCreatedBy(recruiter, pageable);
+        }
+        boolean matchAll = "all".equalsIgnoreCase(skillMatch);
+        Set<Long> skillIds = jobSkillService.skillIds(names, matchAll);
+        if (skillIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return matchAll
+                ? jobRepository.findByCreatedByWithAllSkills(recruiter, skillIds, skillIds.size(), pageable)
+                : jobRepository.findByCreatedByWithAnySkill(recruiter, skillIds, pageable);
+    }
+
     @PutMapping("/{id}/publish")
     public ResponseEntity<?> publishJob(@PathVariable Long id) {
         try {
@@ -323,7 +475,7 @@ public class JobController {
                 return ResponseEntity.status(404).body(Map.of("error", "User not found"));
             }
             User actor = actorOpt.get();
-            boolean isOwner = job.getCreatedBy().getEmail().equals(email);
+            boolean isOwner = job.getCreatedBy().getId().equals(actor.getId());
             boolean isAdmin = actor.getRole() == User.Role.ADMIN;
             if (!isOwner && !isAdmin) {
                 log.error("publishJob: Forbidden - user {} is not owner or admin", email);
@@ -332,6 +484,7 @@ public class JobController {
 
             job.setIsPublished(true);
             jobRepository.save(job);
+            eventPublisher.publishEvent(new JobChangedEvent(job, JobChangedEvent.Type.PUBLISHED));
 
             // Send real-time notification about new job
             try {
@@ -364,7 +517,7 @@ public class JobController {
             return ResponseEntity.status(404).body(Map.of("error", "User not found"));
         }
         User actor = actorOpt.get();
-        boolean isOwner = job.getCreatedBy().getEmail().equals(email);
+        boolean isOwner = job.getCreatedBy().getId().equals(actor.getId());
         boolean isAdmin = actor.getRole() == User.Role.ADMIN;
         if (!isOwner && !isAdmin) {
             return ResponseEntity.status(403).body(Map.of("error", "Forbidden"));
@@ -372,6 +525,7 @@ public class JobController {
 
         job.setIsPublished(false);
         jobRepository.save(job);
+        eventPublisher.publishEvent(new JobChangedEvent(job, JobChangedEvent.Type.UNPUBLISHED));
         return ResponseEntity.ok(job);
     }
 
@@ -401,6 +555,57 @@ public class JobController {
                 .onErrorReturn(ResponseEntity.status(500).build());
     }
 
+    /**
+     * Explain how the candidate's resume (latest by default) matches a job.
+     * Generated once per resume/job content and served from storage afterwards.
+     */
+    @GetMapping("/{id}/match-explanation")
+    public Mono<ResponseEntity<?>> getMatchExplanation(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long resumeId) {
+
+        String email = getAuthenticatedUserEmail().orElse(null);
+        if (email == null) {
+            return Mono.just(ResponseEntity.status(401).body(Map.of("error", "Unauthorized")));
+        }
+        Optional<User> userOpt = userRepository.findByEmail(email);
+        if (userOpt.isEmpty()) {
+            return Mono.just(ResponseEntity.status(404).body(Map.of("error", "User not found")));
+        }
+        User user = userOpt.get();
+
+        Optional<Job> jobOpt = jobRepository.findByIdWithCreatedBy(id);
+        // Unpublished jobs are hidden from non-owners, as in getJobById
+        if (jobOpt.isEmpty() || (Boolean.FALSE.equals(jobOpt.get().getIsPublished())
+                && !jobOpt.get().getCreatedBy().getId().equals(user.getId()))) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        Optional<Resume> resumeOpt = resumeId != null
+                ? resumeRepository.findById(resumeId)
+                : resumeRepository.findFirstByUserOrderByCreatedAtDesc(user);
+        if (resumeOpt.isEmpty() || !resumeOpt.get().getUser().getId().equals(user.getId())) {
+            return Mono.just(ResponseEntity.status(404).body(Map.of("error", "Resume not found")));
+        }
+        Resume resume = resumeOpt.get();
+        Job job = jobOpt.get();
+
+        return matchExplanationService.explain(resume, job)
+                .<ResponseEntity<?>>map(explanation -> {
+                    Map<String, Object> body = new HashMap<>();
+                    body.put("jobId", job.getId());
+                    body.put("resumeId", resume.getId());
+                    body.put("atsScore", explanation.getAtsScore());
+                    body.put("explanation", explanation.getExplanation());
+                    body.put("model", explanation.getModel());
+                    return ResponseEntity.ok(body);
+                })
+                .defaultIfEmpty(ResponseEntity.status(422).body(Map.of("error", "Resume text not extracted")))
+                .onErrorResume(error -> {
+                    log.warn("Failed to explain match of resume {} and job {}: {}", resume.getId(), job.getId(), error.getMessage());
+                    return Mono.just(ResponseEntity.status(500).body(Map.of("error", "Failed to generate explanation")));
+                });
+    }
+
     /**
      * Get similar jobs based on a given job
      */
@@ -429,7 +634,7 @@ public class JobController {
             return ResponseEntity.status(401).build();
         }
 
-        Optional<Job> jobOpt = jobRepository.findById(id);
+        Optional<Job> jobOpt = jobRepository.findByIdWithCreatedBy(id);
         if (jobOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -1,13 +1,21 @@
 package com.aitrujobs.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.aitrujobs.entity.Resume;
@@ -19,8 +27,13 @@ import com.aitrujobs.repository.ResumeRepository;
 import com.aitrujobs.repository.UserRepository;
 import com.aitrujobs.repository.JobRepository;
 import com.aitrujobs.service.FileUploadService;
-import com.aitrujobs.service.OpenAIService;
+import com.aitrujobs.service.AtsScoringService;
+import com.aitrujobs.service.BlobStore;
+import com.aitrujobs.service.OrphanFileSweeper;
+import com.aitrujobs.service.ResumeExtractionService;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -28,10 +41,17 @@ import java.util.Map;
 import java.util.Optional;
 
 @RestController
+@Slf4j
 @RequestMapping("/api/resumes")
 @CrossOrigin(origins = "*")
 public class ResumeController {
 
+    // Tomcat request attributes for zero-copy file responses
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     @Autowired
     private ResumeRepository resumeRepository;
 
@@ -45,7 +65,13 @@ public class ResumeController {
     private FileUploadService fileUploadService;
 
     @Autowired
-    private OpenAIService openAIService;
+    private AtsScoringService atsScoringService;
+
+    @Autowired
+    private ResumeExtractionService resumeExtractionService;
+
+    @Autowired
+    private OrphanFileSweeper orphanFileSweeper;
 
     @PostMapping("/upload")
     public ResponseEntity<?> uploadResume(
@@ -67,24 +93,32 @@ public class ResumeController {
         
         try {
             // Upload file
-            String filePath = fileUploadService.uploadFile(file, "resumes");
+            FileUploadService.StoredFile stored = fileUploadService.uploadFile(file, "resumes");
             
             // Create resume record
             Resume resume = new Resume();
             resume.setTitle(title);
-            resume.setFilePath(filePath);
+            resume.setFilePath(stored.getPath());
             resume.setFileType(file.getContentType()); // Set the content type from uploaded file
-            resume.setFileSize(file.getSize()); // Set file size
+            resume.setFileSize(stored.getSize()); // Set file size
+            resume.setContentHash(stored.getHash());
             resume.setUser(user);
+            resume.setExtractionStatus(Resume.ExtractionStatus.PENDING);
             resume.setCreatedAt(LocalDateTime.now());
             resume.setUpdatedAt(LocalDateTime.now());
             
             Resume savedResume = resumeRepository.save(resume);
+            // Another node may have deleted the shared file before this reference existed
+            fileUploadService.ensureStored(stored, file);
+            
+            // Text is extracted in the background, then embedded
+            resumeExtractionService.submit(savedResume);
             
             Map<String, Object> response = new HashMap<>();
             response.put("id", savedResume.getId());
             response.put("title", savedResume.getTitle());
             response.put("filePath", savedResume.getFilePath());
+            response.put("extractionStatus", savedResume.getExtractionStatus());
             response.put("createdAt", savedResume.getCreatedAt());
             response.put("message", "Resume uploaded successfully");
             
@@ -138,114 +172,173 @@ public class ResumeController {
         return ResponseEntity.ok(resume);
     }
 
+    /**
+     * The resume and its owner are read in one short query; the file is hashed and
+     * streamed afterwards, without a database connection held
+     */
     @GetMapping("/{id}/download")
-    @Transactional
-    public ResponseEntity<byte[]> downloadResume(@PathVariable Long id) {
-        System.out.println("=== DOWNLOAD ENDPOINT REACHED ===");
-        System.out.println("Resume ID requested: " + id);
-        
+    public void downloadResume(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
-            System.err.println("Authentication failed - user not authenticated");
             throw new UnauthorizedException("User not authenticated");
         }
         
-        System.out.println("Authentication successful for user: " + authentication.getName());
-        
-        Optional<Resume> resumeOpt = resumeRepository.findById(id);
-        System.out.println("Resume query executed, found: " + resumeOpt.isPresent());
-        
+        Optional<Resume> resumeOpt = resumeRepository.findByIdWithUser(id);
         if (resumeOpt.isEmpty()) {
-            System.err.println("Resume not found in database for ID: " + id);
             throw new ResourceNotFoundException("Resume not found with ID: " + id);
         }
         
         Resume resume = resumeOpt.get();
-        System.out.println("Resume object retrieved: " + resume.getTitle());
-        System.out.println("Resume user: " + resume.getUser().getEmail());
-        
         String email = authentication.getName();
-        System.out.println("Authenticated user email: " + email);
         
         // Check if user owns this resume
         if (!resume.getUser().getEmail().equals(email)) {
-            System.err.println("Access denied for user " + email + " to resume ID: " + id);
             throw new UnauthorizedException("Access denied to resume");
         }
         
-        System.out.println("Authorization check passed, proceeding to file download");
+        String filePath = resume.getFilePath();
+        if (resume.getContentHash() == null) {
+            // Uploaded before hashes were stored
+            try {
+                resume.setContentHash(fileUploadService.contentHash(filePath));
+                resumeRepository.updateContentHash(resume.getId(), resume.getContentHash());
+            } catch (ResourceNotFoundException e) {
+                throw new ResourceNotFoundException("Resume file not found. Please re-upload your resume.");
+            }
+        }
+        String etag = "\"" + resume.getContentHash() + "\"";
+        
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Sets the ETag, and answers 304 when If-None-Match already has it
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
         
+        HttpRange range = requestedRange(request, etag);
+        BlobStore.LocalCopy file;
+        long length;
         try {
-            System.out.println("Attempting to download file: " + resume.getFilePath());
-            System.out.println("Resume title: " + resume.getTitle());
-            System.out.println("Resume file type: " + resume.getFileType());
-            System.out.println("User email: " + email);
-            
-            byte[] fileContent = fileUploadService.downloadFile(resume.getFilePath());
+            // A whole file is served from a local copy, fetched once when the store is remote;
+            // a range of a file this node does not have is read from the store directly
+            file = range == null ? fileUploadService.locate(filePath) : fileUploadService.cachedFile(filePath).orElse(null);
+        } catch (ResourceNotFoundException e) {
+            throw new ResourceNotFoundException("Resume file not found. Please re-upload your resume.");
+        }
+        // The local copy stays in place until closed
+        try (file) {
+            try {
+                length = file != null ? Files.size(file.getPath()) : fileUploadService.size(filePath);
+            } catch (ResourceNotFoundException e) {
+                throw new ResourceNotFoundException("Resume file not found. Please re-upload your resume.");
+            }
             
-            HttpHeaders headers = new HttpHeaders();
+            response.setContentType(downloadContentType(resume));
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.formData().name("attachment").filename(downloadFileName(resume)).build().toString());
             
-            // Set proper content type based on file type
-            String contentType = "application/octet-stream"; // default
-            if (resume.getFileType() != null) {
-                contentType = resume.getFileType();
-                headers.setContentType(MediaType.parseMediaType(contentType));
-            } else {
-                // Fallback: detect content type from file extension
-                String fileExtension = resume.getFilePath().substring(resume.getFilePath().lastIndexOf('.') + 1).toLowerCase();
-                switch (fileExtension) {
-                    case "pdf":
-                        contentType = "application/pdf";
-                        break;
-                    case "doc":
-                        contentType = "application/msword";
-                        break;
-                    case "docx":
-                        contentType = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
-                        break;
-                    default:
-                        contentType = "application/octet-stream";
+            long start = 0;
+            long end = length - 1;
+            if (range != null) {
+                if (length == 0 || !isSatisfiable(range, length)) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
                 }
-                headers.setContentType(MediaType.parseMediaType(contentType));
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+            long count = end - start + 1;
+            response.setContentLengthLong(count);
+            if (count <= 0 || HttpMethod.HEAD.matches(request.getMethod())) {
+                return;
             }
             
-            // Get file extension from original file type or file path
-            String fileExtension = "";
-            if (resume.getFileType() != null) {
-                if (resume.getFileType().contains("pdf")) {
-                    fileExtension = ".pdf";
-                } else if (resume.getFileType().contains("word") || resume.getFileType().contains("msword")) {
-                    fileExtension = ".doc";
-                } else if (resume.getFileType().contains("officedocument.wordprocessingml")) {
-                    fileExtension = ".docx";
-                } else {
-                    // Extract extension from file path if available
-                    String filePath = resume.getFilePath();
-                    int lastDot = filePath.lastIndexOf('.');
-                    if (lastDot > 0) {
-                        fileExtension = filePath.substring(lastDot);
-                    }
+            if (file == null) {
+                fileUploadService.transferTo(filePath, start, count, response.getOutputStream());
+                return;
+            }
+            // Tomcat sends the file after this returns, so only a file that outlives the copy qualifies
+            if (file.isDurable() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, file.getPath().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+            fileUploadService.transferTo(file.getPath(), start, count, response.getOutputStream());
+        }
+    }
+
+    /**
+     * The single byte range to serve, or null for the whole file. Multiple ranges and an
+     * If-Range that no longer matches are answered with the whole file.
+     */
+    private HttpRange requestedRange(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isSatisfiable(HttpRange range, long length) {
+        try {
+            return range.getRangeStart(length) < length;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String downloadContentType(Resume resume) {
+        if (resume.getFileType() != null) {
+            return resume.getFileType();
+        }
+        // Fallback: detect content type from file extension
+        String fileExtension = resume.getFilePath().substring(resume.getFilePath().lastIndexOf('.') + 1).toLowerCase();
+        switch (fileExtension) {
+            case "pdf":
+                return "application/pdf";
+            case "doc":
+                return "application/msword";
+            case "docx":
+                return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+            default:
+                return "application/octet-stream";
+        }
+    }
+
+    private static String downloadFileName(Resume resume) {
+        // Get file extension from original file type or file path
+        String fileExtension = "";
+        if (resume.getFileType() != null) {
+            if (resume.getFileType().contains("pdf")) {
+                fileExtension = ".pdf";
+            } else if (resume.getFileType().contains("word") || resume.getFileType().contains("msword")) {
+                fileExtension = ".doc";
+            } else if (resume.getFileType().contains("officedocument.wordprocessingml")) {
+                fileExtension = ".docx";
+            } else {
+                // Extract extension from file path if available
+                String filePath = resume.getFilePath();
+                int lastDot = filePath.lastIndexOf('.');
+                if (lastDot > 0) {
+                    fileExtension = filePath.substring(lastDot);
                 }
             }
-            
-            String fileName = resume.getTitle() + fileExtension;
-            headers.setContentDispositionFormData("attachment", fileName);
-            
-            System.out.println("Download response prepared with filename: " + fileName + " and content type: " + headers.getContentType());
-            
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(fileContent);
-                    
-        } catch (ResourceNotFoundException e) {
-            System.err.println("File not found for resume ID " + id + ": " + resume.getFilePath());
-            throw new ResourceNotFoundException("Resume file not found. Please re-upload your resume.");
-        } catch (Exception e) {
-            System.err.println("Resume download failed for file: " + resume.getFilePath());
-            System.err.println("Error: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to download resume: " + e.getMessage(), e);
         }
+        return resume.getTitle() + fileExtension;
     }
 
     @DeleteMapping("/{id}")
@@ -270,12 +363,12 @@ public class ResumeController {
         }
         
         try {
-            // Delete file from storage
-            fileUploadService.deleteFile(resume.getFilePath());
-            
             // Delete resume record
             resumeRepository.delete(resume);
             
+            // The file may be shared with identical uploads; removed with its last reference
+            orphanFileSweeper.release(resume.getFilePath());
+            
             return ResponseEntity.ok(Map.of("message", "Resume deleted successfully"));
             
         } catch (Exception e) {
@@ -284,6 +377,10 @@ public class ResumeController {
         }
     }
 
+    /**
+     * Resume and job are loaded first, each in its own short read; embedding and scoring
+     * then run with no transaction or connection held
+     */
     @PostMapping("/analyze")
     public ResponseEntity<?> analyzeResume(@RequestBody Map<String, Object> request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -296,7 +393,7 @@ public class ResumeController {
             Long jobId = Long.valueOf(request.get("jobId").toString());
 
             // Get resume
-            Optional<Resume> resumeOpt = resumeRepository.findById(resumeId);
+            Optional<Resume> resumeOpt = resumeRepository.findByIdWithUser(resumeId);
             if (resumeOpt.isEmpty()) {
                 throw new ResourceNotFoundException("Resume not found");
             }
@@ -317,6 +414,10 @@ public class ResumeController {
             }
 
             // Check if resume has extracted text
+            if (resume.getExtractionStatus() == Resume.ExtractionStatus.PENDING) {
+                return ResponseEntity.status(409)
+                        .body(Map.of("error", "Resume text is still being extracted. Please try again shortly."));
+            }
             if (resume.getExtractedText() == null || resume.getExtractedText().trim().isEmpty()) {
                 return ResponseEntity.badRequest()
                         .body(Map.of("error", "Resume text not extracted. Please re-upload your resume."));
@@ -328,16 +429,9 @@ public class ResumeController {
                         .body(Map.of("error", "Job description not available"));
             }
 
-            // Calculate ATS score
-            String jobContent = String.format("%s %s %s %s", 
-                    job.getTitle(), 
-                    job.getDescription() != null ? job.getDescription() : "", 
-                    job.getRequirements() != null ? job.getRequirements() : "",
-                    job.getSkills() != null ? job.getSkills() : "");
-
+            // Calculate ATS score from stored embeddings (embedded once on first use)
             try {
-                Double atsScore = openAIService.calculateATSScore(resume.getExtractedText(), jobContent)
-                        .block(); // Block to get synchronous result
+                Double atsScore = atsScoringService.score(resume, job).block();
 
                 if (atsScore == null) {
                     atsScore = 0.0;
@@ -352,8 +446,7 @@ public class ResumeController {
                 return ResponseEntity.ok(result);
 
             } catch (Exception e) {
-                System.err.println("Error calculating ATS score: " + e.getMessage());
-                e.printStackTrace();
+                log.warn("Error calculating ATS score for resume {} and job {}", resumeId, jobId, e);
                 return ResponseEntity.badRequest()
                         .body(Map.of("error", "Failed to calculate ATS score: " + e.getMessage()));
             }
@@ -362,8 +455,7 @@ public class ResumeController {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", "Invalid resume or job ID"));
         } catch (Exception e) {
-            System.err.println("Error in analyze endpoint: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Error in analyze endpoint", e);
             return ResponseEntity.badRequest()
                     .body(Map.of("error", "Failed to analyze resume: " + e.getMessage()));
         }
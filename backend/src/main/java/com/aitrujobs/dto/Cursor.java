@@ -0,0 +1,55 @@
+package com.aitrujobs.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a newest-first listing: the (createdAt, id) of the last row returned.
+ * The next page seeks past it with the row-value comparison
+ * {@code (createdAt, id) < (:createdAt, :id)}, which an index on (createdAt, id) answers
+ * as a range starting at the cursor, so page 1000 costs the same as page 1. Sent to
+ * clients as an opaque URL-safe token.
+ */
+public final class Cursor {
+
+    private static final String VERSION = "1";
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public Cursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = VERSION + "|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the token was not produced by {@link #encode}
+     */
+    public static Cursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new Cursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.aitrujobs.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a cursor-paged listing. There is no total: counting is what makes offset
+ * paging cost twice the work, so clients follow {@code nextCursor} until it is null.
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Page from a slice fetched past the cursor; the next cursor is taken from its last row
+     */
+    public static <E, T> CursorPage<T> of(Slice<E> slice, Function<E, LocalDateTime> createdAt,
+                                          Function<E, Long> id, Function<E, T> mapper) {
+        List<E> rows = slice.getContent();
+        String next = null;
+        if (slice.hasNext() && !rows.isEmpty()) {
+            E last = rows.get(rows.size() - 1);
+            next = new Cursor(createdAt.apply(last), id.apply(last)).encode();
+        }
+        return new CursorPage<>(rows.stream().map(mapper).toList(), slice.getSize(), next);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+}
@@ -11,7 +11,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "applications")
+@Table(name = "applications", indexes = @Index(name = "idx_applications_created", columnList = "created_at, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
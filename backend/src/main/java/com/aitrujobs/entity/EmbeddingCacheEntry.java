@@ -0,0 +1,32 @@
+package com.aitrujobs.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "embedding_cache")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmbeddingCacheEntry {
+
+    // SHA-256 (hex) of the embedding model plus the normalized input text
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private String model;
+
+    @Convert(converter = FloatVectorConverter.class)
+    @Column(nullable = false, length = 16384)
+    private float[] vector;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
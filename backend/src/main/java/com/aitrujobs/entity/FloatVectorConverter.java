@@ -0,0 +1,46 @@
+package com.aitrujobs.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Stores embedding vectors as packed little-endian float32 (bytea / VARBINARY)
+ * instead of the decimal text produced by List.toString().
+ */
+@Converter
+public class FloatVectorConverter implements AttributeConverter<float[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(float[] vector) {
+        return encode(vector);
+    }
+
+    @Override
+    public float[] convertToEntityAttribute(byte[] bytes) {
+        return decode(bytes);
+    }
+
+    public static byte[] encode(float[] vector) {
+        if (vector == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    public static float[] decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length % Float.BYTES != 0) {
+            throw new IllegalArgumentException("Embedding column length " + bytes.length + " is not a multiple of 4");
+        }
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+}
@@ -4,16 +4,25 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
-@Table(name = "jobs")
+@Table(name = "jobs", indexes = {
+    // Newest-first seeks of the cursor listings: (filter, created_at, id)
+    @Index(name = "idx_jobs_published_created", columnList = "is_published, created_at, id"),
+    @Index(name = "idx_jobs_created_by_created", columnList = "created_by, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,6 +50,17 @@ public class Job {
     
     private String skills;
     
+    // The skills field resolved to canonical skills; kept in step by JobSkillService
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(name = "job_skills",
+            joinColumns = @JoinColumn(name = "job_id"),
+            inverseJoinColumns = @JoinColumn(name = "skill_id"),
+            indexes = @Index(name = "idx_job_skills_skill", columnList = "skill_id, job_id"))
+    private Set<Skill> canonicalSkills = new HashSet<>();
+    
     private String location;
     
     private String salaryRange;
@@ -57,9 +77,16 @@ public class Job {
     @OneToMany(mappedBy = "job", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Application> applications;
     
-    // AI-generated job embedding for matching
-    @Column(columnDefinition = "TEXT")
-    private String embeddingVector;
+    // AI-generated job embedding for matching (packed little-endian float32)
+    @JsonIgnore
+    @Convert(converter = FloatVectorConverter.class)
+    @Column(name = "embedding", length = 16384)
+    private float[] embeddingVector;
+    
+    // EmbeddingProvider model id that produced embeddingVector
+    @JsonIgnore
+    @Column(length = 100)
+    private String embeddingModel;
     
     @CreationTimestamp
     private LocalDateTime createdAt;
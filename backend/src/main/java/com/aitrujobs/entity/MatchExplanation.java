@@ -0,0 +1,41 @@
+package com.aitrujobs.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "match_explanations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchExplanation {
+
+    // SHA-256 (hex) of resumeHash, jobHash and model
+    @Id
+    @Column(length = 64)
+    private String cacheKey;
+
+    // SHA-256 of the resume's extracted text
+    @Column(nullable = false, length = 64)
+    private String resumeHash;
+
+    // SHA-256 of the job content (title, description, requirements, skills)
+    @Column(nullable = false, length = 64)
+    private String jobHash;
+
+    @Column(nullable = false)
+    private String model;
+
+    private Double atsScore;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String explanation;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
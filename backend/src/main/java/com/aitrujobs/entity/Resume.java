@@ -6,6 +6,7 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -14,7 +15,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "resumes")
+@Table(name = "resumes", indexes = @Index(name = "idx_resumes_file_path", columnList = "file_path"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -45,13 +46,33 @@ public class Resume {
     
     private Long fileSize;
     
+    // Hex SHA-256 of the stored file, served as the download ETag
+    @JsonIgnore
+    @Column(length = 64)
+    private String contentHash;
+    
     // Extracted text content from the resume
     @Column(columnDefinition = "TEXT")
     private String extractedText;
     
-    // AI-generated embedding vector for similarity matching
-    @Column(columnDefinition = "TEXT")
-    private String embeddingVector;
+    // Text extraction runs in the background after upload
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private ExtractionStatus extractionStatus = ExtractionStatus.PENDING;
+    
+    @Column(length = 500)
+    private String extractionError;
+    
+    // AI-generated embedding vector for similarity matching (packed little-endian float32)
+    @JsonIgnore
+    @Convert(converter = FloatVectorConverter.class)
+    @Column(name = "embedding", length = 16384)
+    private float[] embeddingVector;
+    
+    // EmbeddingProvider model id that produced embeddingVector
+    @JsonIgnore
+    @Column(length = 100)
+    private String embeddingModel;
     
     @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Application> applications;
@@ -61,4 +82,8 @@ public class Resume {
     
     @UpdateTimestamp
     private LocalDateTime updatedAt;
+    
+    public enum ExtractionStatus {
+        PENDING, EXTRACTED, FAILED
+    }
 }
@@ -0,0 +1,33 @@
+package com.aitrujobs.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * A canonical skill, named as in the skill taxonomy so aliases ("k8s", "Kubernetes")
+ * share one row. Jobs link to skills through the job_skills table.
+ */
+@Entity
+@Table(name = "skills", indexes = @Index(name = "uk_skills_name", columnList = "name", unique = true))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class Skill {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Canonical display name from the taxonomy
+    @EqualsAndHashCode.Include
+    @Column(nullable = false)
+    private String name;
+
+    public Skill(String name) {
+        this.name = name;
+    }
+}
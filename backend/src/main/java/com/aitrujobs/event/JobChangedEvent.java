@@ -0,0 +1,39 @@
+package com.aitrujobs.event;
+
+import com.aitrujobs.entity.Job;
+
+/**
+ * Published after a job is created, edited, published, unpublished or deleted. Each
+ * in-memory job index listens for it and updates itself, so writers do not need to know
+ * which indexes exist.
+ */
+public class JobChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        PUBLISHED,
+        UNPUBLISHED,
+        DELETED
+    }
+
+    private final Job job;
+    private final Type type;
+
+    public JobChangedEvent(Job job, Type type) {
+        this.job = job;
+        this.type = type;
+    }
+
+    public Job getJob() {
+        return job;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getJobId() {
+        return job.getId();
+    }
+}
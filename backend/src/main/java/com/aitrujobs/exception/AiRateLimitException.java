@@ -0,0 +1,11 @@
+package com.aitrujobs.exception;
+
+public class AiRateLimitException extends RuntimeException {
+    public AiRateLimitException(String message) {
+        super(message);
+    }
+    
+    public AiRateLimitException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
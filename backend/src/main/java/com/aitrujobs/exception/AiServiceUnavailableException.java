@@ -0,0 +1,11 @@
+package com.aitrujobs.exception;
+
+public class AiServiceUnavailableException extends RuntimeException {
+    public AiServiceUnavailableException(String message) {
+        super(message);
+    }
+    
+    public AiServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
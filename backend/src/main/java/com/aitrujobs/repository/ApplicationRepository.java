@@ -2,14 +2,20 @@ package com.aitrujobs.repository;
 
 import com.aitrujobs.entity.Application;
 import com.aitrujobs.entity.Job;
+import com.aitrujobs.entity.Resume;
 import com.aitrujobs.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -34,6 +40,24 @@ public interface ApplicationRepository extends JpaRepository<Application, Long>
     @Query("SELECT a FROM Application a JOIN FETCH a.job j JOIN FETCH a.user u LEFT JOIN FETCH a.resume r WHERE j.createdBy = :recruiter ORDER BY a.createdAt DESC")
     Page<Application> findApplicationsForRecruiter(@Param("recruiter") User recruiter, Pageable pageable);
     
+    // Keyset pages of a recruiter's applications, newest first; status null = any
+    @Query("SELECT a FROM Application a JOIN FETCH a.job j JOIN FETCH a.user u LEFT JOIN FETCH a.resume r " +
+           "WHERE j.createdBy = :recruiter AND (:status IS NULL OR a.status = :status) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    Slice<Application> findForRecruiterNewest(@Param("recruiter") User recruiter,
+                                              @Param("status") Application.Status status,
+                                              Pageable pageable);
+
+    @Query("SELECT a FROM Application a JOIN FETCH a.job j JOIN FETCH a.user u LEFT JOIN FETCH a.resume r " +
+           "WHERE j.createdBy = :recruiter AND (:status IS NULL OR a.status = :status) " +
+           "AND (a.createdAt, a.id) < (:createdAt, :id) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    Slice<Application> findForRecruiterNewestAfter(@Param("recruiter") User recruiter,
+                                                   @Param("status") Application.Status status,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+    
     @Query("SELECT a FROM Application a WHERE a.status = :status ORDER BY a.atsScore DESC")
     Page<Application> findByStatusOrderByAtsScoreDesc(@Param("status") Application.Status status, Pageable pageable);
     
@@ -53,4 +77,16 @@ public interface ApplicationRepository extends JpaRepository<Application, Long>
 
     @Query("SELECT a FROM Application a JOIN FETCH a.job j JOIN FETCH j.createdBy JOIN FETCH a.user u LEFT JOIN FETCH a.resume r WHERE a.id = :id")
     Optional<Application> findByIdWithAssociations(@Param("id") Long id);
+
+    // Applications still waiting for an ATS score once the missing embedding arrives
+    @Query("SELECT a FROM Application a JOIN FETCH a.job JOIN FETCH a.resume WHERE a.resume = :resume AND a.atsScore IS NULL")
+    List<Application> findUnscoredByResume(@Param("resume") Resume resume);
+
+    @Query("SELECT a FROM Application a JOIN FETCH a.job JOIN FETCH a.resume WHERE a.job = :job AND a.atsScore IS NULL")
+    List<Application> findUnscoredByJob(@Param("job") Job job);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Application a SET a.atsScore = :score WHERE a.id = :id AND a.atsScore IS NULL")
+    int updateAtsScoreIfUnscored(@Param("id") Long id, @Param("score") Double score);
 }
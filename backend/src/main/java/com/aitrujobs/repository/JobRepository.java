@@ -7,11 +7,16 @@ import com.aitrujobs.entity.Job;
 import com.aitrujobs.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -19,30 +24,83 @@ public interface JobRepository extends JpaRepository<Job, Long> {
     
     Page<Job> findByIsPublishedTrue(Pageable pageable);
     
-    List<Job> findByIsPublishedTrueAndIdNot(Long excludeId);
+    List<Job> findByIsPublishedTrue();
     
-    Page<Job> findByCreatedBy(User createdBy, Pageable pageable);
+    // Keyset pages, newest first: a Slice reads one extra row instead of running a count,
+    // and the *After variants seek past the last (createdAt, id) seen instead of skipping rows.
+    // The row-value comparison gives the (..., created_at, id) indexes a range start; the
+    // equivalent OR form only filters rows while scanning from the top of the index. The
+    // constant leading column is repeated in ORDER BY so H2 reads the index in order.
+    @Query("SELECT j FROM Job j WHERE j.isPublished = true ORDER BY j.isPublished DESC, j.createdAt DESC, j.id DESC")
+    Slice<Job> findPublishedNewest(Pageable pageable);
     
     @Query("SELECT j FROM Job j WHERE j.isPublished = true AND " +
-           "(LOWER(j.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(j.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(j.skills) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Job> searchJobs(@Param("keyword") String keyword, Pageable pageable);
+           "(j.createdAt, j.id) < (:createdAt, :id) " +
+           "ORDER BY j.isPublished DESC, j.createdAt DESC, j.id DESC")
+    Slice<Job> findPublishedNewestAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                        Pageable pageable);
+    
+    List<Job> findByIsPublishedTrueAndIdNot(Long excludeId);
     
+    
+    /** Published jobs with no embedding from the given model (missing, or made by another provider) */
     @Query("SELECT j FROM Job j WHERE j.isPublished = true AND " +
-           "(:location IS NULL OR LOWER(j.location) LIKE LOWER(CONCAT('%', :location, '%'))) AND " +
-           "(:skills IS NULL OR LOWER(j.skills) LIKE LOWER(CONCAT('%', :skills, '%'))) AND " +
-           "(:jobType IS NULL OR j.jobType = :jobType)")
-    Page<Job> findJobsWithFilters(@Param("location") String location, 
-                                  @Param("skills") String skills, 
-                                  @Param("jobType") String jobType, 
-                                  Pageable pageable);
+           "(j.embeddingVector IS NULL OR j.embeddingModel IS NULL OR j.embeddingModel <> :model)")
+    List<Job> findPublishedWithoutEmbeddingFrom(@Param("model") String model);
+    
+    Page<Job> findByCreatedBy(User createdBy, Pageable pageable);
+    
+    @Query("SELECT j FROM Job j WHERE j.createdBy = :createdBy " +
+           "ORDER BY j.createdBy.id DESC, j.createdAt DESC, j.id DESC")
+    Slice<Job> findByCreatedByNewest(@Param("createdBy") User createdBy, Pageable pageable);
+    
+    @Query("SELECT j FROM Job j WHERE j.createdBy = :createdBy AND " +
+           "(j.createdAt, j.id) < (:createdAt, :id) " +
+           "ORDER BY j.createdBy.id DESC, j.createdAt DESC, j.id DESC")
+    Slice<Job> findByCreatedByNewestAfter(@Param("createdBy") User createdBy,
+                                          @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                          Pageable pageable);
+    
+    /** The recruiter's jobs linked to at least one of the skills; served by idx_job_skills_skill */
+    @Query("SELECT j FROM Job j WHERE j.createdBy = :createdBy AND j.id IN " +
+           "(SELECT js.id FROM Job js JOIN js.canonicalSkills s WHERE s.id IN :skillIds)")
+    Page<Job> findByCreatedByWithAnySkill(@Param("createdBy") User createdBy,
+                                          @Param("skillIds") Collection<Long> skillIds,
+                                          Pageable pageable);
+    
+    /** The recruiter's jobs linked to every one of the skills; skillCount = number of distinct ids */
+    @Query("SELECT j FROM Job j WHERE j.createdBy = :createdBy AND j.id IN " +
+           "(SELECT js.id FROM Job js JOIN js.canonicalSkills s WHERE s.id IN :skillIds " +
+           "GROUP BY js.id HAVING COUNT(s.id) = :skillCount)")
+    Page<Job> findByCreatedByWithAllSkills(@Param("createdBy") User createdBy,
+                                           @Param("skillIds") Collection<Long> skillIds,
+                                           @Param("skillCount") long skillCount,
+                                           Pageable pageable);
+    
+    /** Jobs whose skills field has not been resolved to canonical skills yet */
+    @Query("SELECT j FROM Job j WHERE j.skills IS NOT NULL AND j.skills <> '' AND j.canonicalSkills IS EMPTY")
+    List<Job> findWithUnlinkedSkills();
     
     // Count methods for dashboard statistics
     long countByCreatedBy(User createdBy);
     long countByCreatedByAndIsPublishedTrue(User createdBy);
-       long countByIsPublishedTrue();
+    long countByIsPublishedTrue();
+
+    @Query("SELECT j FROM Job j JOIN FETCH j.createdBy WHERE j.id = :id")
+    Optional<Job> findByIdWithCreatedBy(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.embeddingVector = :vector, j.embeddingModel = :model WHERE j.id = :id")
+    int updateEmbeddingVector(@Param("id") Long id, @Param("vector") float[] vector, @Param("model") String model);
+
+    /** (id, embedding) pairs without loading the rest of each job */
+    @Query("SELECT j.id, j.embeddingVector FROM Job j WHERE j.id IN :ids")
+    List<Object[]> findEmbeddingVectorsByIdIn(@Param("ids") Collection<Long> ids);
 
-       @Query("SELECT j FROM Job j JOIN FETCH j.createdBy WHERE j.id = :id")
-       Optional<Job> findByIdWithCreatedBy(@Param("id") Long id);
+    /** Keyset batch of (id, embedding) pairs of published jobs embedded by the model, in id order */
+    @Query("SELECT j.id, j.embeddingVector FROM Job j WHERE j.isPublished = true AND j.embeddingModel = :model " +
+           "AND j.id > :afterId ORDER BY j.id")
+    List<Object[]> findPublishedEmbeddingsAfter(@Param("model") String model, @Param("afterId") Long afterId,
+                                                Pageable pageable);
 }
@@ -3,7 +3,11 @@ package com.aitrujobs.repository;
 import com.aitrujobs.entity.Resume;
 import com.aitrujobs.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,4 +20,41 @@ public interface ResumeRepository extends JpaRepository<Resume, Long> {
     List<Resume> findByUserOrderByCreatedAtDesc(User user);
     
     Optional<Resume> findFirstByUserOrderByCreatedAtDesc(User user);
+    
+    boolean existsByFilePath(String filePath);
+    
+    @Query("SELECT r FROM Resume r JOIN FETCH r.user WHERE r.id = :id")
+    Optional<Resume> findByIdWithUser(@Param("id") Long id);
+    
+    @Query("SELECT DISTINCT r.filePath FROM Resume r")
+    List<String> findAllFilePaths();
+    
+    List<Resume> findByExtractionStatus(Resume.ExtractionStatus extractionStatus);
+    
+    /** Status for rows saved before extraction was tracked: extracted when they hold text, else pending */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Resume r SET r.extractionStatus = " +
+           "CASE WHEN r.extractedText IS NULL THEN :pending ELSE :extracted END " +
+           "WHERE r.extractionStatus IS NULL")
+    int backfillExtractionStatus(@Param("pending") Resume.ExtractionStatus pending,
+                                 @Param("extracted") Resume.ExtractionStatus extracted);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Resume r SET r.extractedText = :text, r.extractionStatus = :status, r.extractionError = :error WHERE r.id = :id")
+    int updateExtraction(@Param("id") Long id,
+                         @Param("text") String text,
+                         @Param("status") Resume.ExtractionStatus status,
+                         @Param("error") String error);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Resume r SET r.embeddingVector = :vector, r.embeddingModel = :model WHERE r.id = :id")
+    int updateEmbeddingVector(@Param("id") Long id, @Param("vector") float[] vector, @Param("model") String model);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Resume r SET r.contentHash = :hash WHERE r.id = :id")
+    int updateContentHash(@Param("id") Long id, @Param("hash") String hash);
 }
@@ -0,0 +1,14 @@
+package com.aitrujobs.repository;
+
+import com.aitrujobs.entity.Skill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SkillRepository extends JpaRepository<Skill, Long> {
+
+    List<Skill> findByNameIn(Collection<String> names);
+}
@@ -0,0 +1,124 @@
+package com.aitrujobs.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton over a fixed set of patterns: one left-to-right pass over the
+ * text reports every occurrence of every pattern. Transitions are frozen into sorted
+ * per-state arrays after construction, so scanning allocates nothing.
+ */
+final class AhoCorasick {
+
+    @FunctionalInterface
+    interface MatchHandler {
+        /** Pattern {@code pattern} occurs at {@code [start, end)} */
+        void onMatch(int pattern, int start, int end);
+    }
+
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] fail;
+    /** Pattern ending at each state, or -1 */
+    private final int[] output;
+    /** Nearest state on the fail chain that has an output, or -1 */
+    private final int[] outputLink;
+    private final int[] patternLengths;
+
+    /**
+     * Patterns must be distinct and non-empty; the index in the list is the pattern id
+     */
+    AhoCorasick(List<String> patterns) {
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        trie.add(new HashMap<>());
+        outputs.add(-1);
+        patternLengths = new int[patterns.size()];
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id);
+            patternLengths[id] = pattern.length();
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer child = trie.get(state).get(pattern.charAt(i));
+                if (child == null) {
+                    child = trie.size();
+                    trie.get(state).put(pattern.charAt(i), child);
+                    trie.add(new HashMap<>());
+                    outputs.add(-1);
+                }
+                state = child;
+            }
+            outputs.set(state, id);
+        }
+
+        int states = trie.size();
+        keys = new char[states][];
+        targets = new int[states][];
+        for (int state = 0; state < states; state++) {
+            Map<Character, Integer> children = trie.get(state);
+            char[] stateKeys = new char[children.size()];
+            int i = 0;
+            for (Character key : children.keySet()) {
+                stateKeys[i++] = key;
+            }
+            Arrays.sort(stateKeys);
+            int[] stateTargets = new int[stateKeys.length];
+            for (i = 0; i < stateKeys.length; i++) {
+                stateTargets[i] = children.get(stateKeys[i]);
+            }
+            keys[state] = stateKeys;
+            targets[state] = stateTargets;
+        }
+
+        output = outputs.stream().mapToInt(Integer::intValue).toArray();
+        fail = new int[states];
+        outputLink = new int[states];
+        Arrays.fill(outputLink, -1);
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < keys[state].length; i++) {
+                char c = keys[state][i];
+                int child = targets[state][i];
+                int f = fail[state];
+                while (f != 0 && child(f, c) < 0) {
+                    f = fail[f];
+                }
+                int target = child(f, c);
+                fail[child] = target >= 0 ? target : 0;
+                outputLink[child] = output[fail[child]] >= 0 ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    void scan(char[] text, int length, MatchHandler handler) {
+        int state = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text[i];
+            int next = child(state, c);
+            while (next < 0 && state != 0) {
+                state = fail[state];
+                next = child(state, c);
+            }
+            state = next < 0 ? 0 : next;
+            for (int hit = output[state] >= 0 ? state : outputLink[state]; hit >= 0; hit = outputLink[hit]) {
+                int pattern = output[hit];
+                handler.onMatch(pattern, i + 1 - patternLengths[pattern], i + 1);
+            }
+        }
+    }
+
+    private int child(int state, char c) {
+        int index = Arrays.binarySearch(keys[state], c);
+        return index >= 0 ? targets[state][index] : -1;
+    }
+}
@@ -0,0 +1,127 @@
+package com.aitrujobs.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizer plus a chain of token filters. The tokenizer splits on anything that is
+ * not a letter, digit, '+', '#' or '.', so "c++", "c#" and "node.js" survive; each
+ * filter then rewrites a token or drops it by returning null.
+ */
+public final class Analyzer {
+
+    /** One step of the chain; returns the rewritten token, or null to drop it */
+    @FunctionalInterface
+    public interface TokenFilter {
+        String apply(String token);
+    }
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}+#.]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "have", "in",
+            "is", "it", "its", "of", "on", "or", "our", "that", "the", "this", "to", "we", "will",
+            "with", "you", "your", "years", "year", "experience", "work", "working");
+
+    public static final TokenFilter LOWER_CASE = token -> token.toLowerCase(Locale.ROOT);
+
+    /** Strips sentence punctuation so "java." and "java" match; inner dots are kept */
+    public static final TokenFilter TRIM_DOTS = token -> {
+        int start = 0;
+        int end = token.length();
+        while (start < end && token.charAt(start) == '.') {
+            start++;
+        }
+        while (end > start && token.charAt(end - 1) == '.') {
+            end--;
+        }
+        return token.substring(start, end);
+    };
+
+    public static final TokenFilter MIN_LENGTH = token -> token.length() >= 2 ? token : null;
+
+    public static final TokenFilter STOP = token -> STOP_WORDS.contains(token) ? null : token;
+
+    /**
+     * Harman's plural stemmer ("services" -> "service", "libraries" -> "library"); leaves
+     * tokens with digits or symbols alone so "c++" or "es6" are never rewritten
+     */
+    public static final TokenFilter PLURAL_STEM = token -> {
+        int length = token.length();
+        if (length < 4 || token.charAt(length - 1) != 's' || !isLetters(token)) {
+            return token;
+        }
+        if (token.endsWith("ies") && !token.endsWith("eies") && !token.endsWith("aies")) {
+            return token.substring(0, length - 3) + 'y';
+        }
+        if (token.endsWith("es") && !token.endsWith("aes") && !token.endsWith("ees") && !token.endsWith("oes")) {
+            return token.substring(0, length - 1);
+        }
+        if (!token.endsWith("us") && !token.endsWith("ss") && !token.endsWith("is")) {
+            return token.substring(0, length - 1);
+        }
+        return token;
+    };
+
+    private static final Analyzer STANDARD = new Analyzer(List.of(LOWER_CASE, TRIM_DOTS, MIN_LENGTH, STOP, PLURAL_STEM));
+
+    private final List<TokenFilter> filters;
+
+    public Analyzer(List<TokenFilter> filters) {
+        this.filters = List.copyOf(filters);
+    }
+
+    /**
+     * Lower case, punctuation trim, two-character minimum, stop words, plural stemming
+     */
+    public static Analyzer standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Terms of the text in order, repeats included
+     */
+    public List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        for (String raw : SEPARATORS.split(text)) {
+            String term = raw;
+            for (int i = 0; i < filters.size() && term != null && !term.isEmpty(); i++) {
+                term = filters.get(i).apply(term);
+            }
+            if (term != null && !term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    public Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : analyze(text)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    public Set<String> termSet(String text) {
+        return new HashSet<>(analyze(text));
+    }
+
+    private static boolean isLetters(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isLetter(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
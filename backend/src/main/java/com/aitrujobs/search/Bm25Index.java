@@ -0,0 +1,120 @@
+package com.aitrujobs.search;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Okapi BM25 over a mutable corpus. Each document's term frequencies and length are
+ * analyzed once when it is added and kept, along with the corpus document frequencies
+ * and total length, so scoring a query against a document touches no text.
+ *
+ * {@link #score} is normalized for matching rather than ranking: the BM25 weight of the
+ * document terms the query contains, divided by the weight of all the document's terms.
+ * A resume holding every term of a job scores 1, rare and repeated job terms count for
+ * more, and the result is comparable across jobs of different lengths.
+ */
+public final class Bm25Index {
+
+    private final Analyzer analyzer;
+    private final double k1;
+    private final double b;
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final Map<String, Integer> documentFrequencies = new ConcurrentHashMap<>();
+    private volatile long totalLength;
+
+    public Bm25Index(Analyzer analyzer, double k1, double b) {
+        this.analyzer = analyzer;
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    public synchronized void upsert(long id, String text) {
+        remove(id);
+        Document document = new Document(analyzer.termFrequencies(text));
+        for (String term : document.frequencies.keySet()) {
+            documentFrequencies.merge(term, 1, Integer::sum);
+        }
+        documents.put(id, document);
+        totalLength += document.length;
+    }
+
+    public synchronized void remove(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.frequencies.keySet()) {
+            documentFrequencies.computeIfPresent(term, (key, count) -> count > 1 ? count - 1 : null);
+        }
+        totalLength -= document.length;
+    }
+
+    public synchronized void clear() {
+        documents.clear();
+        documentFrequencies.clear();
+        totalLength = 0;
+    }
+
+    public boolean contains(long id) {
+        return documents.containsKey(id);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    /**
+     * Normalized score (0-1) of the query terms against an indexed document, or -1 if the id is not indexed
+     */
+    public double score(Set<String> queryTerms, long id) {
+        Document document = documents.get(id);
+        return document == null ? -1 : score(queryTerms, document);
+    }
+
+    /**
+     * Normalized score (0-1) against a document that is not in the corpus, using the corpus statistics
+     */
+    public double score(Set<String> queryTerms, String text) {
+        return score(queryTerms, new Document(analyzer.termFrequencies(text)));
+    }
+
+    private double score(Set<String> queryTerms, Document document) {
+        if (document.length == 0) {
+            return 0.0;
+        }
+        int count = Math.max(1, documents.size());
+        double averageLength = documents.isEmpty() ? document.length : (double) totalLength / count;
+        double lengthNorm = k1 * (1 - b + b * document.length / Math.max(1.0, averageLength));
+        double matched = 0.0;
+        double total = 0.0;
+        for (Map.Entry<String, Integer> entry : document.frequencies.entrySet()) {
+            int tf = entry.getValue();
+            double weight = idf(entry.getKey(), count) * tf * (k1 + 1) / (tf + lengthNorm);
+            total += weight;
+            if (queryTerms.contains(entry.getKey())) {
+                matched += weight;
+            }
+        }
+        return total == 0.0 ? 0.0 : matched / total;
+    }
+
+    private double idf(String term, int count) {
+        int df = documentFrequencies.getOrDefault(term, 0);
+        return Math.log(1 + (count - df + 0.5) / (df + 0.5));
+    }
+
+    private static final class Document {
+        private final Map<String, Integer> frequencies;
+        private final int length;
+
+        private Document(Map<String, Integer> frequencies) {
+            this.frequencies = frequencies;
+            this.length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+}
@@ -0,0 +1,516 @@
+package com.aitrujobs.search;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed set of non-negative ints, laid out like a Roaring bitmap: values
+ * are grouped by their high 16 bits, and each group is stored as a sorted array of low
+ * halves while it holds at most 4096 values, or as a 65536-bit bitmap once denser. So a
+ * sparse set costs about two bytes per value and a dense one an eighth of a byte, and
+ * intersections work a group at a time with word-wide ANDs or array merges.
+ *
+ * {@link #with} and {@link #without} return a new bitmap sharing every untouched group,
+ * so a bitmap can be published to readers and replaced without locking.
+ */
+public final class CompressedBitmap {
+
+    public static final CompressedBitmap EMPTY = new CompressedBitmap(new char[0], new Container[0]);
+
+    /** Beyond this many values a group is smaller as a bitmap than as an array */
+    private static final int ARRAY_MAX = 4096;
+
+    private final char[] keys;
+    private final Container[] containers;
+    private final int cardinality;
+
+    private CompressedBitmap(char[] keys, Container[] containers) {
+        this.keys = keys;
+        this.containers = containers;
+        int total = 0;
+        for (Container container : containers) {
+            total += container.cardinality();
+        }
+        this.cardinality = total;
+    }
+
+    /**
+     * Bitmap of the given values, in any order, duplicates allowed
+     */
+    public static CompressedBitmap of(int... values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        char[] keys = new char[0];
+        Container[] containers = new Container[0];
+        int count = 0;
+        int start = 0;
+        while (start < sorted.length) {
+            checkValue(sorted[start]);
+            char key = (char) (sorted[start] >>> 16);
+            int end = start;
+            while (end < sorted.length && (sorted[end] >>> 16) == key) {
+                end++;
+            }
+            char[] low = new char[end - start];
+            int size = 0;
+            for (int i = start; i < end; i++) {
+                char value = (char) sorted[i];
+                if (size == 0 || low[size - 1] != value) {
+                    low[size++] = value;
+                }
+            }
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(4, count * 2));
+                containers = Arrays.copyOf(containers, keys.length);
+            }
+            keys[count] = key;
+            containers[count] = ArrayContainer.of(Arrays.copyOf(low, size));
+            count++;
+            start = end;
+        }
+        return new CompressedBitmap(Arrays.copyOf(keys, count), Arrays.copyOf(containers, count));
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int at = Arrays.binarySearch(keys, (char) (value >>> 16));
+        return at >= 0 && containers[at].contains((char) value);
+    }
+
+    public CompressedBitmap with(int value) {
+        checkValue(value);
+        char key = (char) (value >>> 16);
+        int at = Arrays.binarySearch(keys, key);
+        if (at >= 0) {
+            Container updated = containers[at].add((char) value);
+            return updated == containers[at] ? this : replace(at, updated);
+        }
+        int insert = -at - 1;
+        char[] newKeys = new char[keys.length + 1];
+        Container[] newContainers = new Container[containers.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, insert);
+        System.arraycopy(containers, 0, newContainers, 0, insert);
+        newKeys[insert] = key;
+        newContainers[insert] = ArrayContainer.of(new char[]{(char) value});
+        System.arraycopy(keys, insert, newKeys, insert + 1, keys.length - insert);
+        System.arraycopy(containers, insert, newContainers, insert + 1, containers.length - insert);
+        return new CompressedBitmap(newKeys, newContainers);
+    }
+
+    public CompressedBitmap without(int value) {
+        if (value < 0) {
+            return this;
+        }
+        int at = Arrays.binarySearch(keys, (char) (value >>> 16));
+        if (at < 0) {
+            return this;
+        }
+        Container updated = containers[at].remove((char) value);
+        if (updated == containers[at]) {
+            return this;
+        }
+        if (updated.cardinality() > 0) {
+            return replace(at, updated);
+        }
+        char[] newKeys = new char[keys.length - 1];
+        Container[] newContainers = new Container[containers.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, at);
+        System.arraycopy(containers, 0, newContainers, 0, at);
+        System.arraycopy(keys, at + 1, newKeys, at, keys.length - at - 1);
+        System.arraycopy(containers, at + 1, newContainers, at, containers.length - at - 1);
+        return new CompressedBitmap(newKeys, newContainers);
+    }
+
+    public CompressedBitmap and(CompressedBitmap other) {
+        char[] newKeys = new char[Math.min(keys.length, other.keys.length)];
+        Container[] newContainers = new Container[newKeys.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container both = containers[i].and(other.containers[j]);
+                if (both.cardinality() > 0) {
+                    newKeys[count] = keys[i];
+                    newContainers[count] = both;
+                    count++;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new CompressedBitmap(Arrays.copyOf(newKeys, count), Arrays.copyOf(newContainers, count));
+    }
+
+    /**
+     * Size of the intersection, without building it
+     */
+    public int andCardinality(CompressedBitmap other) {
+        int total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                total += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+
+    public CompressedBitmap or(CompressedBitmap other) {
+        char[] newKeys = new char[keys.length + other.keys.length];
+        Container[] newContainers = new Container[newKeys.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j >= other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                newKeys[count] = keys[i];
+                newContainers[count++] = containers[i++];
+            } else if (i >= keys.length || keys[i] > other.keys[j]) {
+                newKeys[count] = other.keys[j];
+                newContainers[count++] = other.containers[j++];
+            } else {
+                newKeys[count] = keys[i];
+                newContainers[count++] = containers[i++].or(other.containers[j++]);
+            }
+        }
+        return new CompressedBitmap(Arrays.copyOf(newKeys, count), Arrays.copyOf(newContainers, count));
+    }
+
+    /**
+     * Values from the largest down, skipping the first {@code skip}, at most {@code limit};
+     * whole groups are skipped by their counts
+     */
+    public int[] descending(int skip, int limit) {
+        int[] values = new int[Math.max(0, Math.min(limit, cardinality - skip))];
+        int filled = 0;
+        int toSkip = skip;
+        for (int g = containers.length - 1; g >= 0 && filled < values.length; g--) {
+            Container container = containers[g];
+            if (toSkip >= container.cardinality()) {
+                toSkip -= container.cardinality();
+                continue;
+            }
+            char[] low = container.toArray();
+            int high = keys[g] << 16;
+            for (int k = low.length - 1 - toSkip; k >= 0 && filled < values.length; k--) {
+                values[filled++] = high | low[k];
+            }
+            toSkip = 0;
+        }
+        return values;
+    }
+
+    public int[] toArray() {
+        int[] values = new int[cardinality];
+        int filled = 0;
+        for (int g = 0; g < containers.length; g++) {
+            int high = keys[g] << 16;
+            for (char low : containers[g].toArray()) {
+                values[filled++] = high | low;
+            }
+        }
+        return values;
+    }
+
+    private CompressedBitmap replace(int at, Container container) {
+        Container[] newContainers = containers.clone();
+        newContainers[at] = container;
+        return new CompressedBitmap(keys, newContainers);
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Bitmap values must be non-negative: " + value);
+        }
+    }
+
+    private abstract static class Container {
+        abstract int cardinality();
+
+        abstract boolean contains(char value);
+
+        /** This container when already present, otherwise a new one */
+        abstract Container add(char value);
+
+        /** This container when absent, otherwise a new one */
+        abstract Container remove(char value);
+
+        abstract Container and(Container other);
+
+        abstract int andCardinality(Container other);
+
+        abstract Container or(Container other);
+
+        /** Sorted low halves */
+        abstract char[] toArray();
+    }
+
+    private static final class ArrayContainer extends Container {
+        private final char[] values;
+
+        private ArrayContainer(char[] values) {
+            this.values = values;
+        }
+
+        /** Sorted distinct values, as an array or, when too many, a bitmap */
+        private static Container of(char[] values) {
+            if (values.length <= ARRAY_MAX) {
+                return new ArrayContainer(values);
+            }
+            long[] words = new long[1024];
+            for (char value : values) {
+                words[value >>> 6] |= 1L << value;
+            }
+            return new BitmapContainer(words, values.length);
+        }
+
+        @Override
+        int cardinality() {
+            return values.length;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, value) >= 0;
+        }
+
+        @Override
+        Container add(char value) {
+            int at = Arrays.binarySearch(values, value);
+            if (at >= 0) {
+                return this;
+            }
+            int insert = -at - 1;
+            char[] copy = new char[values.length + 1];
+            System.arraycopy(values, 0, copy, 0, insert);
+            copy[insert] = value;
+            System.arraycopy(values, insert, copy, insert + 1, values.length - insert);
+            return of(copy);
+        }
+
+        @Override
+        Container remove(char value) {
+            int at = Arrays.binarySearch(values, value);
+            if (at < 0) {
+                return this;
+            }
+            char[] copy = new char[values.length - 1];
+            System.arraycopy(values, 0, copy, 0, at);
+            System.arraycopy(values, at + 1, copy, at, values.length - at - 1);
+            return new ArrayContainer(copy);
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] both = new char[values.length];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < values.length && j < array.values.length) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        both[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (char value : values) {
+                    if (other.contains(value)) {
+                        both[count++] = value;
+                    }
+                }
+            }
+            return new ArrayContainer(Arrays.copyOf(both, count));
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < values.length && j < array.values.length) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        count++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (char value : values) {
+                    if (other.contains(value)) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            char[] otherValues = ((ArrayContainer) other).values;
+            char[] merged = new char[values.length + otherValues.length];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < values.length || j < otherValues.length) {
+                char next;
+                if (j >= otherValues.length || (i < values.length && values[i] < otherValues[j])) {
+                    next = values[i++];
+                } else if (i >= values.length || values[i] > otherValues[j]) {
+                    next = otherValues[j++];
+                } else {
+                    next = values[i++];
+                    j++;
+                }
+                merged[count++] = next;
+            }
+            return of(Arrays.copyOf(merged, count));
+        }
+
+        @Override
+        char[] toArray() {
+            return values;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private final int cardinality;
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        /** A bitmap, or an array once sparse enough */
+        private static Container of(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality > ARRAY_MAX) {
+                return new BitmapContainer(words, cardinality);
+            }
+            return new ArrayContainer(new BitmapContainer(words, cardinality).toArray());
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(char value) {
+            if (contains(value)) {
+                return this;
+            }
+            long[] copy = words.clone();
+            copy[value >>> 6] |= 1L << value;
+            return new BitmapContainer(copy, cardinality + 1);
+        }
+
+        @Override
+        Container remove(char value) {
+            if (!contains(value)) {
+                return this;
+            }
+            long[] copy = words.clone();
+            copy[value >>> 6] &= ~(1L << value);
+            return cardinality - 1 > ARRAY_MAX ? new BitmapContainer(copy, cardinality - 1) : of(copy);
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] both = new long[1024];
+            for (int i = 0; i < both.length; i++) {
+                both[i] = words[i] & otherWords[i];
+            }
+            return of(both);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.andCardinality(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                count += Long.bitCount(words[i] & otherWords[i]);
+            }
+            return count;
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] either = words.clone();
+            if (other instanceof BitmapContainer bitmap) {
+                for (int i = 0; i < either.length; i++) {
+                    either[i] |= bitmap.words[i];
+                }
+            } else {
+                for (char value : other.toArray()) {
+                    either[value >>> 6] |= 1L << value;
+                }
+            }
+            return of(either);
+        }
+
+        @Override
+        char[] toArray() {
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.aitrujobs.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One {@link CompressedBitmap} of document ids per (dimension, value), e.g. every job
+ * in location "Remote", plus one of all documents. Filtering is an AND of bitmaps and a
+ * facet count is the cardinality of one; neither touches a document.
+ *
+ * Readers get an immutable {@link Snapshot}; a write builds the next one from the
+ * bitmaps it changes and publishes it whole, so counts never mix two states.
+ */
+public final class FacetIndex {
+
+    private volatile Snapshot snapshot = new Snapshot(CompressedBitmap.EMPTY, Map.of());
+    /** Values each document is indexed under, to undo on update or removal */
+    private final Map<Integer, Map<String, Set<String>>> documents = new HashMap<>();
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Add or replace a document's values, per dimension
+     */
+    public synchronized void upsert(int id, Map<String, ? extends Collection<String>> values) {
+        Map<String, Set<String>> current = copy(values);
+        Map<String, Set<String>> previous = documents.put(id, current);
+        Snapshot base = snapshot;
+        Map<String, Map<String, CompressedBitmap>> dimensions = new HashMap<>(base.dimensions);
+        if (previous != null) {
+            apply(dimensions, id, previous, false);
+        }
+        apply(dimensions, id, current, true);
+        snapshot = new Snapshot(base.all.with(id), dimensions);
+    }
+
+    public synchronized void remove(int id) {
+        Map<String, Set<String>> previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        Snapshot base = snapshot;
+        Map<String, Map<String, CompressedBitmap>> dimensions = new HashMap<>(base.dimensions);
+        apply(dimensions, id, previous, false);
+        snapshot = new Snapshot(base.all.without(id), dimensions);
+    }
+
+    /**
+     * Replace every document at once, building each bitmap in one pass
+     */
+    public synchronized void replaceAll(Map<Integer, ? extends Map<String, ? extends Collection<String>>> replacement) {
+        documents.clear();
+        Map<String, Map<String, IntList>> ids = new HashMap<>();
+        IntList all = new IntList();
+        for (Map.Entry<Integer, ? extends Map<String, ? extends Collection<String>>> document : replacement.entrySet()) {
+            int id = document.getKey();
+            Map<String, Set<String>> values = copy(document.getValue());
+            documents.put(id, values);
+            all.add(id);
+            for (Map.Entry<String, Set<String>> dimension : values.entrySet()) {
+                Map<String, IntList> byValue = ids.computeIfAbsent(dimension.getKey(), d -> new HashMap<>());
+                for (String value : dimension.getValue()) {
+                    byValue.computeIfAbsent(value, v -> new IntList()).add(id);
+                }
+            }
+        }
+        Map<String, Map<String, CompressedBitmap>> dimensions = new HashMap<>();
+        for (Map.Entry<String, Map<String, IntList>> dimension : ids.entrySet()) {
+            Map<String, CompressedBitmap> bitmaps = new HashMap<>();
+            for (Map.Entry<String, IntList> value : dimension.getValue().entrySet()) {
+                bitmaps.put(value.getKey(), CompressedBitmap.of(value.getValue().toArray()));
+            }
+            dimensions.put(dimension.getKey(), Map.copyOf(bitmaps));
+        }
+        snapshot = new Snapshot(CompressedBitmap.of(all.toArray()), dimensions);
+    }
+
+    private static void apply(Map<String, Map<String, CompressedBitmap>> dimensions, int id,
+                              Map<String, Set<String>> values, boolean add) {
+        for (Map.Entry<String, Set<String>> dimension : values.entrySet()) {
+            Map<String, CompressedBitmap> bitmaps = new HashMap<>(dimensions.getOrDefault(dimension.getKey(), Map.of()));
+            for (String value : dimension.getValue()) {
+                CompressedBitmap bitmap = bitmaps.getOrDefault(value, CompressedBitmap.EMPTY);
+                bitmap = add ? bitmap.with(id) : bitmap.without(id);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(value);
+                } else {
+                    bitmaps.put(value, bitmap);
+                }
+            }
+            dimensions.put(dimension.getKey(), Map.copyOf(bitmaps));
+        }
+    }
+
+    private static Map<String, Set<String>> copy(Map<String, ? extends Collection<String>> values) {
+        Map<String, Set<String>> copy = new HashMap<>();
+        for (Map.Entry<String, ? extends Collection<String>> dimension : values.entrySet()) {
+            Set<String> distinct = new LinkedHashSet<>();
+            for (String value : dimension.getValue()) {
+                if (value != null && !value.isBlank()) {
+                    distinct.add(value.trim());
+                }
+            }
+            if (!distinct.isEmpty()) {
+                copy.put(dimension.getKey(), distinct);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * The index at one point in time
+     */
+    public static final class Snapshot {
+        private final CompressedBitmap all;
+        private final Map<String, Map<String, CompressedBitmap>> dimensions;
+
+        private Snapshot(CompressedBitmap all, Map<String, Map<String, CompressedBitmap>> dimensions) {
+            this.all = all;
+            this.dimensions = Map.copyOf(dimensions);
+        }
+
+        /** Every indexed document */
+        public CompressedBitmap all() {
+            return all;
+        }
+
+        /** Bitmap per value of the dimension */
+        public Map<String, CompressedBitmap> values(String dimension) {
+            return dimensions.getOrDefault(dimension, Map.of());
+        }
+
+        public CompressedBitmap bitmap(String dimension, String value) {
+            return values(dimension).getOrDefault(value, CompressedBitmap.EMPTY);
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[8];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
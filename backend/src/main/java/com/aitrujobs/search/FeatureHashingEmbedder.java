@@ -0,0 +1,78 @@
+package com.aitrujobs.search;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic, network-free text embedding by signed feature hashing.
+ *
+ * Terms (from {@link Analyzer#standard()}) and adjacent-term bigrams are hashed
+ * into a fixed number of dimensions with a hash-derived sign, weighted by 1 + log tf,
+ * and the result is L2-normalized so the dot product of two vectors is their cosine.
+ * There is no corpus IDF: a stored vector must not change when other documents do,
+ * so common words are handled by the stop-word list instead.
+ */
+public final class FeatureHashingEmbedder {
+
+    private static final float BIGRAM_WEIGHT = 0.5f;
+
+    private final int dimensions;
+
+    public FeatureHashingEmbedder(int dimensions) {
+        if (dimensions < 16) {
+            throw new IllegalArgumentException("dimensions must be at least 16, got " + dimensions);
+        }
+        this.dimensions = dimensions;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Unit-length embedding of the text, or an empty array when it has no usable terms
+     */
+    public float[] embed(String text) {
+        List<String> terms = Analyzer.standard().analyze(text);
+        if (terms.isEmpty()) {
+            return new float[0];
+        }
+        Map<String, Integer> unigrams = new HashMap<>();
+        Map<String, Integer> bigrams = new HashMap<>();
+        for (int i = 0; i < terms.size(); i++) {
+            unigrams.merge(terms.get(i), 1, Integer::sum);
+            if (i > 0) {
+                bigrams.merge(terms.get(i - 1) + ' ' + terms.get(i), 1, Integer::sum);
+            }
+        }
+        float[] vector = new float[dimensions];
+        unigrams.forEach((term, tf) -> add(vector, term, 1.0f + (float) Math.log(tf)));
+        bigrams.forEach((bigram, tf) -> add(vector, bigram, BIGRAM_WEIGHT * (1.0f + (float) Math.log(tf))));
+        return VectorMath.normalize(vector);
+    }
+
+    private void add(float[] vector, String feature, float weight) {
+        long hash = hash(feature);
+        int index = (int) ((hash >>> 1) % dimensions);
+        vector[index] += hash < 0 ? -weight : weight;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units followed by a murmur finalizer, so
+     * short terms spread over all dimensions and the sign bit is well mixed
+     */
+    private static long hash(String feature) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < feature.length(); i++) {
+            hash ^= feature.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
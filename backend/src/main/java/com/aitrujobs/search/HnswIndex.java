@@ -0,0 +1,480 @@
+package com.aitrujobs.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory Hierarchical Navigable Small World graph for approximate nearest
+ * neighbour search over cosine similarity (Malkov &amp; Yashunin).
+ *
+ * Vectors are normalized on insert so similarity is the pre-normalized dot product
+ * from {@link VectorMath}. Removals
+ * are tombstones: removed nodes still route searches but are never returned, and
+ * the graph is compacted once tombstones outnumber live nodes. Searches run
+ * concurrently under a read lock; inserts and removals take the write lock.
+ *
+ * With quantization enabled each node keeps only an {@link Int8Vector} (about a
+ * quarter of the float32 footprint) and distances are computed between the float
+ * query and the int8 codes. Similarities are then approximate, so callers should
+ * over-fetch and re-rank the candidates against full-precision vectors.
+ */
+public class HnswIndex {
+
+    private static final Comparator<Candidate> NEAREST_FIRST = Comparator.comparingDouble(c -> c.distance);
+    private static final Comparator<Candidate> FARTHEST_FIRST = NEAREST_FIRST.reversed();
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final boolean quantized;
+    private final double levelMultiplier;
+    private final Random random;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile int efSearch;
+    private List<Node> nodes = new ArrayList<>();
+    private Map<Long, Integer> nodeByKey = new HashMap<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int dimension = -1;
+    private int tombstones = 0;
+
+    public HnswIndex(int m, int efConstruction, int efSearch) {
+        this(m, efConstruction, efSearch, false);
+    }
+
+    public HnswIndex(int m, int efConstruction, int efSearch, boolean quantized) {
+        this(m, efConstruction, efSearch, quantized, 42L);
+    }
+
+    public HnswIndex(int m, int efConstruction, int efSearch, boolean quantized, long seed) {
+        if (m < 2) {
+            throw new IllegalArgumentException("M must be at least 2");
+        }
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = efSearch;
+        this.quantized = quantized;
+        this.levelMultiplier = 1.0 / Math.log(m);
+        this.random = new Random(seed);
+    }
+
+    public void setEfSearch(int efSearch) {
+        this.efSearch = efSearch;
+    }
+
+    public boolean isQuantized() {
+        return quantized;
+    }
+
+    /**
+     * Insert or replace the vector stored under the given key.
+     */
+    public void upsert(long key, float[] vector) {
+        float[] normalized = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            if (dimension == -1) {
+                dimension = normalized.length;
+            } else if (dimension != normalized.length) {
+                throw new IllegalArgumentException("Expected dimension " + dimension + " but got " + normalized.length);
+            }
+            Integer existing = nodeByKey.get(key);
+            if (existing != null) {
+                markDeleted(existing);
+            }
+            insert(key, normalized, quantized ? Int8Vector.quantize(normalized) : null);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long key) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = nodeByKey.remove(key);
+            if (existing == null) {
+                return false;
+            }
+            markDeleted(existing);
+            compactIfNeeded();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long key) {
+        lock.readLock().lock();
+        try {
+            return nodeByKey.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            nodes = new ArrayList<>();
+            nodeByKey = new HashMap<>();
+            entryPoint = -1;
+            maxLevel = -1;
+            dimension = -1;
+            tombstones = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Bytes held by the stored vectors (tombstones included, graph links excluded).
+     */
+    public long residentVectorBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Node node : nodes) {
+                bytes += node.codes != null ? node.codes.sizeInBytes() : (long) node.vector.length * Float.BYTES;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bytes the same vectors would take stored as float32.
+     */
+    public long float32VectorBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) nodes.size() * Math.max(dimension, 0) * Float.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate top-k by cosine similarity, best match first. When quantized the
+     * similarities are estimates from the int8 codes.
+     */
+    public List<SearchResult> search(float[] query, int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+        Query normalized = new Query(normalize(query));
+        lock.readLock().lock();
+        try {
+            if (entryPoint == -1 || normalized.vector.length != dimension) {
+                return List.of();
+            }
+            int ep = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                ep = greedyClosest(normalized, ep, level);
+            }
+            List<Candidate> found = searchLayer(normalized, ep, Math.max(efSearch, k), 0, true);
+            List<SearchResult> results = new ArrayList<>(Math.min(k, found.size()));
+            for (int i = 0; i < found.size() && results.size() < k; i++) {
+                Candidate c = found.get(i);
+                results.add(new SearchResult(nodes.get(c.node).key, 1.0 - c.distance));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Link a new node using the full-precision vector; only the codes are kept when given.
+     */
+    private void insert(long key, float[] vector, Int8Vector codes) {
+        int level = randomLevel();
+        int id = nodes.size();
+        Node node = new Node(key, codes == null ? vector : null, codes, level, m, maxM0);
+        Query query = new Query(vector);
+        nodes.add(node);
+        nodeByKey.put(key, id);
+
+        if (entryPoint == -1) {
+            entryPoint = id;
+            maxLevel = level;
+            return;
+        }
+
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedyClosest(query, ep, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> candidates = searchLayer(query, ep, efConstruction, l, false);
+            List<Candidate> selected = selectNeighbors(candidates, m);
+            for (Candidate neighbour : selected) {
+                node.addLink(l, neighbour.node);
+                connect(neighbour.node, id, l);
+            }
+            ep = candidates.get(0).node;
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = id;
+        }
+    }
+
+    private void connect(int from, int to, int level) {
+        Node node = nodes.get(from);
+        int capacity = level == 0 ? maxM0 : m;
+        if (node.linkCount(level) < capacity) {
+            node.addLink(level, to);
+            return;
+        }
+        // Over capacity: re-select the best links among the existing ones plus the new node
+        Query origin = node.asQuery();
+        List<Candidate> candidates = new ArrayList<>(capacity + 1);
+        candidates.add(new Candidate(to, distance(origin, nodes.get(to))));
+        int[] links = node.links[level];
+        for (int i = 0; i < node.linkCounts[level]; i++) {
+            candidates.add(new Candidate(links[i], distance(origin, nodes.get(links[i]))));
+        }
+        candidates.sort(NEAREST_FIRST);
+        List<Candidate> kept = selectNeighbors(candidates, capacity);
+        node.linkCounts[level] = 0;
+        for (Candidate c : kept) {
+            node.addLink(level, c.node);
+        }
+    }
+
+    /**
+     * Neighbour selection heuristic (algorithm 4) with pruned connections kept as
+     * filler, which preserves connectivity across clusters. Input must be sorted
+     * nearest first.
+     */
+    private List<Candidate> selectNeighbors(List<Candidate> candidates, int limit) {
+        if (candidates.size() <= limit) {
+            return candidates;
+        }
+        List<Candidate> selected = new ArrayList<>(limit);
+        List<Candidate> pruned = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() >= limit) {
+                break;
+            }
+            Query vector = nodes.get(candidate.node).asQuery();
+            boolean diverse = true;
+            for (Candidate chosen : selected) {
+                if (distance(vector, nodes.get(chosen.node)) < candidate.distance) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                pruned.add(candidate);
+            }
+        }
+        for (int i = 0; i < pruned.size() && selected.size() < limit; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+
+    private int greedyClosest(Query query, int ep, int level) {
+        int current = ep;
+        double currentDistance = distance(query, nodes.get(current));
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            Node node = nodes.get(current);
+            int[] links = node.links[level];
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                double d = distance(query, nodes.get(links[i]));
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = links[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Beam search on one layer. Returns up to ef candidates, nearest first. When
+     * skipDeleted is set tombstoned nodes are traversed but left out of the result.
+     */
+    private List<Candidate> searchLayer(Query query, int ep, int ef, int level, boolean skipDeleted) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>(NEAREST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(FARTHEST_FIRST);
+
+        Candidate start = new Candidate(ep, distance(query, nodes.get(ep)));
+        visited.set(ep);
+        frontier.add(start);
+        if (!skipDeleted || !nodes.get(ep).deleted) {
+            results.add(start);
+        }
+
+        while (!frontier.isEmpty()) {
+            Candidate current = frontier.poll();
+            if (results.size() >= ef && current.distance > results.peek().distance) {
+                break;
+            }
+            Node node = nodes.get(current.node);
+            int[] links = node.links[level];
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                int next = links[i];
+                if (visited.get(next)) {
+                    continue;
+                }
+                visited.set(next);
+                Node neighbour = nodes.get(next);
+                double d = distance(query, neighbour);
+                if (results.size() < ef || d < results.peek().distance) {
+                    Candidate candidate = new Candidate(next, d);
+                    frontier.add(candidate);
+                    if (!skipDeleted || !neighbour.deleted) {
+                        results.add(candidate);
+                        if (results.size() > ef) {
+                            results.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(results);
+        sorted.sort(NEAREST_FIRST);
+        return sorted;
+    }
+
+    private void markDeleted(int id) {
+        Node node = nodes.get(id);
+        if (!node.deleted) {
+            node.deleted = true;
+            tombstones++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (tombstones <= nodeByKey.size() || tombstones < 64) {
+            return;
+        }
+        List<Node> live = new ArrayList<>(nodeByKey.size());
+        for (Node node : nodes) {
+            if (!node.deleted) {
+                live.add(node);
+            }
+        }
+        nodes = new ArrayList<>(live.size());
+        nodeByKey = new HashMap<>();
+        entryPoint = -1;
+        maxLevel = -1;
+        tombstones = 0;
+        for (Node node : live) {
+            insert(node.key, node.vector != null ? node.vector : node.codes.decode(), node.codes);
+        }
+    }
+
+    private int randomLevel() {
+        double r = random.nextDouble();
+        return (int) Math.floor(-Math.log(Math.max(r, Double.MIN_VALUE)) * levelMultiplier);
+    }
+
+    private static double distance(Query query, Node node) {
+        if (node.codes != null) {
+            return 1.0 - node.codes.dot(query.vector, query.sum);
+        }
+        return 1.0 - VectorMath.dot(query.vector, node.vector);
+    }
+
+    private static float[] normalize(float[] vector) {
+        return VectorMath.normalize(vector);
+    }
+
+    private static final class Node {
+        final long key;
+        final float[] vector;
+        final Int8Vector codes;
+        final int[][] links;
+        final int[] linkCounts;
+        boolean deleted;
+
+        Node(long key, float[] vector, Int8Vector codes, int level, int m, int maxM0) {
+            this.key = key;
+            this.vector = vector;
+            this.codes = codes;
+            this.links = new int[level + 1][];
+            this.linkCounts = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                links[l] = new int[l == 0 ? maxM0 : m];
+            }
+        }
+
+        Query asQuery() {
+            return new Query(vector != null ? vector : codes.decode());
+        }
+
+        int linkCount(int level) {
+            return linkCounts[level];
+        }
+
+        void addLink(int level, int target) {
+            links[level][linkCounts[level]++] = target;
+        }
+    }
+
+    /**
+     * Normalized query with its component sum, which the int8 dot product needs
+     */
+    private static final class Query {
+        final float[] vector;
+        final float sum;
+
+        Query(float[] vector) {
+            this.vector = vector;
+            this.sum = Int8Vector.sum(vector);
+        }
+    }
+
+    private static final class Candidate {
+        final int node;
+        final double distance;
+
+        Candidate(int node, double distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+    }
+
+    public static class SearchResult {
+        private final long key;
+        private final double similarity;
+
+        public SearchResult(long key, double similarity) {
+            this.key = key;
+            this.similarity = similarity;
+        }
+
+        public long getKey() { return key; }
+        public double getSimilarity() { return similarity; }
+    }
+}
@@ -0,0 +1,69 @@
+package com.aitrujobs.search;
+
+/**
+ * Scalar-quantized vector: one signed byte per dimension plus a per-vector
+ * scale and offset, so component i decodes to {@code offset + scale * codes[i]}.
+ * Takes a quarter of the float32 footprint; the rounding error is at most
+ * half a step ((max - min) / 510) per component.
+ */
+final class Int8Vector {
+
+    /** Bytes taken by the scale and offset beside the codes */
+    static final int OVERHEAD_BYTES = 2 * Float.BYTES;
+
+    private final byte[] codes;
+    private final float scale;
+    private final float offset;
+
+    private Int8Vector(byte[] codes, float scale, float offset) {
+        this.codes = codes;
+        this.scale = scale;
+        this.offset = offset;
+    }
+
+    static Int8Vector quantize(float[] vector) {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (float v : vector) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        byte[] codes = new byte[vector.length];
+        if (vector.length == 0 || max == min) {
+            return new Int8Vector(codes, 0f, vector.length == 0 ? 0f : min);
+        }
+        float scale = (max - min) / 255f;
+        for (int i = 0; i < vector.length; i++) {
+            int level = Math.round((vector[i] - min) / scale);
+            codes[i] = (byte) (Math.min(255, Math.max(0, level)) - 128);
+        }
+        return new Int8Vector(codes, scale, min + 128 * scale);
+    }
+
+    /**
+     * Dot product with a float query; {@code querySum} is the sum of the query's components.
+     */
+    float dot(float[] query, float querySum) {
+        return offset * querySum + scale * VectorMath.dot(query, codes);
+    }
+
+    float[] decode() {
+        float[] vector = new float[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            vector[i] = offset + scale * codes[i];
+        }
+        return vector;
+    }
+
+    int sizeInBytes() {
+        return codes.length + OVERHEAD_BYTES;
+    }
+
+    static float sum(float[] vector) {
+        float sum = 0f;
+        for (float v : vector) {
+            sum += v;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,318 @@
+package com.aitrujobs.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Term → postings index with BM25 ranking. Each postings list holds the ids of the
+ * documents containing the term in ascending order, with the term frequency and the
+ * document length alongside, so a search reads only the lists of the query terms and
+ * never touches a document. Lists are immutable and swapped on write: searches run
+ * without locks while a single writer applies updates.
+ *
+ * A search merges the query terms' lists document-at-a-time, scoring each matching
+ * document once, and keeps the best {@code limit} in a bounded heap.
+ */
+public final class InvertedIndex {
+
+    private final double k1;
+    private final double b;
+    /** Sorted so that prefix expansion is a range scan */
+    private final ConcurrentSkipListMap<String, Postings> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, IndexedDocument> documents = new ConcurrentHashMap<>();
+    private volatile long totalLength;
+
+    public InvertedIndex(double k1, double b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /**
+     * Add or replace a document given its (possibly field-weighted) term frequencies
+     */
+    public synchronized void upsert(long id, Map<String, Integer> termFrequencies) {
+        remove(id);
+        int length = length(termFrequencies);
+        for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+            postings.put(entry.getKey(), postings.getOrDefault(entry.getKey(), Postings.EMPTY)
+                    .with(id, entry.getValue(), length));
+        }
+        documents.put(id, new IndexedDocument(termFrequencies.keySet().toArray(new String[0]), length));
+        totalLength += length;
+    }
+
+    public synchronized void remove(long id) {
+        IndexedDocument document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Postings remaining = postings.getOrDefault(term, Postings.EMPTY).without(id);
+            if (remaining.size() == 0) {
+                postings.remove(term);
+            } else {
+                postings.put(term, remaining);
+            }
+        }
+        totalLength -= document.length;
+    }
+
+    /**
+     * Replace the whole index in one pass; adding documents one at a time would copy
+     * every postings list once per document
+     */
+    public synchronized void replaceAll(Map<Long, Map<String, Integer>> replacement) {
+        Map<String, List<long[]>> lists = new HashMap<>();
+        long length = 0;
+        documents.clear();
+        for (Map.Entry<Long, Map<String, Integer>> document : replacement.entrySet()) {
+            long id = document.getKey();
+            int documentLength = length(document.getValue());
+            for (Map.Entry<String, Integer> entry : document.getValue().entrySet()) {
+                lists.computeIfAbsent(entry.getKey(), term -> new ArrayList<>())
+                        .add(new long[]{id, entry.getValue(), documentLength});
+            }
+            documents.put(id, new IndexedDocument(document.getValue().keySet().toArray(new String[0]), documentLength));
+            length += documentLength;
+        }
+        postings.clear();
+        for (Map.Entry<String, List<long[]>> entry : lists.entrySet()) {
+            postings.put(entry.getKey(), Postings.of(entry.getValue()));
+        }
+        totalLength = length;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    public boolean containsTerm(String term) {
+        return postings.containsKey(term);
+    }
+
+    /**
+     * Indexed terms starting with the prefix, in order, at most {@code limit}
+     */
+    public List<String> termsWithPrefix(String prefix, int limit) {
+        List<String> terms = new ArrayList<>();
+        NavigableMap<String, Postings> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        for (String term : range.keySet()) {
+            if (terms.size() >= limit) {
+                break;
+            }
+            terms.add(term);
+        }
+        return terms;
+    }
+
+    /**
+     * Documents containing any of the terms, best BM25 score first (ties: higher id first),
+     * at most {@code limit}; {@link Hits#getTotal} counts every matching document
+     */
+    public Hits search(Collection<String> terms, int limit) {
+        int count = size();
+        List<Postings> lists = new ArrayList<>();
+        List<Double> idfs = new ArrayList<>();
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list != null && list.size() > 0) {
+                lists.add(list);
+                idfs.add(Math.log(1 + (count - list.size() + 0.5) / (list.size() + 0.5)));
+            }
+        }
+        if (lists.isEmpty() || limit <= 0) {
+            return new Hits(new long[0], new double[0], 0);
+        }
+        double averageLength = Math.max(1.0, (double) totalLength / Math.max(1, count));
+
+        // Document-at-a-time merge of the sorted lists
+        int[] cursors = new int[lists.size()];
+        PriorityQueue<double[]> best = new PriorityQueue<>(Math.min(limit, 1024), InvertedIndex::compareHits);
+        int total = 0;
+        while (true) {
+            long id = Long.MAX_VALUE;
+            for (int i = 0; i < cursors.length; i++) {
+                Postings list = lists.get(i);
+                if (cursors[i] < list.size()) {
+                    id = Math.min(id, list.ids[cursors[i]]);
+                }
+            }
+            if (id == Long.MAX_VALUE) {
+                break;
+            }
+            double score = 0.0;
+            for (int i = 0; i < cursors.length; i++) {
+                Postings list = lists.get(i);
+                int at = cursors[i];
+                if (at < list.size() && list.ids[at] == id) {
+                    int tf = list.frequencies[at];
+                    double norm = k1 * (1 - b + b * list.lengths[at] / averageLength);
+                    score += idfs.get(i) * tf * (k1 + 1) / (tf + norm);
+                    cursors[i]++;
+                }
+            }
+            total++;
+            if (best.size() < limit) {
+                best.add(new double[]{score, id});
+            } else if (compareHits(score, id, best.peek()) > 0) {
+                best.poll();
+                best.add(new double[]{score, id});
+            }
+        }
+
+        int size = best.size();
+        long[] ids = new long[size];
+        double[] scores = new double[size];
+        for (int i = size - 1; i >= 0; i--) {
+            double[] hit = best.poll();
+            scores[i] = hit[0];
+            ids[i] = (long) hit[1];
+        }
+        return new Hits(ids, scores, total);
+    }
+
+    /** Worst hit first, for the bounded min-heap */
+    private static int compareHits(double[] left, double[] right) {
+        return compareHits(left[0], (long) left[1], right);
+    }
+
+    private static int compareHits(double score, long id, double[] other) {
+        int byScore = Double.compare(score, other[0]);
+        return byScore != 0 ? byScore : Long.compare(id, (long) other[1]);
+    }
+
+    private static int length(Map<String, Integer> termFrequencies) {
+        int length = 0;
+        for (int frequency : termFrequencies.values()) {
+            length += frequency;
+        }
+        return length;
+    }
+
+    public static final class Hits {
+        private final long[] ids;
+        private final double[] scores;
+        private final int total;
+
+        private Hits(long[] ids, double[] scores, int total) {
+            this.ids = ids;
+            this.scores = scores;
+            this.total = total;
+        }
+
+        public long[] getIds() {
+            return ids;
+        }
+
+        public double[] getScores() {
+            return scores;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    private static final class IndexedDocument {
+        private final String[] terms;
+        private final int length;
+
+        private IndexedDocument(String[] terms, int length) {
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    private static final class Postings {
+        private static final Postings EMPTY = new Postings(new long[0], new int[0], new int[0]);
+
+        private final long[] ids;
+        private final int[] frequencies;
+        private final int[] lengths;
+
+        private Postings(long[] ids, int[] frequencies, int[] lengths) {
+            this.ids = ids;
+            this.frequencies = frequencies;
+            this.lengths = lengths;
+        }
+
+        private static Postings of(List<long[]> entries) {
+            entries.sort((left, right) -> Long.compare(left[0], right[0]));
+            long[] ids = new long[entries.size()];
+            int[] frequencies = new int[entries.size()];
+            int[] lengths = new int[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                ids[i] = entries.get(i)[0];
+                frequencies[i] = (int) entries.get(i)[1];
+                lengths[i] = (int) entries.get(i)[2];
+            }
+            return new Postings(ids, frequencies, lengths);
+        }
+
+        private int size() {
+            return ids.length;
+        }
+
+        private Postings with(long id, int frequency, int length) {
+            int at = Arrays.binarySearch(ids, id);
+            if (at >= 0) {
+                Postings copy = new Postings(ids, frequencies.clone(), lengths.clone());
+                copy.frequencies[at] = frequency;
+                copy.lengths[at] = length;
+                return copy;
+            }
+            int insert = -at - 1;
+            return new Postings(insert(ids, insert, id), insert(frequencies, insert, frequency), insert(lengths, insert, length));
+        }
+
+        private Postings without(long id) {
+            int at = Arrays.binarySearch(ids, id);
+            if (at < 0) {
+                return this;
+            }
+            return new Postings(delete(ids, at), delete(frequencies, at), delete(lengths, at));
+        }
+
+        private static long[] insert(long[] values, int at, long value) {
+            long[] copy = new long[values.length + 1];
+            System.arraycopy(values, 0, copy, 0, at);
+            copy[at] = value;
+            System.arraycopy(values, at, copy, at + 1, values.length - at);
+            return copy;
+        }
+
+        private static int[] insert(int[] values, int at, int value) {
+            int[] copy = new int[values.length + 1];
+            System.arraycopy(values, 0, copy, 0, at);
+            copy[at] = value;
+            System.arraycopy(values, at, copy, at + 1, values.length - at);
+            return copy;
+        }
+
+        private static long[] delete(long[] values, int at) {
+            long[] copy = new long[values.length - 1];
+            System.arraycopy(values, 0, copy, 0, at);
+            System.arraycopy(values, at + 1, copy, at, values.length - at - 1);
+            return copy;
+        }
+
+        private static int[] delete(int[] values, int at) {
+            int[] copy = new int[values.length - 1];
+            System.arraycopy(values, 0, copy, 0, at);
+            System.arraycopy(values, at + 1, copy, at, values.length - at - 1);
+            return copy;
+        }
+    }
+}
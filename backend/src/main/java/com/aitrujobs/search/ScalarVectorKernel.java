@@ -0,0 +1,47 @@
+package com.aitrujobs.search;
+
+/**
+ * Plain-loop kernel used when the Vector API module is not available.
+ */
+final class ScalarVectorKernel implements VectorKernel {
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double cosine(float[] a, float[] b) {
+        float dot = 0f;
+        float normA = 0f;
+        float normB = 0f;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return VectorMath.cosineFrom(dot, normA, normB);
+    }
+
+    @Override
+    public float squaredNorm(float[] a) {
+        float sum = 0f;
+        for (float v : a) {
+            sum += v * v;
+        }
+        return sum;
+    }
+
+    @Override
+    public float dot(float[] a, byte[] codes) {
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * codes[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,204 @@
+package com.aitrujobs.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable skill taxonomy compiled into an {@link AhoCorasick} automaton. Every skill has
+ * a dense id; its name and aliases all resolve to that id, so "k8s" and "Kubernetes" are
+ * the same skill. {@link #scan} reads a text once and returns the ids found as a bitset.
+ *
+ * Matching is case-insensitive and treats runs of spaces, '-', '_' and '/' as one space.
+ * A match only counts on word boundaries, where letters, digits, '+' and '#' are word
+ * characters: "Java" does not match inside "JavaScript" and "C" does not match "C++".
+ * A '.' between word characters joins them, so "js" does not match inside "Node.js".
+ * Aliases written with a leading '=' (no separators) must also match case exactly, for
+ * short names such as "Go" or "R" that are ordinary words in lower case.
+ */
+public final class SkillDictionary {
+
+    public static final SkillDictionary EMPTY = new SkillDictionary(List.of(), List.of());
+
+    private final List<String> names;
+    private final List<List<String>> aliases;
+    private final Map<String, Integer> idsByForm;
+    private final List<String> patterns;
+    private final int[] patternSkills;
+    /** Exact-case form for patterns declared with '=', otherwise null */
+    private final String[] patternCase;
+    private final AhoCorasick automaton;
+
+    /**
+     * @param names   display name per skill id
+     * @param aliases additional forms per skill id (same order as names; may be shorter)
+     */
+    public SkillDictionary(List<String> names, List<List<String>> aliases) {
+        this.names = List.copyOf(names);
+        this.aliases = new ArrayList<>();
+        this.idsByForm = new HashMap<>();
+        Map<String, Integer> patternIds = new LinkedHashMap<>();
+        Map<String, String> exactCase = new HashMap<>();
+        for (int id = 0; id < names.size(); id++) {
+            List<String> forms = id < aliases.size() ? List.copyOf(aliases.get(id)) : List.of();
+            this.aliases.add(forms);
+            // Aliases first, so an exact-case alias takes over the name's own form
+            List<String> scanForms = new ArrayList<>(forms);
+            scanForms.add(names.get(id));
+            for (String form : scanForms) {
+                boolean exact = form.startsWith("=");
+                String raw = exact ? form.substring(1).trim() : form;
+                String normalized = normalize(raw);
+                if (normalized.isEmpty()) {
+                    continue;
+                }
+                idsByForm.putIfAbsent(normalized, id);
+                if (patternIds.putIfAbsent(normalized, id) == null && exact) {
+                    exactCase.put(normalized, raw);
+                }
+            }
+        }
+        this.patterns = new ArrayList<>(patternIds.keySet());
+        this.patternSkills = new int[patterns.size()];
+        this.patternCase = new String[patterns.size()];
+        for (int i = 0; i < patterns.size(); i++) {
+            patternSkills[i] = patternIds.get(patterns.get(i));
+            patternCase[i] = exactCase.get(patterns.get(i));
+        }
+        this.automaton = new AhoCorasick(patterns);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public String nameOf(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * Id of the skill with this name or alias, or -1
+     */
+    public int idOf(String nameOrAlias) {
+        if (nameOrAlias == null) {
+            return -1;
+        }
+        return idsByForm.getOrDefault(normalize(nameOrAlias), -1);
+    }
+
+    /**
+     * Copy with the given names added as new skills (each its own alias). Names that
+     * already resolve to a skill are skipped; returns this when nothing is new.
+     */
+    public SkillDictionary withSkills(Collection<String> newNames) {
+        List<String> extendedNames = new ArrayList<>(names);
+        List<List<String>> extendedAliases = new ArrayList<>(aliases);
+        Set<String> added = new HashSet<>();
+        for (String name : newNames) {
+            String normalized = normalize(name == null ? "" : name);
+            if (!normalized.isEmpty() && !idsByForm.containsKey(normalized) && added.add(normalized)) {
+                extendedNames.add(name.trim());
+                extendedAliases.add(Collections.emptyList());
+            }
+        }
+        return added.isEmpty() ? this : new SkillDictionary(extendedNames, extendedAliases);
+    }
+
+    /**
+     * Ids of all skills mentioned in the text, in one pass over it
+     */
+    public BitSet scan(String text) {
+        BitSet found = new BitSet(names.size());
+        if (text == null || text.isEmpty() || patterns.isEmpty()) {
+            return found;
+        }
+        char[] raw = new char[text.length()];
+        char[] folded = new char[text.length()];
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isSeparator(c)) {
+                if (length == 0 || folded[length - 1] == ' ') {
+                    continue;
+                }
+                c = ' ';
+            }
+            raw[length] = c;
+            folded[length] = Character.toLowerCase(c);
+            length++;
+        }
+        int end = length;
+        automaton.scan(folded, length, (pattern, start, stop) -> {
+            if (isBoundary(folded, start - 1, end) && isBoundary(folded, stop, end)
+                    && matchesCase(pattern, raw, start, stop)) {
+                found.set(patternSkills[pattern]);
+            }
+        });
+        return found;
+    }
+
+    /**
+     * Lower case, trimmed, with separator runs collapsed to one space
+     */
+    public static String normalize(String form) {
+        StringBuilder normalized = new StringBuilder(form.length());
+        for (int i = 0; i < form.length(); i++) {
+            char c = form.charAt(i);
+            if (isSeparator(c)) {
+                if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+                    normalized.append(' ');
+                }
+            } else {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.toString();
+    }
+
+    private boolean matchesCase(int pattern, char[] raw, int start, int stop) {
+        String exact = patternCase[pattern];
+        if (exact == null) {
+            return true;
+        }
+        for (int i = start; i < stop; i++) {
+            if (raw[i] != exact.charAt(i - start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the character at index (possibly just outside the text) ends a word
+     */
+    private static boolean isBoundary(char[] text, int index, int length) {
+        if (index < 0 || index >= length) {
+            return true;
+        }
+        char c = text[index];
+        if (c == '.') {
+            return index == 0 || index == length - 1
+                    || !isWordChar(text[index - 1]) || !isWordChar(text[index + 1]);
+        }
+        return !isWordChar(c);
+    }
+
+    private static boolean isSeparator(char c) {
+        return Character.isWhitespace(c) || c == '-' || c == '_' || c == '/';
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '+' || c == '#';
+    }
+}
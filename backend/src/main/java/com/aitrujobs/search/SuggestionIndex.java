@@ -0,0 +1,587 @@
+package com.aitrujobs.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Autocomplete over short phrases (job titles, skills, locations), each counted by how
+ * many documents carry it. Phrases live in a compressed (radix) trie under every word
+ * start, so "dev" finds "Java Developer"; each node records the highest count below it,
+ * so the most popular completions come out first and a lookup visits only about
+ * {@code limit} nodes past the prefix, however many phrases share it.
+ *
+ * Nodes are immutable and a write copies the path it changes, so lookups take no locks.
+ * When too few phrases match the prefix exactly, misspelled query words are corrected
+ * against the indexed words, found through their trigrams, and the lookup is repeated.
+ */
+public final class SuggestionIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}+#.]+");
+    /** Shorter words are not corrected; too few trigrams to tell typos apart */
+    private static final int MIN_FUZZY_LENGTH = 3;
+    /** Corrections tried for the word being typed, which may complete several ways */
+    private static final int MAX_LAST_WORD_CORRECTIONS = 3;
+
+    private volatile Node root = Node.EMPTY;
+    /** Phrase key → current suggestion, the source of the counts */
+    private volatile Map<String, Suggestion> suggestions = new ConcurrentHashMap<>();
+    /** Indexed word → number of phrases containing it */
+    private volatile Map<String, Integer> words = new ConcurrentHashMap<>();
+    /** Word trigram → indexed words containing it */
+    private volatile Map<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+
+    /**
+     * Count one more document carrying the phrase
+     */
+    public synchronized void add(String field, String text) {
+        adjust(field, text, 1);
+    }
+
+    /**
+     * Count one fewer document carrying the phrase; dropped when none is left
+     */
+    public synchronized void remove(String field, String text) {
+        adjust(field, text, -1);
+    }
+
+    /**
+     * Replace every phrase at once; lookups see the old index until the new one is complete
+     */
+    public synchronized void replaceAll(Collection<Map.Entry<String, String>> phrases) {
+        Map<String, Suggestion> counted = new HashMap<>();
+        for (Map.Entry<String, String> phrase : phrases) {
+            String normalized = normalize(phrase.getValue());
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            String key = phrase.getKey() + '\u0000' + normalized;
+            Suggestion previous = counted.get(key);
+            counted.put(key, previous == null
+                    ? new Suggestion(key, normalized, phrase.getValue().trim(), phrase.getKey(), 1)
+                    : previous.withPopularity(previous.popularity + 1));
+        }
+        List<Map.Entry<String, Suggestion>> keyed = new ArrayList<>();
+        Map<String, Integer> newWords = new ConcurrentHashMap<>();
+        Map<String, Set<String>> newTrigrams = new ConcurrentHashMap<>();
+        for (Suggestion suggestion : counted.values()) {
+            for (String suffix : wordSuffixes(suggestion.normalized)) {
+                keyed.add(Map.entry(suffix, suggestion));
+            }
+            addWords(suggestion.normalized, newWords, newTrigrams);
+        }
+        keyed.sort(Map.Entry.comparingByKey());
+        root = build(keyed, 0, keyed.size(), 0, "");
+        suggestions = new ConcurrentHashMap<>(counted);
+        words = newWords;
+        trigrams = newTrigrams;
+    }
+
+    public int size() {
+        return suggestions.size();
+    }
+
+    /**
+     * Phrases with a word starting with the query, most popular first, topped up with
+     * matches for a corrected query (fewest edits first) when fewer than {@code limit}
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        LinkedHashSet<Suggestion> results = new LinkedHashSet<>(prefixMatches(normalized, limit));
+        if (results.size() < limit) {
+            for (String corrected : corrections(normalized)) {
+                for (Suggestion suggestion : prefixMatches(corrected, limit)) {
+                    if (results.size() >= limit) {
+                        break;
+                    }
+                    results.add(suggestion);
+                }
+            }
+        }
+        return new ArrayList<>(results);
+    }
+
+    private void adjust(String field, String text, int delta) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        String key = field + '\u0000' + normalized;
+        Suggestion previous = suggestions.get(key);
+        int popularity = (previous == null ? 0 : previous.popularity) + delta;
+        if (previous == null && popularity <= 0) {
+            return;
+        }
+        Suggestion updated = previous == null
+                ? new Suggestion(key, normalized, text.trim(), field, popularity)
+                : previous.withPopularity(Math.max(0, popularity));
+
+        Node newRoot = root;
+        for (String suffix : wordSuffixes(normalized)) {
+            newRoot = put(newRoot, suffix, updated);
+        }
+        root = newRoot;
+        if (updated.popularity > 0) {
+            suggestions.put(key, updated);
+            if (previous == null) {
+                addWords(normalized, words, trigrams);
+            }
+        } else {
+            suggestions.remove(key);
+            removeWords(normalized);
+        }
+    }
+
+    private static void addWords(String normalized, Map<String, Integer> words, Map<String, Set<String>> trigrams) {
+        for (String word : new HashSet<>(Arrays.asList(normalized.split(" ")))) {
+            if (words.merge(word, 1, Integer::sum) == 1) {
+                for (String gram : trigramsOf(word)) {
+                    trigrams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(word);
+                }
+            }
+        }
+    }
+
+    private void removeWords(String normalized) {
+        for (String word : new HashSet<>(Arrays.asList(normalized.split(" ")))) {
+            Integer remaining = words.computeIfPresent(word, (w, count) -> count > 1 ? count - 1 : null);
+            if (remaining != null) {
+                continue;
+            }
+            for (String gram : trigramsOf(word)) {
+                Set<String> containing = trigrams.get(gram);
+                if (containing != null) {
+                    containing.remove(word);
+                    if (containing.isEmpty()) {
+                        trigrams.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<Suggestion> prefixMatches(String prefix, int limit) {
+        Node node = root;
+        String rest = prefix;
+        // Walk down; the query may end part-way along an edge
+        while (!rest.isEmpty()) {
+            Node child = node.child(rest.charAt(0));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefixLength(child.label, rest);
+            if (common < rest.length() && common < child.label.length()) {
+                return List.of();
+            }
+            rest = rest.substring(common);
+            node = child;
+        }
+
+        // Best first: a node's priority is the highest count beneath it
+        List<Suggestion> results = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        PriorityQueue<Object> queue = new PriorityQueue<>(
+                Comparator.comparingInt(SuggestionIndex::priority).reversed());
+        queue.add(node);
+        while (!queue.isEmpty() && results.size() < limit) {
+            Object next = queue.poll();
+            if (next instanceof Suggestion suggestion) {
+                if (seen.add(suggestion.key)) {
+                    results.add(suggestion);
+                }
+            } else {
+                Node expanded = (Node) next;
+                queue.addAll(Arrays.asList(expanded.entries));
+                queue.addAll(Arrays.asList(expanded.children));
+            }
+        }
+        return results;
+    }
+
+    private static int priority(Object item) {
+        return item instanceof Suggestion suggestion ? suggestion.popularity : ((Node) item).best;
+    }
+
+    /**
+     * The query with unknown words replaced by their closest indexed words, best first.
+     * Earlier words must match a whole word; the last may still be half typed, so it is
+     * compared against word prefixes and can yield a few alternatives.
+     */
+    private List<String> corrections(String normalized) {
+        String[] queryWords = normalized.split(" ");
+        StringBuilder head = new StringBuilder();
+        boolean changed = false;
+        for (int i = 0; i < queryWords.length - 1; i++) {
+            String word = queryWords[i];
+            if (!words.containsKey(word)) {
+                List<String> closest = closestWords(word, false, 1);
+                if (closest.isEmpty()) {
+                    return List.of();
+                }
+                word = closest.get(0);
+                changed = true;
+            }
+            head.append(word).append(' ');
+        }
+        String last = queryWords[queryWords.length - 1];
+        List<String> variants = new ArrayList<>();
+        if (changed) {
+            variants.add(head + last);
+        }
+        for (String word : closestWords(last, true, MAX_LAST_WORD_CORRECTIONS)) {
+            if (!word.startsWith(last)) {
+                variants.add(head + word);
+            }
+        }
+        return variants;
+    }
+
+    /**
+     * Indexed words within a small edit distance of {@code word} (of one of their prefixes
+     * when {@code prefix}), fewest edits first, then most common
+     */
+    private List<String> closestWords(String word, boolean prefix, int limit) {
+        if (word.length() < MIN_FUZZY_LENGTH) {
+            return List.of();
+        }
+        int maxEdits = word.length() <= 5 ? 1 : 2;
+        List<Set<String>> lists = new ArrayList<>();
+        for (String gram : trigramsOf(word)) {
+            lists.add(trigrams.getOrDefault(gram, Set.of()));
+        }
+        // Each edit spoils at most three grams
+        int minShared = Math.max(1, lists.size() - 3 * maxEdits);
+        // A candidate sharing minShared grams is in at least one of the rarest
+        // (size - minShared + 1) lists, so only those are scanned for candidates
+        lists.sort(Comparator.comparingInt(Set::size));
+        int scanned = lists.size() - minShared + 1;
+        Map<String, Integer> shared = new HashMap<>();
+        for (int i = 0; i < scanned; i++) {
+            for (String candidate : lists.get(i)) {
+                shared.computeIfAbsent(candidate, c -> {
+                    int count = 0;
+                    for (Set<String> list : lists) {
+                        if (list.contains(c)) {
+                            count++;
+                        }
+                    }
+                    return count;
+                });
+            }
+        }
+
+        List<String> matches = new ArrayList<>();
+        Map<String, Integer> edits = new HashMap<>();
+        for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+            if (candidate.getValue() < minShared) {
+                continue;
+            }
+            int distance = editDistance(word, candidate.getKey(), maxEdits, prefix);
+            if (distance <= maxEdits) {
+                matches.add(candidate.getKey());
+                edits.put(candidate.getKey(), distance);
+            }
+        }
+        matches.sort(Comparator.<String>comparingInt(edits::get)
+                .thenComparing(Comparator.<String>comparingInt(w -> words.getOrDefault(w, 0)).reversed()));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    /**
+     * Fewest edits (insert, delete, substitute, swap adjacent) turning the query into the
+     * word, or into some prefix of it when {@code prefix}; anything above {@code max} is
+     * reported as {@code max + 1}
+     */
+    static int editDistance(String query, String word, int max, boolean prefix) {
+        int n = query.length();
+        int m = prefix ? Math.min(word.length(), n + max) : word.length();
+        if (!prefix && Math.abs(n - m) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = query.charAt(i - 1) == word.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && query.charAt(i - 1) == word.charAt(j - 2)
+                        && query.charAt(i - 2) == word.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        if (!prefix) {
+            return Math.min(previous[m], max + 1);
+        }
+        // The query has been consumed; the best row entry is the closest prefix
+        int best = Integer.MAX_VALUE;
+        for (int j = 0; j <= m; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return Math.min(best, max + 1);
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return String.join(" ", SEPARATORS.split(text.toLowerCase(Locale.ROOT).trim())).trim();
+    }
+
+    /** "senior java developer" → itself, "java developer", "developer" */
+    private static List<String> wordSuffixes(String normalized) {
+        List<String> suffixes = new ArrayList<>();
+        suffixes.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            suffixes.add(normalized.substring(i + 1));
+        }
+        return suffixes;
+    }
+
+    /** Trigrams of a word, padded at the start because queries are word prefixes */
+    private static Set<String> trigramsOf(String word) {
+        Set<String> grams = new HashSet<>();
+        String padded = "  " + word;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static int commonPrefixLength(String left, String right) {
+        int length = Math.min(left.length(), right.length());
+        int i = 0;
+        while (i < length && left.charAt(i) == right.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Trie over {@code sorted[from, to)}, keys that all share their first {@code depth}
+     * characters; built bottom-up in one pass instead of copying a path per key
+     */
+    private static Node build(List<Map.Entry<String, Suggestion>> sorted, int from, int to, int depth, String label) {
+        List<Suggestion> entries = new ArrayList<>();
+        int at = from;
+        // Keys ending here sort first
+        while (at < to && sorted.get(at).getKey().length() == depth) {
+            entries.add(sorted.get(at).getValue());
+            at++;
+        }
+        List<Node> children = new ArrayList<>();
+        while (at < to) {
+            String first = sorted.get(at).getKey();
+            char c = first.charAt(depth);
+            int end = at + 1;
+            while (end < to && sorted.get(end).getKey().charAt(depth) == c) {
+                end++;
+            }
+            // Sorted, so the group's common prefix is that of its first and last keys
+            int childDepth = commonPrefixLength(first, sorted.get(end - 1).getKey());
+            children.add(build(sorted, at, end, childDepth, first.substring(depth, childDepth)));
+            at = end;
+        }
+        char[] keys = new char[children.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = children.get(i).label.charAt(0);
+        }
+        return new Node(label, keys, children.toArray(new Node[0]), entries.toArray(new Suggestion[0]));
+    }
+
+    /**
+     * Copy of {@code node} with the suggestion set (or removed, at zero popularity) under
+     * {@code rest}, the part of the key below the node
+     */
+    private static Node put(Node node, String rest, Suggestion suggestion) {
+        if (rest.isEmpty()) {
+            return node.withEntry(suggestion);
+        }
+        boolean removing = suggestion.popularity <= 0;
+        int at = node.childIndex(rest.charAt(0));
+        if (at < 0) {
+            if (removing) {
+                return node;
+            }
+            return node.withChild(new Node(rest, new char[0], new Node[0], new Suggestion[]{suggestion}));
+        }
+        Node child = node.children[at];
+        int common = commonPrefixLength(child.label, rest);
+        if (common == child.label.length()) {
+            Node updated = put(child, rest.substring(common), suggestion);
+            if (updated.entries.length == 0 && updated.children.length == 0) {
+                return node.withoutChild(at);
+            }
+            if (updated.entries.length == 0 && updated.children.length == 1) {
+                // Keep the trie compressed: fold a pass-through node into its only child
+                Node only = updated.children[0];
+                updated = new Node(updated.label + only.label, only.keys, only.children, only.entries);
+            }
+            return node.withChild(updated);
+        }
+        if (removing) {
+            return node;
+        }
+        // Split the edge where the key leaves it
+        Node lower = new Node(child.label.substring(common), child.keys, child.children, child.entries);
+        Node middle = new Node(child.label.substring(0, common), new char[]{lower.label.charAt(0)},
+                new Node[]{lower}, new Suggestion[0]);
+        return node.withChild(put(middle, rest.substring(common), suggestion));
+    }
+
+    /**
+     * A phrase and the number of documents carrying it
+     */
+    public static final class Suggestion {
+        private final String key;
+        private final String normalized;
+        private final String text;
+        private final String field;
+        private final int popularity;
+
+        private Suggestion(String key, String normalized, String text, String field, int popularity) {
+            this.key = key;
+            this.normalized = normalized;
+            this.text = text;
+            this.field = field;
+            this.popularity = popularity;
+        }
+
+        private Suggestion withPopularity(int popularity) {
+            return new Suggestion(key, normalized, text, field, popularity);
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public int getPopularity() {
+            return popularity;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Suggestion suggestion && key.equals(suggestion.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+    }
+
+    private static final class Node {
+        private static final Node EMPTY = new Node("", new char[0], new Node[0], new Suggestion[0]);
+
+        /** Characters on the edge leading into this node */
+        private final String label;
+        /** First label character of each child, sorted */
+        private final char[] keys;
+        private final Node[] children;
+        /** Phrases ending here; one per field at most */
+        private final Suggestion[] entries;
+        /** Highest popularity in this subtree */
+        private final int best;
+
+        private Node(String label, char[] keys, Node[] children, Suggestion[] entries) {
+            this.label = label;
+            this.keys = keys;
+            this.children = children;
+            this.entries = entries;
+            int max = 0;
+            for (Suggestion entry : entries) {
+                max = Math.max(max, entry.popularity);
+            }
+            for (Node child : children) {
+                max = Math.max(max, child.best);
+            }
+            this.best = max;
+        }
+
+        private int childIndex(char c) {
+            return Arrays.binarySearch(keys, c);
+        }
+
+        private Node child(char c) {
+            int at = childIndex(c);
+            return at < 0 ? null : children[at];
+        }
+
+        private Node withEntry(Suggestion suggestion) {
+            List<Suggestion> updated = new ArrayList<>(entries.length + 1);
+            for (Suggestion entry : entries) {
+                if (!entry.key.equals(suggestion.key)) {
+                    updated.add(entry);
+                }
+            }
+            if (suggestion.popularity > 0) {
+                updated.add(suggestion);
+            }
+            return new Node(label, keys, children, updated.toArray(new Suggestion[0]));
+        }
+
+        /** Adds the child, or replaces the one starting with the same character */
+        private Node withChild(Node child) {
+            char c = child.label.charAt(0);
+            int at = childIndex(c);
+            if (at >= 0) {
+                Node[] copy = children.clone();
+                copy[at] = child;
+                return new Node(label, keys, copy, entries);
+            }
+            int insert = -at - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insert);
+            System.arraycopy(children, 0, newChildren, 0, insert);
+            newKeys[insert] = c;
+            newChildren[insert] = child;
+            System.arraycopy(keys, insert, newKeys, insert + 1, keys.length - insert);
+            System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+            return new Node(label, newKeys, newChildren, entries);
+        }
+
+        private Node withoutChild(int at) {
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(keys, at + 1, newKeys, at, keys.length - at - 1);
+            System.arraycopy(children, at + 1, newChildren, at, children.length - at - 1);
+            return new Node(label, newKeys, newChildren, entries);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.aitrujobs.search;
+
+/**
+ * Similarity primitives over float32 embedding vectors.
+ */
+interface VectorKernel {
+
+    float dot(float[] a, float[] b);
+
+    /**
+     * Cosine similarity computed in a single pass (dot product and both norms together).
+     */
+    double cosine(float[] a, float[] b);
+
+    float squaredNorm(float[] a);
+
+    /**
+     * Dot product of a float vector with raw int8 codes (codes taken as signed integers).
+     */
+    float dot(float[] a, byte[] codes);
+}
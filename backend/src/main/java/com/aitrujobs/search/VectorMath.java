@@ -0,0 +1,93 @@
+package com.aitrujobs.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Similarity kernels for embedding vectors. Uses the Vector API when the JVM was
+ * started with {@code --add-modules jdk.incubator.vector} and falls back to a
+ * scalar loop otherwise (or when {@code -Dapp.vector.scalar=true} is set).
+ */
+public final class VectorMath {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorMath.class);
+    private static final VectorKernel KERNEL = selectKernel();
+
+    private VectorMath() {
+    }
+
+    /**
+     * Cosine similarity; 0 when either vector has zero norm.
+     */
+    public static double cosine(float[] a, float[] b) {
+        checkDimensions(a, b);
+        return KERNEL.cosine(a, b);
+    }
+
+    /**
+     * Dot product. For vectors already passed through {@link #normalize} this is
+     * their cosine similarity without recomputing norms per pair.
+     */
+    public static float dot(float[] a, float[] b) {
+        checkDimensions(a, b);
+        return KERNEL.dot(a, b);
+    }
+
+    /**
+     * Unit-length copy of the vector (all zeros stays all zeros).
+     */
+    public static float[] normalize(float[] vector) {
+        float[] normalized = new float[vector.length];
+        float norm = KERNEL.squaredNorm(vector);
+        if (norm == 0f) {
+            return normalized;
+        }
+        float inverse = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * inverse;
+        }
+        return normalized;
+    }
+
+    static float dot(float[] a, byte[] codes) {
+        if (a.length != codes.length) {
+            throw new IllegalArgumentException("Vectors must have the same dimension");
+        }
+        return KERNEL.dot(a, codes);
+    }
+
+    public static String kernelName() {
+        return KERNEL.getClass().getSimpleName();
+    }
+
+    static double cosineFrom(float dot, float squaredNormA, float squaredNormB) {
+        if (squaredNormA == 0f || squaredNormB == 0f) {
+            return 0.0;
+        }
+        return dot / (Math.sqrt(squaredNormA) * Math.sqrt(squaredNormB));
+    }
+
+    private static void checkDimensions(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Vectors must have the same dimension");
+        }
+    }
+
+    private static VectorKernel selectKernel() {
+        if (Boolean.getBoolean("app.vector.scalar")) {
+            return new ScalarVectorKernel();
+        }
+        try {
+            VectorKernel simd = (VectorKernel) Class.forName("com.aitrujobs.search.SimdVectorKernel")
+                    .getDeclaredConstructor()
+                    .newInstance();
+            // Touch the kernel once so a missing module fails here rather than on first use
+            simd.dot(new float[1], new float[1]);
+            log.info("Using Vector API similarity kernel");
+            return simd;
+        } catch (Throwable e) {
+            log.info("Vector API unavailable ({}); using scalar similarity kernel", e.getClass().getSimpleName());
+            return new ScalarVectorKernel();
+        }
+    }
+}
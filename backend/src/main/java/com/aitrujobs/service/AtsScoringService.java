@@ -0,0 +1,292 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.entity.Application;
+import com.aitrujobs.entity.Job;
+import com.aitrujobs.entity.Resume;
+import com.aitrujobs.repository.ApplicationRepository;
+import com.aitrujobs.repository.JobRepository;
+import com.aitrujobs.repository.ResumeRepository;
+import com.aitrujobs.search.VectorMath;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Computes job and resume embeddings once, stores them, and scores resume/job pairs
+ * locally. The ATS score is a weighted blend of the embedding cosine, normalized BM25
+ * and listed-skill overlap ({@code app.matching.hybrid.*}); a missing component's weight
+ * is spread over the others. Only vectors from the active {@link EmbeddingProvider}
+ * model count; others are treated as missing and replaced on next use.
+ */
+@Service
+@Slf4j
+public class AtsScoringService {
+
+    private final EmbeddingProvider embeddingProvider;
+    private final JobRepository jobRepository;
+    private final ResumeRepository resumeRepository;
+    private final ApplicationRepository applicationRepository;
+    private final JobVectorIndexService jobVectorIndexService;
+    private final JobLexicalIndexService jobLexicalIndexService;
+    private final SkillService skillService;
+    private final double embeddingWeight;
+    private final double bm25Weight;
+    private final double skillsWeight;
+
+    public AtsScoringService(EmbeddingProvider embeddingProvider,
+                             JobRepository jobRepository,
+                             ResumeRepository resumeRepository,
+                             ApplicationRepository applicationRepository,
+                             JobVectorIndexService jobVectorIndexService,
+                             JobLexicalIndexService jobLexicalIndexService,
+                             SkillService skillService,
+                             @Value("${app.matching.hybrid.embedding-weight:0.6}") double embeddingWeight,
+                             @Value("${app.matching.hybrid.bm25-weight:0.25}") double bm25Weight,
+                             @Value("${app.matching.hybrid.skills-weight:0.15}") double skillsWeight) {
+        this.embeddingProvider = embeddingProvider;
+        this.jobRepository = jobRepository;
+        this.resumeRepository = resumeRepository;
+        this.applicationRepository = applicationRepository;
+        this.jobVectorIndexService = jobVectorIndexService;
+        this.jobLexicalIndexService = jobLexicalIndexService;
+        this.skillService = skillService;
+        this.embeddingWeight = Math.max(0, embeddingWeight);
+        this.bm25Weight = Math.max(0, bm25Weight);
+        this.skillsWeight = Math.max(0, skillsWeight);
+    }
+
+    /**
+     * Text that represents a job for embedding and scoring
+     */
+    public static String jobContent(Job job) {
+        return String.format("%s %s %s %s",
+                job.getTitle(),
+                job.getDescription() != null ? job.getDescription() : "",
+                job.getRequirements() != null ? job.getRequirements() : "",
+                job.getSkills() != null ? job.getSkills() : "");
+    }
+
+    /**
+     * Hybrid ATS score (0-100) including the cosine of the stored vectors, or empty if
+     * either side is not embedded yet
+     */
+    public Optional<Double> scoreLocally(Resume resume, Job job) {
+        if (!hasCurrentVector(resume.getEmbeddingVector(), resume.getEmbeddingModel())
+                || !hasCurrentVector(job.getEmbeddingVector(), job.getEmbeddingModel())
+                || resume.getEmbeddingVector().length != job.getEmbeddingVector().length) {
+            return Optional.empty();
+        }
+        return Optional.of(hybridScore(resume, job, VectorMath.cosine(resume.getEmbeddingVector(), job.getEmbeddingVector())));
+    }
+
+    /**
+     * Hybrid ATS score (0-100) given the embedding cosine of the pair, or NaN to blend
+     * the lexical components only
+     */
+    public double hybridScore(Resume resume, Job job, double cosine) {
+        Set<String> resumeTerms = jobLexicalIndexService.terms(resume.getExtractedText());
+        double weighted = 0.0;
+        double weights = 0.0;
+        if (!Double.isNaN(cosine) && embeddingWeight > 0) {
+            weighted += embeddingWeight * Math.max(0, Math.min(1, cosine));
+            weights += embeddingWeight;
+        }
+        if (bm25Weight > 0) {
+            weighted += bm25Weight * jobLexicalIndexService.bm25(resumeTerms, job);
+            weights += bm25Weight;
+        }
+        double skills = skillService.overlap(resume.getExtractedText(), job.getSkills());
+        if (skills >= 0 && skillsWeight > 0) {
+            weighted += skillsWeight * skills;
+            weights += skillsWeight;
+        }
+        return weights == 0.0 ? 0.0 : toScore(weighted / weights);
+    }
+
+    /**
+     * Score a pair, embedding whichever side is missing first. The new vectors are stored,
+     * so this only reaches the embedding endpoint the first time a resume or job is scored.
+     * Falls back to the lexical components when an embedding cannot be obtained (provider
+     * unavailable, or the call failed).
+     */
+    public Mono<Double> score(Resume resume, Job job) {
+        Optional<Double> local = scoreLocally(resume, job);
+        if (local.isPresent()) {
+            return Mono.just(local.get());
+        }
+        return Mono.zip(resumeVector(resume), jobVector(job))
+                .map(tuple -> fallbackScore(resume, job))
+                .onErrorResume(error -> {
+                    log.debug("Scoring resume {} against job {} lexically: {}", resume.getId(), job.getId(), error.toString());
+                    return Mono.just(lexicalScore(resume, job));
+                });
+    }
+
+    /**
+     * Full hybrid score when both vectors are stored, otherwise BM25 and skill overlap only. Never calls out.
+     */
+    public double fallbackScore(Resume resume, Job job) {
+        return scoreLocally(resume, job).orElseGet(() -> lexicalScore(resume, job));
+    }
+
+    /**
+     * True when every missing vector of the pair can be produced now: the provider is
+     * available and a resume without a vector has text to embed
+     */
+    public boolean canEmbed(Resume resume, Job job) {
+        if (!embeddingProvider.isAvailable()) {
+            return false;
+        }
+        boolean resumeEmbeddable = hasCurrentVector(resume.getEmbeddingVector(), resume.getEmbeddingModel())
+                || (resume.getId() != null && resume.getExtractedText() != null && !resume.getExtractedText().isBlank());
+        boolean jobEmbeddable = hasCurrentVector(job.getEmbeddingVector(), job.getEmbeddingModel()) || job.getId() != null;
+        return resumeEmbeddable && jobEmbeddable;
+    }
+
+    private double lexicalScore(Resume resume, Job job) {
+        return hybridScore(resume, job, Double.NaN);
+    }
+
+    /**
+     * Embed whichever side of the pair is missing in the background. Applications left
+     * unscored for that resume or job are scored as soon as the vector is stored. If an
+     * embedding comes back empty or fails (circuit open, provider down), the application
+     * gets {@link #fallbackScore} instead of staying unscored.
+     */
+    public void scoreLaterAsync(Application application) {
+        Resume resume = application.getResume();
+        Job job = application.getJob();
+        Mono.zip(resumeVector(resume), jobVector(job))
+                .map(vectors -> vectors.getT1().length > 0 && vectors.getT2().length > 0)
+                .onErrorResume(error -> {
+                    log.warn("Embedding for application {} failed, scoring lexically: {}", application.getId(), error.getMessage());
+                    return Mono.just(false);
+                })
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(embedded -> {
+                    // A no-op when the stored vectors already scored it; otherwise the lexical (or full) score
+                    double score = fallbackScore(resume, job);
+                    if (applicationRepository.updateAtsScoreIfUnscored(application.getId(), score) > 0) {
+                        log.info("ATS score calculated: {} for application {}{}", score, application.getId(),
+                                embedded ? "" : " (lexical fallback)");
+                    }
+                }, error -> log.warn("Could not score application {}: {}", application.getId(), error.getMessage()));
+    }
+
+    /**
+     * Stored resume vector, embedding the extracted text on first use
+     */
+    public Mono<float[]> resumeVector(Resume resume) {
+        if (hasCurrentVector(resume.getEmbeddingVector(), resume.getEmbeddingModel())) {
+            return Mono.just(resume.getEmbeddingVector());
+        }
+        return embedResume(resume).defaultIfEmpty(new float[0]);
+    }
+
+    /**
+     * Stored job vector, embedding the job content on first use
+     */
+    public Mono<float[]> jobVector(Job job) {
+        if (hasCurrentVector(job.getEmbeddingVector(), job.getEmbeddingModel())) {
+            return Mono.just(job.getEmbeddingVector());
+        }
+        return embedJob(job).defaultIfEmpty(new float[0]);
+    }
+
+    public void embedJobAsync(Job job) {
+        embedJob(job).subscribe(
+                vector -> log.debug("Stored embedding for job {}", job.getId()),
+                error -> log.warn("Failed to embed job {}: {}", job.getId(), error.getMessage()));
+    }
+
+    public void embedResumeAsync(Resume resume) {
+        embedResume(resume).subscribe(
+                vector -> log.debug("Stored embedding for resume {}", resume.getId()),
+                error -> log.warn("Failed to embed resume {}: {}", resume.getId(), error.getMessage()));
+    }
+
+    /**
+     * Embed published jobs that were saved before an embedding could be stored,
+     * or whose stored embedding came from a different provider or model
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillJobEmbeddings() {
+        if (!embeddingProvider.isAvailable()) {
+            return;
+        }
+        List<Job> jobs = jobRepository.findPublishedWithoutEmbeddingFrom(embeddingProvider.getModelId());
+        if (jobs.isEmpty()) {
+            return;
+        }
+        log.info("Backfilling {} embeddings for {} published jobs", embeddingProvider.getModelId(), jobs.size());
+        Flux.fromIterable(jobs)
+                .flatMap(job -> embedJob(job).onErrorResume(error -> Mono.empty()), 4)
+                .subscribe();
+    }
+
+    private Mono<float[]> embedJob(Job job) {
+        if (job.getId() == null || !embeddingProvider.isAvailable()) {
+            return Mono.empty();
+        }
+        String model = embeddingProvider.getModelId();
+        return embeddingProvider.embed(jobContent(job))
+                .filter(AtsScoringService::hasVector)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(vector -> {
+                    job.setEmbeddingVector(vector);
+                    job.setEmbeddingModel(model);
+                    jobRepository.updateEmbeddingVector(job.getId(), vector, model);
+                    // Re-read so the index sees the current publish state, not the caller's copy
+                    jobRepository.findById(job.getId()).ifPresent(jobVectorIndexService::index);
+                    applicationRepository.findUnscoredByJob(job).forEach(this::rescore);
+                });
+    }
+
+    private Mono<float[]> embedResume(Resume resume) {
+        String text = resume.getExtractedText();
+        if (resume.getId() == null || text == null || text.isBlank() || !embeddingProvider.isAvailable()) {
+            return Mono.empty();
+        }
+        String model = embeddingProvider.getModelId();
+        return embeddingProvider.embed(text)
+                .filter(AtsScoringService::hasVector)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(vector -> {
+                    resume.setEmbeddingVector(vector);
+                    resume.setEmbeddingModel(model);
+                    resumeRepository.updateEmbeddingVector(resume.getId(), vector, model);
+                    applicationRepository.findUnscoredByResume(resume).forEach(this::rescore);
+                });
+    }
+
+    private void rescore(Application application) {
+        scoreLocally(application.getResume(), application.getJob()).ifPresent(score -> {
+            applicationRepository.updateAtsScoreIfUnscored(application.getId(), score);
+            log.info("ATS score calculated: {} for application {}", score, application.getId());
+        });
+    }
+
+    private static double toScore(double similarity) {
+        return Math.max(0, Math.min(100, similarity * 100));
+    }
+
+    /**
+     * True when the vector exists and was produced by the active provider's model
+     */
+    private boolean hasCurrentVector(float[] vector, String model) {
+        return hasVector(vector) && embeddingProvider.getModelId().equals(model);
+    }
+
+    private static boolean hasVector(float[] vector) {
+        return vector != null && vector.length > 0;
+    }
+}
@@ -0,0 +1,125 @@
+package com.aitrujobs.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Where uploaded files live. Keys are the stored paths handed out by
+ * {@link FileUploadService} ("resumes/4f/b5/4fb5...e.pdf"); a content-addressed key never
+ * changes content, so copies of a blob can be cached on any node without invalidation.
+ */
+public interface BlobStore {
+
+    /**
+     * Store the file under the key. The source may be moved into place, so callers must
+     * not use it afterwards.
+     */
+    void put(String key, Path source) throws IOException;
+
+    /**
+     * Size and last-modified time, or null when there is no such blob
+     */
+    BlobInfo stat(String key) throws IOException;
+
+    /**
+     * Set the last-modified time of an existing blob to now
+     *
+     * @throws java.nio.file.NoSuchFileException when there is no such blob
+     */
+    void touch(String key) throws IOException;
+
+    /**
+     * Stream of {@code length} bytes from {@code offset}
+     */
+    InputStream open(String key, long offset, long length) throws IOException;
+
+    /**
+     * A local file with the blob's content if one is on this node already, without fetching.
+     * The file stays in place until the copy is closed.
+     */
+    Optional<LocalCopy> cachedFile(String key);
+
+    /**
+     * A local file with the blob's content, fetched from the store first when it is remote.
+     * The file stays in place until the copy is closed.
+     *
+     * @throws java.nio.file.NoSuchFileException when there is no such blob
+     */
+    LocalCopy localFile(String key) throws IOException;
+
+    /**
+     * Rename a blob, replacing any blob under {@code to}; false when there is none under {@code from}
+     */
+    boolean move(String from, String to) throws IOException;
+
+    boolean delete(String key) throws IOException;
+
+    /**
+     * All blobs whose keys are under the directory ("resumes" lists "resumes/...")
+     */
+    List<BlobInfo> list(String directory) throws IOException;
+
+    /**
+     * A blob's content on local disk, held for the caller until closed. A cached copy may be
+     * evicted once closed; a durable one is the stored file itself.
+     */
+    final class LocalCopy implements Closeable {
+        private final Path path;
+        private final boolean durable;
+        private Runnable release;
+
+        public LocalCopy(Path path, boolean durable, Runnable release) {
+            this.path = path;
+            this.durable = durable;
+            this.release = release;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * Whether the path stays valid after {@link #close}, e.g. for a sendfile that runs later
+         */
+        public boolean isDurable() {
+            return durable;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (release != null) {
+                release.run();
+                release = null;
+            }
+        }
+    }
+
+    final class BlobInfo {
+        private final String key;
+        private final long size;
+        private final Instant lastModified;
+
+        public BlobInfo(String key, long size, Instant lastModified) {
+            this.key = key;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public Instant getLastModified() {
+            return lastModified;
+        }
+    }
+}
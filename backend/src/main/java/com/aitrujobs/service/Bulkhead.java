@@ -0,0 +1,97 @@
+package com.aitrujobs.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking bulkhead: at most {@code maxConcurrent} calls run at once across all
+ * callers, the rest wait in FIFO order without holding a thread. Cancelling a waiting
+ * call (for example through a timeout) drops it before it starts; cancelling a
+ * running call cancels the upstream and frees its permit. With a queue limit, calls
+ * arriving while that many are already waiting fail with
+ * {@link RejectedExecutionException}.
+ */
+class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+    Bulkhead(String name, int maxConcurrent, MeterRegistry meterRegistry) {
+        this(name, maxConcurrent, Integer.MAX_VALUE, meterRegistry);
+    }
+
+    Bulkhead(String name, int maxConcurrent, int maxQueued, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueued = Math.max(0, maxQueued);
+        Gauge.builder("bulkhead.active", active, AtomicInteger::get)
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.queued", waiting, Queue::size)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    <T> Mono<T> run(Supplier<Mono<T>> call) {
+        return Mono.create(sink -> {
+            // Approximate under contention; the limit only needs to bound the queue
+            if (maxQueued < Integer.MAX_VALUE && active.get() >= maxConcurrent && waiting.size() >= maxQueued) {
+                sink.error(new RejectedExecutionException("Bulkhead " + name + " is full"));
+                return;
+            }
+            Disposable.Swap running = Disposables.swap();
+            sink.onDispose(running);
+            waiting.add(() -> {
+                if (running.isDisposed()) {
+                    release();
+                    return;
+                }
+                running.update(Mono.defer(call)
+                        .doFinally(signal -> release())
+                        // Keep the caller's context, e.g. the circuit breaker's per-call state
+                        .contextWrite(sink.contextView())
+                        .subscribe(sink::success, sink::error, sink::success));
+            });
+            drain();
+        });
+    }
+
+    private void release() {
+        active.decrementAndGet();
+        drain();
+    }
+
+    /**
+     * Start queued calls while permits are free. Serialized so only one thread hands out permits.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (active.get() < maxConcurrent) {
+                Runnable next = waiting.poll();
+                if (next == null) {
+                    break;
+                }
+                active.incrementAndGet();
+                next.run();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
@@ -0,0 +1,164 @@
+package com.aitrujobs.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded LRU of blob copies on local disk, in front of a remote {@link BlobStore}.
+ * Entries are never invalidated because content-addressed blobs never change; deleting a
+ * blob evicts it. The directory is emptied at startup since sizes are only tracked in memory.
+ *
+ * Copies handed out by {@link #get} and {@link #fill} are pinned until closed: eviction
+ * passes over them, and a pinned copy evicted because its blob was deleted is removed
+ * from disk when its last user closes it.
+ */
+@Slf4j
+final class DiskBlobCache {
+
+    interface Download {
+        void to(Path file) throws IOException;
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    /** Cached keys and sizes, least recently used first */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** Open copies per key */
+    private final Map<String, Integer> pins = new HashMap<>();
+    /** Evicted keys whose file is deleted once unpinned */
+    private final Set<String> pendingDeletes = new HashSet<>();
+    private long totalBytes;
+
+    DiskBlobCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        clear();
+    }
+
+    synchronized Optional<BlobStore.LocalCopy> get(String key) {
+        if (entries.get(key) == null) {
+            return Optional.empty();
+        }
+        Path file = directory.resolve(key);
+        if (!Files.exists(file)) {
+            totalBytes -= entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(pin(key, file));
+    }
+
+    /**
+     * Download into a fresh file outside the lock, then publish it under the key
+     */
+    BlobStore.LocalCopy fill(String key, Download download) throws IOException {
+        Path temp = directory.resolve(".fill-" + UUID.randomUUID());
+        try {
+            download.to(temp);
+            return publish(key, temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Cache a copy of a local file, e.g. one that was just uploaded
+     */
+    void put(String key, Path source) throws IOException {
+        fill(key, temp -> Files.copy(source, temp)).close();
+    }
+
+    synchronized void evict(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+            delete(key);
+        }
+    }
+
+    synchronized boolean isPinned(String key) {
+        return pins.containsKey(key);
+    }
+
+    private synchronized BlobStore.LocalCopy publish(String key, Path temp) throws IOException {
+        Path target = directory.resolve(key);
+        Files.createDirectories(target.getParent());
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        pendingDeletes.remove(key);
+        long size = Files.size(target);
+        Long previous = entries.put(key, size);
+        totalBytes += size - (previous == null ? 0 : previous);
+        BlobStore.LocalCopy copy = pin(key, target);
+
+        // Evict least recently used entries nobody is reading, so never the one just added
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (pins.containsKey(entry.getKey())) {
+                continue;
+            }
+            totalBytes -= entry.getValue();
+            deleteQuietly(directory.resolve(entry.getKey()));
+            eldest.remove();
+        }
+        return copy;
+    }
+
+    private BlobStore.LocalCopy pin(String key, Path file) {
+        pins.merge(key, 1, Integer::sum);
+        return new BlobStore.LocalCopy(file, false, () -> release(key));
+    }
+
+    private synchronized void release(String key) {
+        if (pins.merge(key, -1, Integer::sum) <= 0) {
+            pins.remove(key);
+            if (pendingDeletes.remove(key) && !entries.containsKey(key)) {
+                deleteQuietly(directory.resolve(key));
+            }
+        }
+    }
+
+    private void delete(String key) {
+        if (pins.containsKey(key)) {
+            pendingDeletes.add(key);
+        } else {
+            deleteQuietly(directory.resolve(key));
+        }
+    }
+
+    private void clear() {
+        try {
+            if (Files.exists(directory)) {
+                try (Stream<Path> files = Files.walk(directory)) {
+                    files.sorted(Comparator.reverseOrder())
+                            .filter(path -> !path.equals(directory))
+                            .forEach(DiskBlobCache::deleteQuietly);
+                }
+            }
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot prepare blob cache directory " + directory, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Could not delete cached file {}: {}", path, e.getMessage());
+        }
+    }
+}
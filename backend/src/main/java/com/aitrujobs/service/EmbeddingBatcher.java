@@ -0,0 +1,138 @@
+package com.aitrujobs.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects concurrent single-text embedding requests and sends them as one
+ * multi-input request. A batch goes out when the first caller has waited
+ * {@code maxWait}, or as soon as it reaches {@code maxSize} texts or about
+ * {@code maxTokens} estimated tokens. Each caller gets the vector at its own
+ * position; a failed request fails every caller in that batch.
+ */
+class EmbeddingBatcher {
+
+    private final Function<List<String>, Mono<List<float[]>>> sender;
+    private final int maxSize;
+    private final int maxTokens;
+    private final Duration maxWait;
+    private final Scheduler timer = Schedulers.parallel();
+    private final DistributionSummary batchSizes;
+
+    private final Object lock = new Object();
+    private List<Pending> pending = new ArrayList<>();
+    private int pendingTokens;
+    private Disposable flushTask;
+
+    EmbeddingBatcher(Function<List<String>, Mono<List<float[]>>> sender,
+                     int maxSize, int maxTokens, Duration maxWait,
+                     MeterRegistry meterRegistry) {
+        this.sender = sender;
+        this.maxSize = Math.max(1, maxSize);
+        this.maxTokens = Math.max(1, maxTokens);
+        this.maxWait = maxWait;
+        this.batchSizes = DistributionSummary.builder("openai.embedding.batch.size")
+                .description("Texts per /embeddings request")
+                .register(meterRegistry);
+    }
+
+    Mono<float[]> submit(String text) {
+        if (maxSize == 1 || maxWait.isZero()) {
+            return send(List.of(text)).map(vectors -> vectors.get(0));
+        }
+        return Mono.create(sink -> enqueue(new Pending(text, estimateTokens(text), sink)));
+    }
+
+    private void enqueue(Pending request) {
+        List<Pending> full = null;
+        List<Pending> overflow = null;
+        synchronized (lock) {
+            // Close the open batch first if this text would push it over the token cap
+            if (!pending.isEmpty() && pendingTokens + request.tokens > maxTokens) {
+                full = takeBatch();
+            }
+            pending.add(request);
+            pendingTokens += request.tokens;
+            if (pending.size() >= maxSize || pendingTokens >= maxTokens) {
+                overflow = takeBatch();
+            } else if (pending.size() == 1) {
+                flushTask = timer.schedule(this::flushOnTimer, maxWait.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        dispatch(full);
+        dispatch(overflow);
+    }
+
+    private void flushOnTimer() {
+        List<Pending> batch;
+        synchronized (lock) {
+            batch = pending.isEmpty() ? null : takeBatch();
+        }
+        dispatch(batch);
+    }
+
+    /** Caller must hold the lock */
+    private List<Pending> takeBatch() {
+        List<Pending> batch = pending;
+        pending = new ArrayList<>();
+        pendingTokens = 0;
+        if (flushTask != null) {
+            flushTask.dispose();
+            flushTask = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<Pending> batch) {
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        List<String> texts = new ArrayList<>(batch.size());
+        batch.forEach(request -> texts.add(request.text));
+        send(texts).subscribe(
+                vectors -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).sink.success(vectors.get(i));
+                    }
+                },
+                error -> batch.forEach(request -> request.sink.error(error)));
+    }
+
+    private Mono<List<float[]>> send(List<String> texts) {
+        batchSizes.record(texts.size());
+        return sender.apply(texts).flatMap(vectors -> vectors.size() == texts.size()
+                ? Mono.just(vectors)
+                : Mono.error(new IllegalStateException(
+                        "Expected " + texts.size() + " embeddings but got " + vectors.size())));
+    }
+
+    /**
+     * Rough token count (about four characters per token for English text)
+     */
+    static int estimateTokens(String text) {
+        return text == null ? 1 : text.length() / 4 + 1;
+    }
+
+    private static final class Pending {
+        final String text;
+        final int tokens;
+        final MonoSink<float[]> sink;
+
+        Pending(String text, int tokens, MonoSink<float[]> sink) {
+            this.text = text;
+            this.tokens = tokens;
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.entity.EmbeddingCacheEntry;
+import com.aitrujobs.repository.EmbeddingCacheRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+
+/**
+ * Two-tier cache for embeddings keyed by SHA-256 of model + normalized text:
+ * a bounded in-heap W-TinyLFU tier (Caffeine) in front of the embedding_cache table.
+ */
+@Service
+@Slf4j
+public class EmbeddingCacheService {
+
+    private final EmbeddingCacheRepository repository;
+    private final Cache<String, float[]> memory;
+    private final Counter memoryHits;
+    private final Counter storeHits;
+    private final Counter misses;
+
+    public EmbeddingCacheService(EmbeddingCacheRepository repository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.embedding.cache.max-entries:5000}") long maxEntries) {
+        this.repository = repository;
+        this.memory = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memory, "embeddingCache");
+        this.memoryHits = Counter.builder("embedding.cache.lookups").tag("result", "memory-hit").register(meterRegistry);
+        this.storeHits = Counter.builder("embedding.cache.lookups").tag("result", "store-hit").register(meterRegistry);
+        this.misses = Counter.builder("embedding.cache.lookups").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Cache key for a text under a given embedding model
+     */
+    public String key(String text, String model) {
+        String normalized = normalize(text);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Look the key up in memory, then in the persistent table. Completes empty on a miss.
+     */
+    public Mono<float[]> lookup(String key) {
+        float[] cached = memory.getIfPresent(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return Mono.just(cached);
+        }
+        return Mono.fromCallable(() -> repository.findById(key).map(EmbeddingCacheEntry::getVector).orElse(null))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(vector -> {
+                    storeHits.increment();
+                    memory.put(key, vector);
+                })
+                .switchIfEmpty(Mono.fromRunnable(misses::increment))
+                .onErrorResume(error -> {
+                    log.warn("Embedding cache lookup failed for {}: {}", key, error.getMessage());
+                    misses.increment();
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Store a freshly generated embedding in both tiers. The table write happens off the caller's thread.
+     */
+    public void store(String key, String model, float[] vector) {
+        if (vector == null || vector.length == 0) {
+            return;
+        }
+        memory.put(key, vector);
+        Mono.fromRunnable(() -> repository.save(new EmbeddingCacheEntry(key, model, vector, null)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(
+                        ignored -> { },
+                        error -> log.warn("Failed to persist embedding {}: {}", key, error.getMessage()));
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFC);
+        return normalized.trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,26 @@
+package com.aitrujobs.service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Source of the text embeddings stored on jobs and resumes. Exactly one provider is
+ * active, chosen by {@code app.embedding.provider}. Stored vectors are tagged with
+ * {@link #getModelId()} and are only compared with vectors carrying the same id.
+ */
+public interface EmbeddingProvider {
+
+    /**
+     * Provider and model identity stored alongside each vector, e.g. {@code openai/text-embedding-ada-002}
+     */
+    String getModelId();
+
+    /**
+     * False while embeddings cannot be produced (not configured, or failing fast)
+     */
+    boolean isAvailable();
+
+    /**
+     * Embedding of the text; an empty array when the text yields none
+     */
+    Mono<float[]> embed(String text);
+}
@@ -7,12 +7,42 @@ import org.springframework.web.multipart.MultipartFile;
 import com.aitrujobs.exception.ResourceNotFoundException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
+/**
+ * Upload storage on top of a {@link BlobStore} ({@code app.storage.type}). Files are
+ * content-addressed: the SHA-256 of the bytes, computed while the multipart stream is
+ * staged under {@code app.upload.dir}, names the file and its first two byte pairs shard
+ * it into subdirectories. Identical uploads share one file; {@link OrphanFileSweeper}
+ * removes files that no resume references any more.
+ *
+ * The striped locks only order uploads and deletes on this node. Across nodes sharing a
+ * remote store, a delete sets the file aside under {@code .trash/} and checks for
+ * references again before purging it, and an upload re-checks its file once its resume
+ * row is saved ({@link #ensureStored}); between them every interleaving ends with the
+ * file in place for a saved reference.
+ */
 @Service
 public class FileUploadService {
 
@@ -21,59 +51,291 @@ public class FileUploadService {
 
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
     private static final String[] ALLOWED_EXTENSIONS = {".pdf", ".doc", ".docx"};
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    private static final String STAGING_DIR = ".staging";
+    private static final String TRASH_DIR = ".trash";
 
-    public String uploadFile(MultipartFile file, String subDirectory) {
+    private final BlobStore blobStore;
+
+    // Striped locks that serialize deduplication and deletion of the same stored path on this node
+    private final Object[] locks = new Object[64];
+
+    public FileUploadService(BlobStore blobStore) {
+        this.blobStore = blobStore;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Store the upload content-addressed and return where it went. An upload whose bytes
+     * are already stored is not written again; both callers get the same path.
+     */
+    public StoredFile uploadFile(MultipartFile file, String subDirectory) {
         validateFile(file);
         
+        Path staged = null;
         try {
-            // Create directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir, subDirectory);
-            Files.createDirectories(uploadPath);
+            MessageDigest digest = sha256();
+            staged = stage(file, digest);
+            long size = Files.size(staged);
+            String hash = HexFormat.of().formatHex(digest.digest());
             
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = getFileExtension(originalFilename);
-            String uniqueFilename = UUID.randomUUID().toString() + extension;
-            
-            // Save file
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            
-            return subDirectory + "/" + uniqueFilename;
+            // resumes/4f/b5/4fb5...e.pdf
+            String extension = getFileExtension(file.getOriginalFilename()).toLowerCase(Locale.ROOT);
+            String filePath = subDirectory + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + extension;
+            boolean deduplicated;
+            synchronized (lockFor(filePath)) {
+                // A fresh timestamp keeps the sweeper off the file until the new reference is saved
+                deduplicated = blobStore.stat(filePath) != null && touched(filePath);
+                if (!deduplicated) {
+                    blobStore.put(filePath, staged);
+                }
+            }
+            return new StoredFile(filePath, hash, size, deduplicated);
             
         } catch (IOException e) {
             throw new RuntimeException("Failed to store file: " + e.getMessage());
+        } finally {
+            deleteStaged(staged);
+        }
+    }
+
+    /**
+     * Call once the row referencing {@code stored} is saved: store the upload again if
+     * another node deleted the file as unreferenced before that row existed
+     */
+    public void ensureStored(StoredFile stored, MultipartFile file) {
+        Path staged = null;
+        synchronized (lockFor(stored.getPath())) {
+            try {
+                if (blobStore.stat(stored.getPath()) != null) {
+                    return;
+                }
+                MessageDigest digest = sha256();
+                staged = stage(file, digest);
+                if (!HexFormat.of().formatHex(digest.digest()).equals(stored.getHash())) {
+                    throw new IllegalStateException("Upload changed while it was stored");
+                }
+                blobStore.put(stored.getPath(), staged);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to store file: " + e.getMessage());
+            } finally {
+                deleteStaged(staged);
+            }
+        }
+    }
+
+    /**
+     * Stream the upload into a staging file, hashing on the way
+     */
+    private Path stage(MultipartFile file, MessageDigest digest) throws IOException {
+        Path stagingDir = Paths.get(uploadDir, STAGING_DIR);
+        Files.createDirectories(stagingDir);
+        Path staged = Files.createTempFile(stagingDir, "upload-", ".part");
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, staged, StandardCopyOption.REPLACE_EXISTING);
         }
+        return staged;
     }
 
-    public byte[] downloadFile(String filePath) {
+    private static void deleteStaged(Path staged) {
+        if (staged != null) {
+            try {
+                Files.deleteIfExists(staged);
+            } catch (IOException ignored) {
+                // Left for the sweeper
+            }
+        }
+    }
+
+    /**
+     * Refresh a file found by stat; false when another node deleted it in between
+     */
+    private boolean touched(String filePath) throws IOException {
         try {
-            Path file = Paths.get(uploadDir, filePath);
-            System.out.println("Attempting to download from: " + file.toString());
-            System.out.println("Upload directory: " + uploadDir);
-            System.out.println("File path parameter: " + filePath);
-            System.out.println("File exists: " + Files.exists(file));
-            
-            if (!Files.exists(file)) {
-                System.err.println("File not found at: " + file.toString());
+            blobStore.touch(filePath);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Local file with the content of a stored file path, fetched from the blob store
+     * first when it is remote. Close it when done so a cached copy can be evicted.
+     */
+    public BlobStore.LocalCopy locate(String filePath) {
+        try {
+            return blobStore.localFile(filePath);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("File not found: " + filePath);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Local file with the content of a stored file path if this node has one, without
+     * fetching; close it when done
+     */
+    public Optional<BlobStore.LocalCopy> cachedFile(String filePath) {
+        return blobStore.cachedFile(filePath);
+    }
+
+    /**
+     * Size in bytes of a stored file that must exist
+     */
+    public long size(String filePath) {
+        try {
+            BlobStore.BlobInfo info = blobStore.stat(filePath);
+            if (info == null) {
                 throw new ResourceNotFoundException("File not found: " + filePath);
             }
-            return Files.readAllBytes(file);
+            return info.getSize();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hex SHA-256 of a stored file, read through a direct buffer
+     */
+    public String contentHash(String filePath) {
+        try (BlobStore.LocalCopy copy = locate(filePath);
+             FileChannel channel = FileChannel.open(copy.getPath(), StandardOpenOption.READ)) {
+            MessageDigest digest = sha256();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            return HexFormat.of().formatHex(digest.digest());
         } catch (IOException e) {
-            System.err.println("IO Error reading file: " + filePath + ", Error: " + e.getMessage());
             throw new RuntimeException("Failed to read file: " + e.getMessage());
         }
     }
 
-    public void deleteFile(String filePath) {
+    /**
+     * Copy {@code count} bytes from {@code position} of the file to the stream with
+     * FileChannel.transferTo, so the file is never buffered on the heap
+     */
+    public void transferTo(Path file, long position, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long end = position + count;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    /**
+     * Copy {@code count} bytes from {@code position} of a stored file to the stream, reading
+     * only that range from the blob store
+     */
+    public void transferTo(String filePath, long position, long count, OutputStream out) throws IOException {
+        try (InputStream in = blobStore.open(filePath, position, count)) {
+            in.transferTo(out);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("File not found: " + filePath);
+        }
+    }
+
+    /**
+     * Delete a stored file unless it changed after {@code touchedBefore} or is still
+     * referenced. Runs under the same lock as deduplicating uploads, so a file that an
+     * upload on this node is about to reuse is never removed.
+     *
+     * Other nodes do not share the lock, so the file is first set aside and the reference
+     * check repeated: a reference saved before that second check gets the file back, and
+     * an upload whose reference is saved after it finds the file gone in
+     * {@link #ensureStored} and stores it again.
+     */
+    public boolean deleteUnreferenced(String filePath, Instant touchedBefore, Predicate<String> isReferenced) {
+        synchronized (lockFor(filePath)) {
+            try {
+                BlobStore.BlobInfo info = blobStore.stat(filePath);
+                if (info == null
+                        || info.getLastModified().isAfter(touchedBefore)
+                        || isReferenced.test(filePath)) {
+                    return false;
+                }
+                String trashKey = TRASH_DIR + "/" + filePath;
+                if (!blobStore.move(filePath, trashKey)) {
+                    return false;
+                }
+                if (isReferenced.test(filePath)) {
+                    blobStore.move(trashKey, filePath);
+                    return false;
+                }
+                return blobStore.delete(trashKey);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to delete file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Finish deletes interrupted between setting a file aside and purging it: put back
+     * files that are referenced, and purge the rest once older than {@code before}
+     */
+    public int sweepTrash(Instant before, Predicate<String> isReferenced) {
+        int deleted = 0;
+        try {
+            for (BlobStore.BlobInfo info : blobStore.list(TRASH_DIR)) {
+                String filePath = info.getKey().substring(TRASH_DIR.length() + 1);
+                synchronized (lockFor(filePath)) {
+                    if (isReferenced.test(filePath)) {
+                        blobStore.move(info.getKey(), filePath);
+                    } else if (info.getLastModified().isBefore(before) && blobStore.delete(info.getKey())) {
+                        deleted++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to clean deleted files: " + e.getMessage());
+        }
+        return deleted;
+    }
+
+    /**
+     * Stored paths (as returned by {@link #uploadFile}) of all files under the directory
+     */
+    public List<String> listFiles(String subDirectory) {
         try {
-            Path file = Paths.get(uploadDir, filePath);
-            Files.deleteIfExists(file);
+            return blobStore.list(subDirectory).stream().map(BlobStore.BlobInfo::getKey).toList();
         } catch (IOException e) {
-            throw new RuntimeException("Failed to delete file: " + e.getMessage());
+            throw new RuntimeException("Failed to list files: " + e.getMessage());
         }
     }
 
+    /**
+     * Remove staging files left by uploads that did not finish before {@code before}
+     */
+    public int deleteStaleStagingFiles(Instant before) {
+        Path stagingDir = Paths.get(uploadDir, STAGING_DIR);
+        if (!Files.isDirectory(stagingDir)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(stagingDir)) {
+            for (Path file : files.toList()) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(before) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to clean staging files: " + e.getMessage());
+        }
+        return deleted;
+    }
+
     private void validateFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File cannot be empty");
@@ -102,6 +364,18 @@ public class FileUploadService {
         }
     }
 
+    private Object lockFor(String filePath) {
+        return locks[Math.floorMod(filePath.hashCode(), locks.length)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private String getFileExtension(String filename) {
         if (filename == null || filename.isEmpty()) {
             return "";
@@ -109,4 +383,37 @@ public class FileUploadService {
         int lastDotIndex = filename.lastIndexOf('.');
         return lastDotIndex >= 0 ? filename.substring(lastDotIndex) : "";
     }
+
+    /**
+     * Where an upload was stored, and whether identical content was already there
+     */
+    public static final class StoredFile {
+        private final String path;
+        private final String hash;
+        private final long size;
+        private final boolean deduplicated;
+
+        public StoredFile(String path, String hash, long size, boolean deduplicated) {
+            this.path = path;
+            this.hash = hash;
+            this.size = size;
+            this.deduplicated = deduplicated;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public boolean isDeduplicated() {
+            return deduplicated;
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.search.FeatureHashingEmbedder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-process feature-hashing embeddings: no network, no key, same vector for the same
+ * text on every node. Meant for staging, load tests and running through an AI outage.
+ */
+@Service
+@ConditionalOnProperty(name = "app.embedding.provider", havingValue = "hashing")
+public class HashingEmbeddingProvider implements EmbeddingProvider {
+
+    private final FeatureHashingEmbedder embedder;
+
+    public HashingEmbeddingProvider(@Value("${app.embedding.hashing.dimensions:512}") int dimensions) {
+        this.embedder = new FeatureHashingEmbedder(dimensions);
+    }
+
+    @Override
+    public String getModelId() {
+        return "hashing/fh-v2-" + embedder.getDimensions();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public Mono<float[]> embed(String text) {
+        return Mono.fromSupplier(() -> embedder.embed(text));
+    }
+}
@@ -0,0 +1,83 @@
+package com.aitrujobs.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight registry: concurrent callers asking for the same request key share
+ * one upstream {@code Mono}. The entry is dropped when that Mono terminates, so a
+ * later call (including a retry after an error) starts a fresh request.
+ */
+class InFlightRequests {
+
+    private final Map<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    InFlightRequests(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("openai.inflight.requests", inFlight, Map::size)
+                .description("Distinct AI requests currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Join the in-flight request for {@code key}, or start one with {@code call}
+     */
+    @SuppressWarnings("unchecked")
+    <T> Mono<T> join(String kind, String key, Supplier<Mono<T>> call) {
+        String registryKey = kind + ":" + key;
+        return Mono.defer(() -> {
+            boolean[] started = {false};
+            Mono<?> shared = inFlight.computeIfAbsent(registryKey, k -> {
+                started[0] = true;
+                return share(k, call);
+            });
+            counter(kind, started[0] ? "started" : "deduplicated").increment();
+            return (Mono<T>) shared;
+        });
+    }
+
+    private <T> Mono<T> share(String registryKey, Supplier<Mono<T>> call) {
+        AtomicReference<Mono<T>> self = new AtomicReference<>();
+        Mono<T> shared = Mono.defer(call)
+                .doFinally(signal -> inFlight.remove(registryKey, self.get()))
+                .cache();
+        self.set(shared);
+        return shared;
+    }
+
+    private Counter counter(String kind, String result) {
+        return Counter.builder("openai.inflight.calls")
+                .description("AI calls that started an upstream request or joined one already in flight")
+                .tag("kind", kind)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * SHA-256 over the parts, separated by NUL bytes
+     */
+    static String hash(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
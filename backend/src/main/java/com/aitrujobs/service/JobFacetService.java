@@ -0,0 +1,263 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.entity.Job;
+import com.aitrujobs.event.JobChangedEvent;
+import com.aitrujobs.repository.JobRepository;
+import com.aitrujobs.search.CompressedBitmap;
+import com.aitrujobs.search.FacetIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Filtering and facet counts over published jobs by location, job type and skill, from
+ * a {@link FacetIndex} of compressed bitmaps. Skills are indexed by their taxonomy id,
+ * under the skill's display name, so aliases of one skill count together.
+ *
+ * Each dimension's counts apply the other dimensions' filters but not its own, so
+ * picking "Remote" still shows how many jobs every other location has. Results come
+ * newest first, by id; ids are assigned in creation order.
+ */
+@Service
+@Slf4j
+public class JobFacetService {
+
+    public static final String LOCATION = "location";
+    public static final String JOB_TYPE = "jobType";
+    public static final String SKILL = "skill";
+    private static final List<String> DIMENSIONS = List.of(LOCATION, JOB_TYPE, SKILL);
+
+    private final JobRepository jobRepository;
+    private final SkillService skillService;
+    private final FacetIndex index = new FacetIndex();
+    private final Timer facetTimer;
+
+    public JobFacetService(JobRepository jobRepository, SkillService skillService, MeterRegistry meterRegistry) {
+        this.jobRepository = jobRepository;
+        this.skillService = skillService;
+        this.facetTimer = Timer.builder("job.facets")
+                .description("Filtering and facet counting over the job bitmaps, excluding loading the page of jobs")
+                .register(meterRegistry);
+        Gauge.builder("job.facets.index.documents", index, facets -> facets.snapshot().all().cardinality())
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Integer, Map<String, List<String>>> documents = new HashMap<>();
+        for (Job job : jobRepository.findByIsPublishedTrue()) {
+            Integer id = bitmapId(job);
+            if (id != null) {
+                documents.put(id, document(job));
+            }
+        }
+        index.replaceAll(documents);
+        log.info("Indexed {} published jobs for faceted search in {} ms",
+                documents.size(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onJobChanged(JobChangedEvent event) {
+        Job job = event.getJob();
+        Integer id = bitmapId(job);
+        if (id == null) {
+            return;
+        }
+        if (event.getType() != JobChangedEvent.Type.DELETED && Boolean.TRUE.equals(job.getIsPublished())) {
+            index.upsert(id, document(job));
+        } else {
+            index.remove(id);
+        }
+    }
+
+    /**
+     * Published jobs matching every given filter (null or empty = any), newest first, with
+     * the top {@code facetLimit} values of each dimension and their counts. A job matches
+     * the skills when it has any of them, or all of them with {@code matchAllSkills}.
+     */
+    public FacetedJobs search(String location, List<String> skills, boolean matchAllSkills, String jobType,
+                              Pageable pageable, int facetLimit) {
+        FacetIndex.Snapshot snapshot = index.snapshot();
+        Map<String, CompressedBitmap> selections = new LinkedHashMap<>();
+        Timer.Sample sample = Timer.start();
+        if (location != null && !location.isBlank()) {
+            // Substring match, as the LIKE filter this replaces: "york" selects "New York, NY"
+            selections.put(LOCATION, union(snapshot, LOCATION, location));
+        }
+        if (jobType != null && !jobType.isBlank()) {
+            selections.put(JOB_TYPE, exact(snapshot, JOB_TYPE, jobType));
+        }
+        if (skills != null && !skills.isEmpty()) {
+            CompressedBitmap selected = null;
+            for (String skill : skills) {
+                CompressedBitmap jobs = skillBitmap(snapshot, skill);
+                selected = selected == null ? jobs : matchAllSkills ? selected.and(jobs) : selected.or(jobs);
+            }
+            selections.put(SKILL, selected);
+        }
+
+        CompressedBitmap matches = snapshot.all();
+        for (CompressedBitmap selection : selections.values()) {
+            matches = matches.and(selection);
+        }
+        Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+        // Plain filtering (facetLimit 0) skips the counting
+        for (String dimension : facetLimit > 0 ? DIMENSIONS : List.<String>of()) {
+            CompressedBitmap base = snapshot.all();
+            for (Map.Entry<String, CompressedBitmap> selection : selections.entrySet()) {
+                if (!selection.getKey().equals(dimension)) {
+                    base = base.and(selection.getValue());
+                }
+            }
+            facets.put(dimension, counts(snapshot, dimension, base, facetLimit));
+        }
+        int[] pageIds = matches.descending((int) Math.min(Integer.MAX_VALUE, pageable.getOffset()), pageable.getPageSize());
+        sample.stop(facetTimer);
+
+        return new FacetedJobs(new PageImpl<>(load(pageIds), pageable, matches.cardinality()), facets);
+    }
+
+    /** A taxonomy skill by id (aliases included); otherwise skills containing the text */
+    private CompressedBitmap skillBitmap(FacetIndex.Snapshot snapshot, String skill) {
+        int skillId = skillService.skillId(skill);
+        return skillId >= 0
+                ? snapshot.bitmap(SKILL, skillService.skillName(skillId))
+                : union(snapshot, SKILL, skill);
+    }
+
+    private static CompressedBitmap union(FacetIndex.Snapshot snapshot, String dimension, String text) {
+        String needle = text.trim().toLowerCase(Locale.ROOT);
+        CompressedBitmap union = CompressedBitmap.EMPTY;
+        for (Map.Entry<String, CompressedBitmap> value : snapshot.values(dimension).entrySet()) {
+            if (value.getKey().toLowerCase(Locale.ROOT).contains(needle)) {
+                union = union.or(value.getValue());
+            }
+        }
+        return union;
+    }
+
+    private static CompressedBitmap exact(FacetIndex.Snapshot snapshot, String dimension, String text) {
+        for (Map.Entry<String, CompressedBitmap> value : snapshot.values(dimension).entrySet()) {
+            if (value.getKey().equalsIgnoreCase(text.trim())) {
+                return value.getValue();
+            }
+        }
+        return CompressedBitmap.EMPTY;
+    }
+
+    private static List<FacetCount> counts(FacetIndex.Snapshot snapshot, String dimension,
+                                           CompressedBitmap base, int limit) {
+        List<FacetCount> counts = new ArrayList<>();
+        for (Map.Entry<String, CompressedBitmap> value : snapshot.values(dimension).entrySet()) {
+            int count = base.andCardinality(value.getValue());
+            if (count > 0) {
+                counts.add(new FacetCount(value.getKey(), count));
+            }
+        }
+        counts.sort(Comparator.comparingInt(FacetCount::getCount).reversed().thenComparing(FacetCount::getValue));
+        return counts.size() > limit ? counts.subList(0, limit) : counts;
+    }
+
+    private List<Job> load(int[] ids) {
+        List<Long> jobIds = new ArrayList<>();
+        for (int id : ids) {
+            jobIds.add((long) id);
+        }
+        Map<Long, Job> jobs = jobRepository.findAllById(jobIds).stream()
+                .collect(Collectors.toMap(Job::getId, Function.identity()));
+        List<Job> content = new ArrayList<>();
+        for (Long id : jobIds) {
+            Job job = jobs.get(id);
+            if (job != null) {
+                content.add(job);
+            }
+        }
+        return content;
+    }
+
+    private Map<String, List<String>> document(Job job) {
+        Map<String, List<String>> values = new HashMap<>();
+        if (job.getLocation() != null) {
+            values.put(LOCATION, List.of(job.getLocation()));
+        }
+        if (job.getJobType() != null) {
+            values.put(JOB_TYPE, List.of(job.getJobType()));
+        }
+        List<String> skills = new ArrayList<>();
+        for (int id : skillService.jobSkillIds(job.getSkills())) {
+            skills.add(skillService.skillName(id));
+        }
+        values.put(SKILL, skills);
+        return values;
+    }
+
+    /** Bitmaps hold ints; ids beyond that range are left out of faceting */
+    private static Integer bitmapId(Job job) {
+        Long id = job.getId();
+        if (id == null) {
+            return null;
+        }
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            log.warn("Job {} has an id outside the facet index range; not indexed", id);
+            return null;
+        }
+        return id.intValue();
+    }
+
+    /**
+     * A page of jobs with the facet counts of the whole result
+     */
+    public static final class FacetedJobs {
+        private final Page<Job> jobs;
+        private final Map<String, List<FacetCount>> facets;
+
+        private FacetedJobs(Page<Job> jobs, Map<String, List<FacetCount>> facets) {
+            this.jobs = jobs;
+            this.facets = facets;
+        }
+
+        public Page<Job> getJobs() {
+            return jobs;
+        }
+
+        public Map<String, List<FacetCount>> getFacets() {
+            return facets;
+        }
+    }
+
+    public static final class FacetCount {
+        private final String value;
+        private final int count;
+
+        private FacetCount(String value, int count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
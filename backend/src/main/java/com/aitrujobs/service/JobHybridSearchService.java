@@ -0,0 +1,312 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.entity.Job;
+import com.aitrujobs.repository.JobRepository;
+import com.aitrujobs.search.HnswIndex;
+import com.aitrujobs.search.InvertedIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyword and semantic search over published jobs in one ranking. The query runs
+ * against the {@link JobSearchService} BM25 index and, embedded by the active
+ * {@link EmbeddingProvider}, against the {@link JobVectorIndexService} graph at the same
+ * time; the two lists are merged by reciprocal rank fusion:
+ * {@code score(job) = sum over lists of 1 / (k + rank)}. Fusing ranks rather than scores
+ * needs no calibration between BM25 and cosine, and a job near the top of either list
+ * ranks well, so "backend kotlin remote" also finds a "Server-side JVM engineer".
+ *
+ * When the query cannot be embedded (provider unavailable, failing or over
+ * {@code embed-timeout-ms}) the keyword ranking is returned alone.
+ */
+@Service
+@Slf4j
+public class JobHybridSearchService {
+
+    public static final String LEXICAL = "lexical";
+    public static final String EMBED = "embed";
+    public static final String VECTOR = "vector";
+    public static final String FUSE = "fuse";
+    public static final String LOAD = "load";
+    public static final String TOTAL = "total";
+    private static final List<String> STAGES = List.of(LEXICAL, EMBED, VECTOR, FUSE, LOAD, TOTAL);
+    /** Deepest page reachable; each list is read this far at most */
+    private static final int MAX_DEPTH = 1000;
+
+    private final JobSearchService jobSearchService;
+    private final JobVectorIndexService jobVectorIndexService;
+    private final EmbeddingProvider embeddingProvider;
+    private final JobRepository jobRepository;
+    private final int rrfK;
+    private final int candidates;
+    private final Duration embedTimeout;
+    private final Map<String, Timer> stageTimers = new HashMap<>();
+
+    public JobHybridSearchService(JobSearchService jobSearchService,
+                                  JobVectorIndexService jobVectorIndexService,
+                                  EmbeddingProvider embeddingProvider,
+                                  JobRepository jobRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.search.hybrid.rrf-k:60}") int rrfK,
+                                  @Value("${app.search.hybrid.candidates:100}") int candidates,
+                                  @Value("${app.search.hybrid.embed-timeout-ms:2000}") long embedTimeoutMs) {
+        this.jobSearchService = jobSearchService;
+        this.jobVectorIndexService = jobVectorIndexService;
+        this.embeddingProvider = embeddingProvider;
+        this.jobRepository = jobRepository;
+        this.rrfK = Math.max(1, rrfK);
+        this.candidates = Math.max(1, candidates);
+        this.embedTimeout = Duration.ofMillis(embedTimeoutMs);
+        for (String stage : STAGES) {
+            stageTimers.put(stage, Timer.builder("job.search.hybrid")
+                    .description("Hybrid job search time per stage; lexical and embed+vector run concurrently")
+                    .tag("stage", stage)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * A page of the fused ranking, with how long each stage took
+     */
+    public Mono<HybridResults> search(String query, Pageable pageable) {
+        long start = System.nanoTime();
+        if (query == null || query.isBlank()) {
+            return Mono.just(new HybridResults(Page.empty(pageable), VectorStatus.SKIPPED, Map.of()));
+        }
+        int depth = (int) Math.min(MAX_DEPTH, Math.max(candidates, pageable.getOffset() + pageable.getPageSize()));
+
+        Mono<LexicalHits> lexical = Mono.fromCallable(() -> {
+            long stageStart = System.nanoTime();
+            InvertedIndex.Hits hits = jobSearchService.rank(query, depth);
+            return new LexicalHits(hits.getIds(), record(LEXICAL, stageStart));
+        }).subscribeOn(Schedulers.parallel());
+
+        // Each branch carries its own timings; they are merged here, on one thread, after both finish
+        return Mono.zip(lexical, semantic(query, depth))
+                .publishOn(Schedulers.boundedElastic())
+                .map(lists -> {
+                    Map<String, Double> timings = new LinkedHashMap<>();
+                    timings.put(LEXICAL, lists.getT1().millis);
+                    timings.putAll(lists.getT2().timings);
+
+                    long fuseStart = System.nanoTime();
+                    List<HybridHit> fused = fuse(lists.getT1().ids, lists.getT2().ids);
+                    timings.put(FUSE, record(FUSE, fuseStart));
+
+                    long loadStart = System.nanoTime();
+                    List<HybridHit> page = load(fused, pageable);
+                    timings.put(LOAD, record(LOAD, loadStart));
+
+                    timings.put(TOTAL, record(TOTAL, start));
+                    return new HybridResults(new PageImpl<>(page, pageable, fused.size()), lists.getT2().status, timings);
+                });
+    }
+
+    /**
+     * Embed the query, then search the vector index; empty with the reason when it cannot
+     */
+    private Mono<VectorHits> semantic(String query, int depth) {
+        if (!embeddingProvider.isAvailable() || jobVectorIndexService.size() == 0) {
+            return Mono.just(new VectorHits(new long[0], VectorStatus.UNAVAILABLE, Map.of()));
+        }
+        return Mono.defer(() -> {
+            long embedStart = System.nanoTime();
+            return embeddingProvider.embed(query)
+                    .timeout(embedTimeout)
+                    .map(vector -> new Embedded(vector, record(EMBED, embedStart)));
+        }).subscribeOn(Schedulers.parallel())
+                .publishOn(Schedulers.boundedElastic())
+                .map(embedded -> {
+                    // Quantized indexes re-rank against vectors read from the database, hence boundedElastic
+                    long vectorStart = System.nanoTime();
+                    List<HnswIndex.SearchResult> results = jobVectorIndexService.search(embedded.vector, depth);
+                    double vectorMillis = record(VECTOR, vectorStart);
+                    long[] ids = new long[results.size()];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = results.get(i).getKey();
+                    }
+                    Map<String, Double> timings = new LinkedHashMap<>();
+                    timings.put(EMBED, embedded.millis);
+                    timings.put(VECTOR, vectorMillis);
+                    return new VectorHits(ids, VectorStatus.OK, timings);
+                })
+                .onErrorResume(error -> {
+                    log.warn("Hybrid search falling back to keywords only: {}", error.toString());
+                    return Mono.just(new VectorHits(new long[0], VectorStatus.FAILED, Map.of()));
+                })
+                .defaultIfEmpty(new VectorHits(new long[0], VectorStatus.FAILED, Map.of()));
+    }
+
+    /**
+     * Reciprocal rank fusion of the two rankings, best first; ties go to the newer job
+     */
+    private List<HybridHit> fuse(long[] lexical, long[] vector) {
+        Map<Long, HybridHit> hits = new HashMap<>();
+        for (int i = 0; i < lexical.length; i++) {
+            HybridHit hit = hits.computeIfAbsent(lexical[i], HybridHit::new);
+            hit.lexicalRank = i + 1;
+            hit.score += 1.0 / (rrfK + i + 1);
+        }
+        for (int i = 0; i < vector.length; i++) {
+            HybridHit hit = hits.computeIfAbsent(vector[i], HybridHit::new);
+            hit.vectorRank = i + 1;
+            hit.score += 1.0 / (rrfK + i + 1);
+        }
+        List<HybridHit> fused = new ArrayList<>(hits.values());
+        fused.sort((a, b) -> a.score != b.score ? Double.compare(b.score, a.score) : Long.compare(b.jobId, a.jobId));
+        return fused;
+    }
+
+    private List<HybridHit> load(List<HybridHit> fused, Pageable pageable) {
+        if (pageable.getOffset() >= fused.size()) {
+            return List.of();
+        }
+        List<HybridHit> page = fused.subList((int) pageable.getOffset(),
+                (int) Math.min(fused.size(), pageable.getOffset() + pageable.getPageSize()));
+        List<Long> ids = page.stream().map(hit -> hit.jobId).toList();
+        Map<Long, Job> jobs = jobRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Job::getId, Function.identity()));
+        List<HybridHit> content = new ArrayList<>();
+        for (HybridHit hit : page) {
+            Job job = jobs.get(hit.jobId);
+            // Either index may trail an unpublish by a moment
+            if (job != null && Boolean.TRUE.equals(job.getIsPublished())) {
+                hit.job = job;
+                content.add(hit);
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Record a stage on its timer; returns its duration in milliseconds for the response
+     */
+    private double record(String stage, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        stageTimers.get(stage).record(elapsed, TimeUnit.NANOSECONDS);
+        return Math.round(elapsed / 1_000.0) / 1_000.0;
+    }
+
+    public enum VectorStatus {
+        /** Both rankings were fused */
+        OK,
+        /** No embedding provider or no embedded jobs; keyword ranking only */
+        UNAVAILABLE,
+        /** Embedding the query failed or timed out; keyword ranking only */
+        FAILED,
+        /** Blank query; nothing was searched */
+        SKIPPED
+    }
+
+    private static final class LexicalHits {
+        private final long[] ids;
+        private final double millis;
+
+        private LexicalHits(long[] ids, double millis) {
+            this.ids = ids;
+            this.millis = millis;
+        }
+    }
+
+    private static final class Embedded {
+        private final float[] vector;
+        private final double millis;
+
+        private Embedded(float[] vector, double millis) {
+            this.vector = vector;
+            this.millis = millis;
+        }
+    }
+
+    private static final class VectorHits {
+        private final long[] ids;
+        private final VectorStatus status;
+        /** Embed and vector stage durations; empty when the branch did not complete */
+        private final Map<String, Double> timings;
+
+        private VectorHits(long[] ids, VectorStatus status, Map<String, Double> timings) {
+            this.ids = ids;
+            this.status = status;
+            this.timings = timings;
+        }
+    }
+
+    /**
+     * A page of fused results, whether the vector side took part, and per-stage
+     * milliseconds ({@code lexical}, {@code embed}, {@code vector}, {@code fuse},
+     * {@code load}, {@code total}); stages that did not run are absent
+     */
+    public static final class HybridResults {
+        private final Page<HybridHit> results;
+        private final VectorStatus vectorStatus;
+        private final Map<String, Double> timingsMs;
+
+        private HybridResults(Page<HybridHit> results, VectorStatus vectorStatus, Map<String, Double> timingsMs) {
+            this.results = results;
+            this.vectorStatus = vectorStatus;
+            this.timingsMs = timingsMs;
+        }
+
+        public Page<HybridHit> getResults() {
+            return results;
+        }
+
+        public VectorStatus getVectorStatus() {
+            return vectorStatus;
+        }
+
+        public Map<String, Double> getTimingsMs() {
+            return timingsMs;
+        }
+    }
+
+    /**
+     * A job with its fused score and its 1-based rank in each list (null when absent)
+     */
+    public static final class HybridHit {
+        private final long jobId;
+        private Job job;
+        private double score;
+        private Integer lexicalRank;
+        private Integer vectorRank;
+
+        private HybridHit(long jobId) {
+            this.jobId = jobId;
+        }
+
+        public Job getJob() {
+            return job;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public Integer getLexicalRank() {
+            return lexicalRank;
+        }
+
+        public Integer getVectorRank() {
+            return vectorRank;
+        }
+    }
+}
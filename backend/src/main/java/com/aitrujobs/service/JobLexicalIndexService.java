@@ -0,0 +1,107 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.entity.Job;
+import com.aitrujobs.event.JobChangedEvent;
+import com.aitrujobs.repository.JobRepository;
+import com.aitrujobs.search.Analyzer;
+import com.aitrujobs.search.Bm25Index;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+/**
+ * BM25 corpus over published jobs, plus a bounded cache of analyzed resume terms, so
+ * lexical scores are computed in memory without re-reading any text.
+ */
+@Service
+@Slf4j
+public class JobLexicalIndexService {
+
+    private final JobRepository jobRepository;
+    private final Bm25Index index;
+    private final Cache<String, Set<String>> queryTerms;
+
+    public JobLexicalIndexService(JobRepository jobRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.matching.bm25.k1:1.2}") double k1,
+                                  @Value("${app.matching.bm25.b:0.75}") double b,
+                                  @Value("${app.matching.bm25.query-cache-size:500}") long queryCacheSize) {
+        this.jobRepository = jobRepository;
+        this.index = new Bm25Index(Analyzer.standard(), k1, b);
+        this.queryTerms = Caffeine.newBuilder().maximumSize(queryCacheSize).build();
+        Gauge.builder("job.lexical.index.documents", index, Bm25Index::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build the corpus from all published jobs
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        index.clear();
+        jobRepository.findByIsPublishedTrue().forEach(this::index);
+        log.info("Indexed {} published jobs for BM25 in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Add, replace or drop a job depending on whether it is published
+     */
+    public void index(Job job) {
+        if (job.getId() == null) {
+            return;
+        }
+        if (Boolean.TRUE.equals(job.getIsPublished())) {
+            index.upsert(job.getId(), AtsScoringService.jobContent(job));
+        } else {
+            index.remove(job.getId());
+        }
+    }
+
+    @EventListener
+    public void onJobChanged(JobChangedEvent event) {
+        if (event.getType() == JobChangedEvent.Type.DELETED) {
+            remove(event.getJobId());
+        } else {
+            index(event.getJob());
+        }
+    }
+
+    public void remove(Long jobId) {
+        if (jobId != null) {
+            index.remove(jobId);
+        }
+    }
+
+    /**
+     * Analyzed terms of a resume (or any query text), cached by content
+     */
+    public Set<String> terms(String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+        return queryTerms.get(text, key -> Set.copyOf(index.getAnalyzer().termSet(key)));
+    }
+
+    /**
+     * Normalized BM25 (0-1) of the resume terms against the job; jobs outside the
+     * corpus (drafts, unsaved) are analyzed on the fly against the corpus statistics
+     */
+    public double bm25(Set<String> resumeTerms, Job job) {
+        if (job.getId() != null) {
+            double score = index.score(resumeTerms, job.getId());
+            if (score >= 0) {
+                return score;
+            }
+        }
+        return index.score(resumeTerms, AtsScoringService.jobContent(job));
+    }
+}
@@ -5,15 +5,26 @@ import com.aitrujobs.entity.Resume;
 import com.aitrujobs.entity.User;
 import com.aitrujobs.repository.JobRepository;
 import com.aitrujobs.repository.ResumeRepository;
+import com.aitrujobs.search.HnswIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,7 +38,45 @@ public class JobMatchingService {
     private ResumeRepository resumeRepository;
 
     @Autowired
-    private OpenAIService openAIService;
+    private EmbeddingProvider embeddingProvider;
+
+    @Autowired
+    private JobVectorIndexService jobVectorIndexService;
+
+    @Autowired
+    private AtsScoringService atsScoringService;
+
+    @Autowired
+    private SkillService skillService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Jobs scored at once for a single request */
+    @Value("${app.matching.scoring.concurrency:8}")
+    private int scoringConcurrency;
+
+    /** Jobs scored at once across all requests */
+    @Value("${app.matching.scoring.global-concurrency:32}")
+    private int globalScoringConcurrency;
+
+    @Value("${app.matching.scoring.item-timeout-ms:5000}")
+    private long itemTimeoutMs;
+
+    /** Nearest neighbours re-ranked for recommendations; every page cuts the same ranking */
+    @Value("${app.matching.recommendations.candidates:200}")
+    private int recommendationCandidates;
+
+    private Bulkhead scoringBulkhead;
+    private Counter degradedScores;
+
+    @PostConstruct
+    void initScoringLimits() {
+        scoringBulkhead = new Bulkhead("job-scoring", globalScoringConcurrency, meterRegistry);
+        degradedScores = Counter.builder("matching.scoring.degraded")
+                .description("Jobs whose score timed out or failed and was degraded")
+                .register(meterRegistry);
+    }
 
     /**
      * Get personalized job recommendations for a user
@@ -49,104 +98,121 @@ public class JobMatchingService {
         }
 
         Resume userResume = latestResumeOpt.get();
-        Page<Job> availableJobs = jobRepository.findByIsPublishedTrue(pageable);
 
         if (userResume.getExtractedText() == null || userResume.getExtractedText().isEmpty()) {
             // If resume has no text, return jobs without scores
+            Page<Job> availableJobs = jobRepository.findByIsPublishedTrue(pageable);
             List<JobMatch> jobMatches = availableJobs.getContent().stream()
                     .map(job -> new JobMatch(job, 0.0, Collections.emptyList(), "Resume text not extracted"))
                     .collect(Collectors.toList());
             return Mono.just(new PageImpl<>(jobMatches, pageable, availableJobs.getTotalElements()));
         }
 
-        // Calculate ATS scores for all jobs
-        return calculateJobMatches(userResume, availableJobs.getContent())
-                .map(jobMatches -> {
-                    // Sort by ATS score descending
-                    List<JobMatch> sortedMatches = jobMatches.stream()
-                            .sorted((a, b) -> Double.compare(b.getAtsScore(), a.getAtsScore()))
-                            .collect(Collectors.toList());
-                    
-                    return new PageImpl<>(sortedMatches, pageable, availableJobs.getTotalElements());
+        // Prefer the global top-K from the vector index; only without it read and re-rank this page of jobs
+        return atsScoringService.resumeVector(userResume)
+                .onErrorReturn(new float[0])
+                .flatMap(resumeVector -> {
+                    if (resumeVector.length > 0 && jobVectorIndexService.size() > 0) {
+                        return getIndexedMatches(userResume, resumeVector, pageable);
+                    }
+                    Page<Job> availableJobs = jobRepository.findByIsPublishedTrue(pageable);
+                    return calculateJobMatches(userResume, availableJobs.getContent())
+                            .map(jobMatches -> {
+                                // Sort by ATS score descending
+                                List<JobMatch> sortedMatches = jobMatches.stream()
+                                        .sorted((a, b) -> Double.compare(b.getAtsScore(), a.getAtsScore()))
+                                        .collect(Collectors.toList());
+
+                                return new PageImpl<>(sortedMatches, pageable, availableJobs.getTotalElements());
+                            });
                 });
     }
 
     /**
-     * Calculate detailed job matches with ATS scores and explanations
+     * Page through the global nearest neighbours of the resume vector. The same top
+     * {@code recommendationCandidates} are re-ranked by the hybrid score for every page, so
+     * pages neither repeat nor skip jobs; recommendations end after that many.
+     */
+    private Mono<Page<JobMatch>> getIndexedMatches(Resume resume, float[] resumeVector, Pageable pageable) {
+        int offset = (int) pageable.getOffset();
+        int depth = Math.max(1, recommendationCandidates);
+        if (offset >= depth) {
+            return Mono.just(new PageImpl<>(Collections.emptyList(), pageable, Math.min(depth, jobVectorIndexService.size())));
+        }
+        List<HnswIndex.SearchResult> hits = jobVectorIndexService.search(resumeVector, depth);
+
+        Map<Long, Job> jobsById = jobRepository.findAllById(
+                        hits.stream().map(HnswIndex.SearchResult::getKey).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Job::getId, job -> job));
+
+        // Index similarities are exact cosines and the lexical parts are in memory, so no remote calls
+        List<JobMatch> ranked = new ArrayList<>();
+        for (HnswIndex.SearchResult hit : hits) {
+            Job job = jobsById.get(hit.getKey());
+            if (job != null) {
+                ranked.add(toJobMatch(resume, job, atsScoringService.hybridScore(resume, job, hit.getSimilarity())));
+            }
+        }
+        // Ties broken by id so equal scores keep one order across pages
+        ranked.sort(Comparator.comparingDouble(JobMatch::getAtsScore).reversed()
+                .thenComparing(match -> match.getJob().getId()));
+        List<JobMatch> matches = ranked.subList(Math.min(offset, ranked.size()),
+                Math.min(offset + pageable.getPageSize(), ranked.size()));
+        return Mono.just(new PageImpl<>(new ArrayList<>(matches), pageable, ranked.size()));
+    }
+
+    /**
+     * Calculate job matches with ATS scores and matching skills
      */
     private Mono<List<JobMatch>> calculateJobMatches(Resume resume, List<Job> jobs) {
-        if (!openAIService.isConfigured()) {
+        if (!embeddingProvider.isAvailable()) {
+            // Score from stored vectors or word overlap without calling out
             List<JobMatch> fallbackMatches = jobs.stream()
-                    .map(job -> new JobMatch(job, 0.0, Collections.emptyList(), "AI service not configured"))
+                    .map(job -> toJobMatch(resume, job, atsScoringService.fallbackScore(resume, job)))
                     .collect(Collectors.toList());
             return Mono.just(fallbackMatches);
         }
 
-        List<Mono<JobMatch>> matchMonos = jobs.stream()
-                .map(job -> calculateSingleJobMatch(resume, job))
-                .collect(Collectors.toList());
-
-        return Mono.zip(matchMonos, objects -> 
-                Arrays.stream(objects)
-                        .map(obj -> (JobMatch) obj)
-                        .collect(Collectors.toList())
-        );
+        return scoreBounded(jobs,
+                        job -> calculateSingleJobMatch(resume, job),
+                        job -> toJobMatch(resume, job, atsScoringService.fallbackScore(resume, job)))
+                .collectList();
     }
 
     /**
-     * Calculate ATS score and explanation for a single job
+     * Run {@code scorer} over the jobs with at most {@code scoringConcurrency} in flight for
+     * this request and {@code globalScoringConcurrency} across all requests. A job that
+     * errors or exceeds the item timeout gets {@code degraded(job)} instead of failing or
+     * stalling the whole result. Output keeps the input order.
      */
-    private Mono<JobMatch> calculateSingleJobMatch(Resume resume, Job job) {
-        String jobContent = String.format("%s %s %s %s", 
-                job.getTitle(), 
-                job.getDescription() != null ? job.getDescription() : "", 
-                job.getRequirements() != null ? job.getRequirements() : "",
-                job.getSkills() != null ? job.getSkills() : "");
-
-        return openAIService.calculateATSScore(resume.getExtractedText(), jobContent)
-                .flatMap(score -> 
-                    generateMatchExplanation(resume.getExtractedText(), jobContent, score)
-                            .map(explanation -> {
-                                List<String> skillMatches = extractSkillMatches(resume.getExtractedText(), job.getSkills());
-                                return new JobMatch(job, score, skillMatches, explanation);
-                            })
-                )
-                .onErrorReturn(new JobMatch(job, 0.0, Collections.emptyList(), "Error calculating match"));
+    private <T> Flux<T> scoreBounded(List<Job> jobs, Function<Job, Mono<T>> scorer, Function<Job, T> degraded) {
+        Duration itemTimeout = Duration.ofMillis(itemTimeoutMs);
+        return Flux.fromIterable(jobs)
+                .flatMapSequential(job -> scoringBulkhead.run(() -> scorer.apply(job))
+                        .timeout(itemTimeout)
+                        .onErrorResume(error -> {
+                            degradedScores.increment();
+                            log.warn("Degraded score for job {}: {}", job.getId(), error.toString());
+                            return Mono.just(degraded.apply(job));
+                        }), Math.max(1, scoringConcurrency));
     }
 
     /**
-     * Generate detailed explanation for job match
+     * Calculate ATS score for a single job. Errors reach {@link #scoreBounded}, which counts
+     * them as degraded and substitutes the lexical fallback.
      */
-    private Mono<String> generateMatchExplanation(String resumeText, String jobContent, double score) {
-        String prompt = String.format(
-            "Explain why this resume matches this job with a score of %.1f/100. " +
-            "Provide specific reasons for the match/mismatch. " +
-            "Keep it concise (2-3 sentences). " +
-            "Resume: %s " +
-            "Job: %s",
-            score, 
-            resumeText.length() > 1000 ? resumeText.substring(0, 1000) + "..." : resumeText,
-            jobContent.length() > 1000 ? jobContent.substring(0, 1000) + "..." : jobContent
-        );
-
-        return openAIService.generateChatCompletion(prompt)
-                .onErrorReturn("Match score calculated based on content similarity");
+    private Mono<JobMatch> calculateSingleJobMatch(Resume resume, Job job) {
+        return atsScoringService.score(resume, job)
+                .map(score -> toJobMatch(resume, job, score));
     }
 
     /**
-     * Extract matching skills between resume and job requirements
+     * Score plus matching skills. Explanations are fetched per job on demand
+     * (see {@link MatchExplanationService}), so none is attached here.
      */
-    private List<String> extractSkillMatches(String resumeText, String jobSkills) {
-        if (jobSkills == null || jobSkills.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        String resumeLower = resumeText.toLowerCase();
-        return Arrays.stream(jobSkills.split(","))
-                .map(String::trim)
-                .filter(skill -> resumeLower.contains(skill.toLowerCase()))
-                .limit(5) // Limit to top 5 matching skills
-                .collect(Collectors.toList());
+    private JobMatch toJobMatch(Resume resume, Job job, double score) {
+        return new JobMatch(job, score, skillService.matchingSkills(resume.getExtractedText(), job.getSkills(), 5), null);
     }
 
     /**
@@ -159,41 +225,42 @@ public class JobMatchingService {
         }
 
         Job targetJob = jobOpt.get();
-        String jobContent = String.format("%s %s %s", 
-                targetJob.getDescription() != null ? targetJob.getDescription() : "", 
-                targetJob.getRequirements() != null ? targetJob.getRequirements() : "",
-                targetJob.getSkills() != null ? targetJob.getSkills() : "");
-
-        List<Job> allJobs = jobRepository.findByIsPublishedTrueAndIdNot(jobId);
-        
-        if (!openAIService.isConfigured() || allJobs.isEmpty()) {
-            return Mono.just(allJobs.stream()
-                    .limit(limit)
-                    .collect(Collectors.toList()));
+        if (jobVectorIndexService.size() == 0) {
+            return Mono.just(latestJobsExcept(jobId, limit));
         }
 
-        // Calculate similarity scores for all other jobs
-        List<Mono<JobSimilarity>> similarityMonos = allJobs.stream()
-                .map(job -> {
-                    String otherJobContent = String.format("%s %s %s", 
-                            job.getDescription() != null ? job.getDescription() : "", 
-                            job.getRequirements() != null ? job.getRequirements() : "",
-                            job.getSkills() != null ? job.getSkills() : "");
-                    
-                    return openAIService.calculateATSScore(jobContent, otherJobContent)
-                            .map(score -> new JobSimilarity(job, score))
-                            .onErrorReturn(new JobSimilarity(job, 0.0));
-                })
-                .collect(Collectors.toList());
+        // The target's nearest neighbours from the index; only those jobs are loaded
+        return atsScoringService.jobVector(targetJob)
+                .onErrorReturn(new float[0])
+                .publishOn(Schedulers.boundedElastic())
+                .map(targetVector -> {
+                    if (targetVector.length == 0) {
+                        return latestJobsExcept(jobId, limit);
+                    }
+                    List<Long> ids = jobVectorIndexService.search(targetVector, limit + 1).stream()
+                            .map(HnswIndex.SearchResult::getKey)
+                            .filter(id -> !id.equals(jobId))
+                            .limit(limit)
+                            .collect(Collectors.toList());
+                    Map<Long, Job> jobsById = jobRepository.findAllById(ids).stream()
+                            .collect(Collectors.toMap(Job::getId, job -> job));
+                    // Index order, skipping jobs unpublished since they were indexed
+                    return ids.stream()
+                            .map(jobsById::get)
+                            .filter(job -> job != null && Boolean.TRUE.equals(job.getIsPublished()))
+                            .collect(Collectors.toList());
+                });
+    }
 
-        return Mono.zip(similarityMonos, objects -> 
-                Arrays.stream(objects)
-                        .map(obj -> (JobSimilarity) obj)
-                        .sorted((a, b) -> Double.compare(b.getScore(), a.getScore()))
-                        .limit(limit)
-                        .map(JobSimilarity::getJob)
-                        .collect(Collectors.toList())
-        );
+    /**
+     * Newest published jobs other than {@code jobId}, when there are no vectors to compare
+     */
+    private List<Job> latestJobsExcept(Long jobId, int limit) {
+        return jobRepository.findByIsPublishedTrue(PageRequest.of(0, limit + 1, Sort.by("createdAt").descending()))
+                .stream()
+                .filter(job -> !job.getId().equals(jobId))
+                .limit(limit)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -228,6 +295,7 @@ public class JobMatchingService {
         private final Job job;
         private final double atsScore;
         private final List<String> matchingSkills;
+        // Status note when no score could be computed; explanations come from MatchExplanationService
         private final String explanation;
 
         public JobMatch(Job job, double atsScore, List<String> matchingSkills, String explanation) {
@@ -244,19 +312,6 @@ public class JobMatchingService {
         public String getExplanation() { return explanation; }
     }
 
-    private static class JobSimilarity {
-        private final Job job;
-        private final double score;
-
-        public JobSimilarity(Job job, double score) {
-            this.job = job;
-            this.score = score;
-        }
-
-        public Job getJob() { return job; }
-        public double getScore() { return score; }
-    }
-
     public static class JobAnalytics {
         private final Long jobId;
         private final int totalApplications;
@@ -0,0 +1,151 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.entity.Job;
+import com.aitrujobs.event.JobChangedEvent;
+import com.aitrujobs.repository.JobRepository;
+import com.aitrujobs.search.Analyzer;
+import com.aitrujobs.search.InvertedIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyword search over published jobs through an in-memory {@link InvertedIndex}. Title
+ * terms count three times and skills twice, so a job named for the keyword ranks above
+ * one that mentions it in passing. The last query word also matches as a prefix when it
+ * is not a term itself, so "dev" still finds "developer" while the user is typing.
+ * The index is built at startup and kept current from {@link JobChangedEvent}s.
+ *
+ * This ranks jobs against a query, while {@link JobLexicalIndexService} scores a resume
+ * against one job's whole text, so the two keep separate corpora and BM25 settings
+ * ({@code app.search.bm25.*} here, {@code app.matching.bm25.*} there).
+ */
+@Service
+@Slf4j
+public class JobSearchService {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int SKILLS_WEIGHT = 2;
+    private static final int MAX_PREFIX_TERMS = 32;
+
+    private final JobRepository jobRepository;
+    private final Analyzer analyzer = Analyzer.standard();
+    private final InvertedIndex index;
+    private final Timer searchTimer;
+
+    public JobSearchService(JobRepository jobRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.search.bm25.k1:1.2}") double k1,
+                            @Value("${app.search.bm25.b:0.75}") double b) {
+        this.jobRepository = jobRepository;
+        this.index = new InvertedIndex(k1, b);
+        this.searchTimer = Timer.builder("job.search")
+                .description("Keyword search over the job index, excluding loading the page of jobs")
+                .register(meterRegistry);
+        Gauge.builder("job.search.index.documents", index, InvertedIndex::size).register(meterRegistry);
+        Gauge.builder("job.search.index.terms", index, InvertedIndex::termCount).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, Map<String, Integer>> documents = new HashMap<>();
+        for (Job job : jobRepository.findByIsPublishedTrue()) {
+            documents.put(job.getId(), document(job));
+        }
+        index.replaceAll(documents);
+        log.info("Indexed {} published jobs ({} terms) for keyword search in {} ms",
+                index.size(), index.termCount(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onJobChanged(JobChangedEvent event) {
+        Job job = event.getJob();
+        if (job.getId() == null) {
+            return;
+        }
+        if (event.getType() != JobChangedEvent.Type.DELETED && Boolean.TRUE.equals(job.getIsPublished())) {
+            index.upsert(job.getId(), document(job));
+        } else {
+            index.remove(job.getId());
+        }
+    }
+
+    /**
+     * Published jobs matching any keyword term, most relevant first
+     */
+    public Page<Job> search(String keywords, Pageable pageable) {
+        long offset = pageable.getOffset();
+        InvertedIndex.Hits hits = rank(keywords, (int) Math.min(Integer.MAX_VALUE, offset + pageable.getPageSize()));
+        long[] ids = hits.getIds();
+        if (offset >= ids.length) {
+            return new PageImpl<>(List.of(), pageable, hits.getTotal());
+        }
+        List<Long> pageIds = new ArrayList<>();
+        for (int i = (int) offset; i < ids.length; i++) {
+            pageIds.add(ids[i]);
+        }
+        Map<Long, Job> jobs = jobRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Job::getId, Function.identity()));
+        List<Job> content = new ArrayList<>();
+        for (Long id : pageIds) {
+            Job job = jobs.get(id);
+            if (job != null) {
+                content.add(job);
+            }
+        }
+        return new PageImpl<>(content, pageable, hits.getTotal());
+    }
+
+    /**
+     * Ids of the {@code limit} most relevant published jobs, best first, and the match count
+     */
+    public InvertedIndex.Hits rank(String keywords, int limit) {
+        return searchTimer.record(() -> index.search(queryTerms(keywords), limit));
+    }
+
+    private Set<String> queryTerms(String keywords) {
+        List<String> terms = analyzer.analyze(keywords);
+        Set<String> query = new LinkedHashSet<>(terms);
+        if (!terms.isEmpty() && !keywords.endsWith(" ")) {
+            String last = terms.get(terms.size() - 1);
+            if (!index.containsTerm(last)) {
+                query.addAll(index.termsWithPrefix(last, MAX_PREFIX_TERMS));
+            }
+        }
+        return query;
+    }
+
+    private Map<String, Integer> document(Job job) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        add(frequencies, job.getTitle(), TITLE_WEIGHT);
+        add(frequencies, job.getSkills(), SKILLS_WEIGHT);
+        add(frequencies, job.getCompany(), 1);
+        add(frequencies, job.getDescription(), 1);
+        add(frequencies, job.getRequirements(), 1);
+        return frequencies;
+    }
+
+    private void add(Map<String, Integer> frequencies, String field, int weight) {
+        for (String term : analyzer.analyze(field)) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.entity.Job;
+import com.aitrujobs.entity.Skill;
+import com.aitrujobs.repository.JobRepository;
+import com.aitrujobs.repository.SkillRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps {@link Job#getCanonicalSkills()} in step with the free-form skills field. Each
+ * entry resolves through the {@link SkillService} taxonomy to its canonical name, so a
+ * skill row, the in-memory skill-id bitsets used for matching and the facet counts all
+ * agree on what "the same skill" is.
+ */
+@Service
+@Slf4j
+public class JobSkillService {
+
+    private final SkillService skillService;
+    private final SkillRepository skillRepository;
+    private final JobRepository jobRepository;
+
+    public JobSkillService(SkillService skillService, SkillRepository skillRepository, JobRepository jobRepository) {
+        this.skillService = skillService;
+        this.skillRepository = skillRepository;
+        this.jobRepository = jobRepository;
+    }
+
+    /**
+     * Register skills stored by earlier runs that are missing from the taxonomy. Skills
+     * added at runtime only live in the in-memory dictionary, so without this a filter on
+     * one would resolve to nothing until some job listing it is processed again. Runs
+     * before the other startup listeners, which resolve skills through the dictionary.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void loadStoredSkills() {
+        List<String> names = skillRepository.findAll().stream().map(Skill::getName).toList();
+        int added = skillService.addSkills(names);
+        if (added > 0) {
+            log.info("Registered {} stored skills missing from the taxonomy", added);
+        }
+    }
+
+    /**
+     * Link jobs saved before skills were normalized
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        List<Job> jobs = jobRepository.findWithUnlinkedSkills();
+        if (jobs.isEmpty()) {
+            return;
+        }
+        for (Job job : jobs) {
+            assignSkills(job);
+        }
+        jobRepository.saveAll(jobs);
+        log.info("Linked canonical skills for {} jobs", jobs.size());
+    }
+
+    /**
+     * Resolve the job's skills field and set its canonical skills, creating missing
+     * skill rows; call before saving the job
+     */
+    public void assignSkills(Job job) {
+        job.setCanonicalSkills(new HashSet<>(findOrCreate(canonicalNames(job.getSkills()))));
+    }
+
+    /**
+     * Database ids of the named skills (names or aliases), one per canonical skill.
+     * Unknown skills are left out, or with {@code requireAll} make the result empty,
+     * since no job can have a skill that does not exist.
+     */
+    public Set<Long> skillIds(Collection<String> names, boolean requireAll) {
+        Set<String> canonical = new LinkedHashSet<>();
+        for (String name : names) {
+            int id = skillService.skillId(name);
+            if (id >= 0) {
+                canonical.add(skillService.skillName(id));
+            } else if (requireAll) {
+                return Set.of();
+            }
+        }
+        Set<Long> ids = new HashSet<>();
+        if (!canonical.isEmpty()) {
+            for (Skill skill : skillRepository.findByNameIn(canonical)) {
+                ids.add(skill.getId());
+            }
+        }
+        return requireAll && ids.size() < canonical.size() ? Set.of() : ids;
+    }
+
+    /**
+     * Split a comma-separated skills parameter into trimmed, non-empty entries
+     */
+    public static List<String> parseList(String skills) {
+        if (skills == null || skills.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(skills.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private Set<String> canonicalNames(String skills) {
+        Set<String> names = new LinkedHashSet<>();
+        // Registers skills missing from the taxonomy, as matching does
+        for (int id : skillService.jobSkillIds(skills)) {
+            names.add(skillService.skillName(id));
+        }
+        return names;
+    }
+
+    /**
+     * Synchronized so two jobs adding the same new skill do not both insert it
+     */
+    private synchronized List<Skill> findOrCreate(Set<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Skill> existing = new HashMap<>();
+        for (Skill skill : skillRepository.findByNameIn(names)) {
+            existing.put(skill.getName(), skill);
+        }
+        List<Skill> skills = new ArrayList<>();
+        for (String name : names) {
+            Skill skill = existing.get(name);
+            skills.add(skill != null ? skill : skillRepository.save(new Skill(name)));
+        }
+        return skills;
+    }
+}
@@ -0,0 +1,109 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.entity.Job;
+import com.aitrujobs.event.JobChangedEvent;
+import com.aitrujobs.repository.JobRepository;
+import com.aitrujobs.search.SuggestionIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search-box autocomplete for job titles, skills and locations, ranked by how many
+ * published jobs carry each. Served entirely from a {@link SuggestionIndex}, so a
+ * keystroke never reaches the database; the index is built at startup and adjusted
+ * per job from {@link JobChangedEvent}s.
+ */
+@Service
+@Slf4j
+public class JobSuggestService {
+
+    public static final String TITLE = "title";
+    public static final String SKILL = "skill";
+    public static final String LOCATION = "location";
+
+    private final JobRepository jobRepository;
+    private final SuggestionIndex index = new SuggestionIndex();
+    /** Phrases each indexed job contributed, so an edit can take back the old ones */
+    private final Map<Long, List<Map.Entry<String, String>>> contributions = new HashMap<>();
+    private final Timer suggestTimer;
+
+    public JobSuggestService(JobRepository jobRepository, MeterRegistry meterRegistry) {
+        this.jobRepository = jobRepository;
+        this.suggestTimer = Timer.builder("job.suggest")
+                .description("Autocomplete lookups against the in-memory suggestion index")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("job.suggest.index.phrases", index, SuggestionIndex::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        contributions.clear();
+        List<Map.Entry<String, String>> phrases = new ArrayList<>();
+        for (Job job : jobRepository.findByIsPublishedTrue()) {
+            List<Map.Entry<String, String>> jobPhrases = phrases(job);
+            contributions.put(job.getId(), jobPhrases);
+            phrases.addAll(jobPhrases);
+        }
+        index.replaceAll(phrases);
+        log.info("Indexed {} suggestions from {} published jobs in {} ms",
+                index.size(), contributions.size(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public synchronized void onJobChanged(JobChangedEvent event) {
+        Job job = event.getJob();
+        if (job.getId() == null) {
+            return;
+        }
+        List<Map.Entry<String, String>> previous = contributions.remove(job.getId());
+        if (previous != null) {
+            for (Map.Entry<String, String> phrase : previous) {
+                index.remove(phrase.getKey(), phrase.getValue());
+            }
+        }
+        if (event.getType() != JobChangedEvent.Type.DELETED && Boolean.TRUE.equals(job.getIsPublished())) {
+            List<Map.Entry<String, String>> current = phrases(job);
+            for (Map.Entry<String, String> phrase : current) {
+                index.add(phrase.getKey(), phrase.getValue());
+            }
+            contributions.put(job.getId(), current);
+        }
+    }
+
+    /**
+     * Completions for what has been typed so far, most popular first
+     */
+    public List<SuggestionIndex.Suggestion> suggest(String query, int limit) {
+        return suggestTimer.record(() -> index.suggest(query, limit));
+    }
+
+    private static List<Map.Entry<String, String>> phrases(Job job) {
+        List<Map.Entry<String, String>> phrases = new ArrayList<>();
+        addIfPresent(phrases, TITLE, job.getTitle());
+        if (job.getSkills() != null) {
+            for (String skill : job.getSkills().split(",")) {
+                addIfPresent(phrases, SKILL, skill);
+            }
+        }
+        addIfPresent(phrases, LOCATION, job.getLocation());
+        return phrases;
+    }
+
+    private static void addIfPresent(List<Map.Entry<String, String>> phrases, String field, String text) {
+        if (text != null && !text.isBlank()) {
+            phrases.add(Map.entry(field, text.trim()));
+        }
+    }
+}
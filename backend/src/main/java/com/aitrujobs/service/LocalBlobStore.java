@@ -0,0 +1,120 @@
+package com.aitrujobs.service;
+
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Blobs as files under {@code app.upload.dir}, the key being the relative path. Only
+ * suitable for a single node, or for nodes sharing the directory.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalBlobStore(@Value("${app.upload.dir:uploads}") String uploadDir) {
+        this.root = Paths.get(uploadDir);
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = root.resolve(key);
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public BlobInfo stat(String key) throws IOException {
+        Path file = root.resolve(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return new BlobInfo(key, attributes.size(), attributes.lastModifiedTime().toInstant());
+    }
+
+    @Override
+    public void touch(String key) throws IOException {
+        Files.setLastModifiedTime(root.resolve(key), FileTime.from(Instant.now()));
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(root.resolve(key), StandardOpenOption.READ).position(offset);
+        return BoundedInputStream.builder()
+                .setInputStream(Channels.newInputStream(channel))
+                .setMaxCount(length)
+                .get();
+    }
+
+    @Override
+    public Optional<LocalCopy> cachedFile(String key) {
+        Path file = root.resolve(key);
+        return Files.isRegularFile(file) ? Optional.of(new LocalCopy(file, true, null)) : Optional.empty();
+    }
+
+    @Override
+    public LocalCopy localFile(String key) throws IOException {
+        return cachedFile(key).orElseThrow(() -> new NoSuchFileException(key));
+    }
+
+    @Override
+    public boolean move(String from, String to) throws IOException {
+        Path target = root.resolve(to);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(root.resolve(from), target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(root.resolve(key));
+    }
+
+    @Override
+    public List<BlobInfo> list(String directory) throws IOException {
+        Path start = root.resolve(directory);
+        if (!Files.isDirectory(start)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(start)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> {
+                        String key = root.relativize(file).toString().replace(File.separatorChar, '/');
+                        try {
+                            return stat(key);
+                        } catch (IOException e) {
+                            // Deleted while listing
+                            return null;
+                        }
+                    })
+                    .filter(info -> info != null)
+                    .toList();
+        }
+    }
+}
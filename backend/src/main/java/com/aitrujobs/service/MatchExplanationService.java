@@ -0,0 +1,88 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.entity.Job;
+import com.aitrujobs.entity.MatchExplanation;
+import com.aitrujobs.entity.Resume;
+import com.aitrujobs.repository.MatchExplanationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Natural-language explanation of a resume/job match, generated on request and
+ * stored by (resume text hash, job content hash, chat model). Each pair is sent to
+ * the chat model at most once; editing the resume or the job produces a new key.
+ */
+@Service
+@Slf4j
+public class MatchExplanationService {
+
+    private final MatchExplanationRepository repository;
+    private final OpenAIService openAIService;
+    private final AtsScoringService atsScoringService;
+
+    public MatchExplanationService(MatchExplanationRepository repository,
+                                   OpenAIService openAIService,
+                                   AtsScoringService atsScoringService) {
+        this.repository = repository;
+        this.openAIService = openAIService;
+        this.atsScoringService = atsScoringService;
+    }
+
+    /**
+     * Stored explanation for the pair, generating and storing it on first request.
+     * Completes empty when the resume has no extracted text.
+     */
+    public Mono<MatchExplanation> explain(Resume resume, Job job) {
+        String resumeText = resume.getExtractedText();
+        if (resumeText == null || resumeText.isBlank()) {
+            return Mono.empty();
+        }
+        String jobContent = AtsScoringService.jobContent(job);
+        String model = openAIService.getChatModel();
+        String resumeHash = InFlightRequests.hash(resumeText);
+        String jobHash = InFlightRequests.hash(jobContent);
+        String key = InFlightRequests.hash(resumeHash, jobHash, model);
+
+        return Mono.fromCallable(() -> repository.findById(key).orElse(null))
+                .subscribeOn(Schedulers.boundedElastic())
+                .switchIfEmpty(Mono.defer(() -> {
+                    if (!openAIService.isConfigured()) {
+                        // Not stored, so a real explanation is generated once AI is configured
+                        return Mono.just(new MatchExplanation(key, resumeHash, jobHash, model, null,
+                                "AI service not configured", null));
+                    }
+                    return atsScoringService.score(resume, job)
+                            .flatMap(score -> openAIService.generateChatCompletion(prompt(resumeText, jobContent, score))
+                                    .map(text -> new MatchExplanation(key, resumeHash, jobHash, model, score, text, null)))
+                            .publishOn(Schedulers.boundedElastic())
+                            .map(this::store)
+                            .doOnNext(saved -> log.debug("Stored match explanation for resume {} and job {}",
+                                    resume.getId(), job.getId()));
+                }));
+    }
+
+    private MatchExplanation store(MatchExplanation explanation) {
+        try {
+            return repository.save(explanation);
+        } catch (DataIntegrityViolationException e) {
+            // Another node stored the same pair first
+            return explanation;
+        }
+    }
+
+    private static String prompt(String resumeText, String jobContent, double score) {
+        return String.format(
+            "Explain why this resume matches this job with a score of %.1f/100. " +
+            "Provide specific reasons for the match/mismatch. " +
+            "Keep it concise (2-3 sentences). " +
+            "Resume: %s " +
+            "Job: %s",
+            score,
+            resumeText.length() > 1000 ? resumeText.substring(0, 1000) + "..." : resumeText,
+            jobContent.length() > 1000 ? jobContent.substring(0, 1000) + "..." : jobContent
+        );
+    }
+}
@@ -0,0 +1,275 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.exception.AiRateLimitException;
+import com.aitrujobs.exception.AiServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker for OpenAI calls over a sliding window of the last
+ * {@code window-size} outcomes.
+ *
+ * CLOSED: calls pass; once {@code minimum-calls} are recorded, the circuit opens
+ * when the failure rate or the slow-call rate reaches its threshold.
+ * OPEN: calls fail immediately with {@link AiServiceUnavailableException} for
+ * {@code open-duration-ms}. HALF_OPEN: up to {@code half-open-probes} calls go
+ * through; all succeeding (and fast) closes the circuit, any failure reopens it.
+ *
+ * Client errors other than 408/429 and local rejections (rate budget, bulkhead)
+ * say nothing about the endpoint's health and are not counted.
+ */
+@Component
+@Slf4j
+public class OpenAICircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+
+    /** Context key of the flag telling {@link #run} whether an attempt was measured */
+    private static final String MEASURED = OpenAICircuitBreaker.class.getName() + ".measured";
+
+    private final Counter rejected;
+    private final MeterRegistry meterRegistry;
+
+    // Ring buffer of outcomes: bit 0 = failed, bit 1 = slow
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private Instant openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    public OpenAICircuitBreaker(@Value("${openai.circuit.window-size:20}") int windowSize,
+                                @Value("${openai.circuit.minimum-calls:10}") int minimumCalls,
+                                @Value("${openai.circuit.failure-rate-threshold:50}") double failureRateThreshold,
+                                @Value("${openai.circuit.slow-call-rate-threshold:80}") double slowCallRateThreshold,
+                                @Value("${openai.circuit.slow-call-duration-ms:10000}") long slowCallMs,
+                                @Value("${openai.circuit.open-duration-ms:30000}") long openDurationMs,
+                                @Value("${openai.circuit.half-open-probes:3}") int halfOpenProbes,
+                                MeterRegistry meterRegistry) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.outcomes = new byte[this.windowSize];
+        this.meterRegistry = meterRegistry;
+        this.rejected = Counter.builder("openai.circuit.rejected")
+                .description("Calls failed fast because the circuit was open")
+                .register(meterRegistry);
+        Gauge.builder("openai.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fail fast while the circuit is open; otherwise run the call. Outcomes are recorded
+     * by {@link #measure} around each HTTP attempt inside the call, so time spent waiting
+     * for a bulkhead permit or rate budget, and between retries, is never counted as a
+     * slow upstream call.
+     */
+    public <T> Mono<T> run(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                rejected.increment();
+                return Mono.error(new AiServiceUnavailableException("AI service circuit is open"));
+            }
+            AtomicBoolean measured = new AtomicBoolean();
+            return Mono.defer(call)
+                    .doFinally(signal -> {
+                        // Rejected locally or cancelled before any attempt reached the endpoint
+                        if (!measured.get()) {
+                            onIgnored();
+                        }
+                    })
+                    .contextWrite(context -> context.put(MEASURED, measured));
+        });
+    }
+
+    /**
+     * Record the outcome and duration of one attempt against the endpoint. Apply it to
+     * the single HTTP exchange (with its timeout), inside any queueing and retries.
+     */
+    public <T> Mono<T> measure(Mono<T> attempt) {
+        return Mono.deferContextual(context -> {
+            AtomicBoolean measured = context.getOrDefault(MEASURED, new AtomicBoolean());
+            long start = System.nanoTime();
+            return attempt
+                    .doOnSuccess(value -> {
+                        measured.set(true);
+                        onResult(false, System.nanoTime() - start);
+                    })
+                    .doOnError(error -> {
+                        if (!isIgnored(error)) {
+                            measured.set(true);
+                            onResult(isFailure(error), System.nanoTime() - start);
+                        }
+                    });
+        });
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openDurationNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public boolean isOpen() {
+        return getState() == State.OPEN;
+    }
+
+    /**
+     * Current state and window statistics, for the actuator endpoint
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        State current = getState();
+        snapshot.put("state", current);
+        snapshot.put("bufferedCalls", recorded);
+        snapshot.put("failureRate", recorded == 0 ? 0.0 : failures * 100.0 / recorded);
+        snapshot.put("slowCallRate", recorded == 0 ? 0.0 : slowCalls * 100.0 / recorded);
+        snapshot.put("failureRateThreshold", failureRateThreshold);
+        snapshot.put("slowCallRateThreshold", slowCallRateThreshold);
+        snapshot.put("slowCallDurationMs", TimeUnit.NANOSECONDS.toMillis(slowCallNanos));
+        if (openedAt != null && current != State.CLOSED) {
+            snapshot.put("openedAt", openedAt.toString());
+            long remaining = openDurationNanos - (System.nanoTime() - openedAtNanos);
+            snapshot.put("remainingOpenMs", Math.max(0, TimeUnit.NANOSECONDS.toMillis(remaining)));
+        }
+        if (current == State.HALF_OPEN) {
+            snapshot.put("probesStarted", probesStarted);
+            snapshot.put("probesSucceeded", probesSucceeded);
+        }
+        snapshot.put("rejectedCalls", rejected.count());
+        return snapshot;
+    }
+
+    private synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAtNanos < openDurationNanos) {
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+                // fall through to take the first probe
+            default:
+                if (probesStarted >= halfOpenProbes) {
+                    return false;
+                }
+                probesStarted++;
+                return true;
+        }
+    }
+
+    private synchronized void onResult(boolean failed, long durationNanos) {
+        boolean slow = durationNanos >= slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                transitionTo(State.OPEN);
+            } else if (++probesSucceeded >= halfOpenProbes) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // Late result of a call admitted before the circuit opened
+            return;
+        }
+        record((byte) ((failed ? 1 : 0) | (slow ? 2 : 0)));
+        if (recorded >= minimumCalls
+                && (failures * 100.0 / recorded >= failureRateThreshold
+                || slowCalls * 100.0 / recorded >= slowCallRateThreshold)) {
+            log.warn("Opening AI circuit: failure rate {}%, slow-call rate {}% over {} calls",
+                    Math.round(failures * 100.0 / recorded), Math.round(slowCalls * 100.0 / recorded), recorded);
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /** A probe that ended without any measured attempt frees its slot for another probe */
+    private synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+            probesStarted--;
+        }
+    }
+
+    private void record(byte outcome) {
+        if (recorded == windowSize) {
+            byte evicted = outcomes[next];
+            failures -= evicted & 1;
+            slowCalls -= (evicted >> 1) & 1;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = outcome;
+        failures += outcome & 1;
+        slowCalls += (outcome >> 1) & 1;
+        next = (next + 1) % windowSize;
+    }
+
+    private void transitionTo(State target) {
+        if (state == target) {
+            return;
+        }
+        log.info("AI circuit {} -> {}", state, target);
+        state = target;
+        probesStarted = 0;
+        probesSucceeded = 0;
+        if (target == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+            openedAt = Instant.now();
+        } else if (target == State.CLOSED) {
+            next = 0;
+            recorded = 0;
+            failures = 0;
+            slowCalls = 0;
+            openedAt = null;
+        }
+        Counter.builder("openai.circuit.transitions")
+                .tag("to", target.name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static boolean isIgnored(Throwable error) {
+        return error instanceof AiRateLimitException || error instanceof RejectedExecutionException;
+    }
+
+    private static boolean isFailure(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status >= 500 || status == 408 || status == 429;
+        }
+        return true;
+    }
+}
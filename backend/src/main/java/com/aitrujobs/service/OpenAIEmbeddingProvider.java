@@ -0,0 +1,34 @@
+package com.aitrujobs.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Embeddings from the OpenAI embeddings endpoint (cached, batched and rate limited by {@link OpenAIService})
+ */
+@Service
+@ConditionalOnProperty(name = "app.embedding.provider", havingValue = "openai", matchIfMissing = true)
+public class OpenAIEmbeddingProvider implements EmbeddingProvider {
+
+    private final OpenAIService openAIService;
+
+    public OpenAIEmbeddingProvider(OpenAIService openAIService) {
+        this.openAIService = openAIService;
+    }
+
+    @Override
+    public String getModelId() {
+        return "openai/" + openAIService.getEmbeddingModel();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return openAIService.isConfigured() && !openAIService.isCircuitOpen();
+    }
+
+    @Override
+    public Mono<float[]> embed(String text) {
+        return openAIService.generateEmbedding(text);
+    }
+}
@@ -0,0 +1,308 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.exception.AiRateLimitException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Client-side rate control for the OpenAI API.
+ *
+ * Two token buckets, one in requests per minute and one in tokens per minute, gate
+ * every call; a caller that would wait longer than {@code max-wait-ms} is rejected
+ * instead of queued. The buckets follow the server: limits are taken from the
+ * x-ratelimit-limit-* headers, levels are clamped to x-ratelimit-remaining-*, and
+ * sending stops until the reset time when a quota is exhausted. A 429 halves the
+ * send rate, which then recovers by 5% of the limit per successful call.
+ *
+ * Throttled, 5xx, timed-out and connection-failed calls are retried with jittered
+ * exponential backoff, or after Retry-After when the server sends one.
+ */
+@Component
+@Slf4j
+public class OpenAIRateLimiter {
+
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|s|m|h)");
+    private static final double MIN_RATE_FACTOR = 0.1;
+    private static final double RECOVERY_STEP = 0.05;
+
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+    private final long maxWaitNanos;
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final Duration requestTimeout;
+
+    private final Timer waitTimer;
+    private final Counter rejected;
+    private final MeterRegistry meterRegistry;
+
+    /** System.nanoTime() before which no call is sent; nanoTime has an arbitrary origin, so never 0 */
+    private long blockedUntil = System.nanoTime();
+    private double rateFactor = 1.0;
+
+    public OpenAIRateLimiter(@Value("${openai.ratelimit.requests-per-minute:3000}") double requestsPerMinute,
+                             @Value("${openai.ratelimit.tokens-per-minute:1000000}") double tokensPerMinute,
+                             @Value("${openai.ratelimit.max-wait-ms:30000}") long maxWaitMs,
+                             @Value("${openai.retry.max-attempts:4}") int maxAttempts,
+                             @Value("${openai.retry.base-delay-ms:500}") long baseDelayMs,
+                             @Value("${openai.retry.max-delay-ms:20000}") long maxDelayMs,
+                             @Value("${openai.request.timeout-ms:30000}") long requestTimeoutMs,
+                             MeterRegistry meterRegistry) {
+        this.requestBucket = new TokenBucket(requestsPerMinute);
+        this.tokenBucket = new TokenBucket(tokensPerMinute);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelay = Duration.ofMillis(baseDelayMs);
+        this.maxDelay = Duration.ofMillis(maxDelayMs);
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.meterRegistry = meterRegistry;
+        this.waitTimer = Timer.builder("openai.ratelimit.wait")
+                .description("Time calls waited for request/token budget")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("openai.ratelimit.rejected")
+                .description("Calls rejected because the budget wait exceeded max-wait-ms")
+                .register(meterRegistry);
+        Gauge.builder("openai.ratelimit.rate.factor", this, limiter -> limiter.currentRateFactor())
+                .description("Fraction of the request/token limits currently used as send rate")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a call estimated at {@code tokens} tokens under the rate limits, retrying
+     * transient failures. Each attempt takes its own budget.
+     */
+    public <T> Mono<T> execute(int tokens, Supplier<Mono<ResponseEntity<T>>> call) {
+        return execute(tokens, call, UnaryOperator.identity());
+    }
+
+    /**
+     * As {@link #execute(int, Supplier)}, with {@code eachAttempt} applied to every single
+     * attempt (the HTTP exchange and its timeout), after the budget wait
+     */
+    public <T> Mono<T> execute(int tokens, Supplier<Mono<ResponseEntity<T>>> call,
+                               UnaryOperator<Mono<ResponseEntity<T>>> eachAttempt) {
+        return Mono.defer(() -> acquire(tokens).then(eachAttempt.apply(Mono.defer(call).timeout(requestTimeout))))
+                .doOnNext(response -> onResponse(response.getHeaders()))
+                .doOnError(WebClientResponseException.class, this::onErrorResponse)
+                .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                    Throwable error = signal.failure();
+                    long attempt = signal.totalRetries() + 1;
+                    if (attempt >= maxAttempts || !isRetryable(error)) {
+                        return Mono.error(error);
+                    }
+                    Duration delay = retryDelay(error, attempt);
+                    retryCounter(error).increment();
+                    log.debug("Retrying OpenAI call in {} ms after {} (attempt {})", delay.toMillis(), error.toString(), attempt);
+                    return Mono.delay(delay);
+                })))
+                .map(ResponseEntity::getBody);
+    }
+
+    /**
+     * Reserve one request and {@code tokens} tokens, completing once both are available
+     */
+    Mono<Void> acquire(int tokens) {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            double tokenCost = Math.min(tokens, tokenBucket.limit);
+            long requestWait = requestBucket.reserve(1, now, rateFactor);
+            long tokenWait = tokenBucket.reserve(tokenCost, now, rateFactor);
+            waitNanos = Math.max(Math.max(requestWait, tokenWait), blockedUntil - now);
+            if (waitNanos > maxWaitNanos) {
+                requestBucket.refund(1);
+                tokenBucket.refund(tokenCost);
+                rejected.increment();
+                return Mono.error(new AiRateLimitException(
+                        "OpenAI rate limit budget exhausted; wait would be " + TimeUnit.NANOSECONDS.toMillis(waitNanos) + " ms"));
+            }
+        }
+        waitTimer.record(Math.max(waitNanos, 0), TimeUnit.NANOSECONDS);
+        return waitNanos <= 0 ? Mono.empty() : Mono.delay(Duration.ofNanos(waitNanos)).then();
+    }
+
+    /**
+     * Align the buckets with the server's view of the quota
+     */
+    synchronized void onResponse(HttpHeaders headers) {
+        long now = System.nanoTime();
+        syncBucket(requestBucket, headers, "requests", now);
+        syncBucket(tokenBucket, headers, "tokens", now);
+        rateFactor = Math.min(1.0, rateFactor + RECOVERY_STEP);
+    }
+
+    private void onErrorResponse(WebClientResponseException error) {
+        if (error.getStatusCode().value() != 429) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            syncBucket(requestBucket, error.getHeaders(), "requests", now);
+            syncBucket(tokenBucket, error.getHeaders(), "tokens", now);
+            rateFactor = Math.max(MIN_RATE_FACTOR, rateFactor / 2);
+            Duration retryAfter = retryAfter(error.getHeaders());
+            if (retryAfter != null) {
+                blockedUntil = Math.max(blockedUntil, now + retryAfter.toNanos());
+            }
+        }
+        log.warn("OpenAI rate limited the client; send rate reduced to {}% of the limit", Math.round(currentRateFactor() * 100));
+    }
+
+    /** Caller must hold the lock */
+    private void syncBucket(TokenBucket bucket, HttpHeaders headers, String kind, long now) {
+        Double limit = parseNumber(headers.getFirst("x-ratelimit-limit-" + kind));
+        if (limit != null && limit > 0) {
+            bucket.limit = limit;
+        }
+        Double remaining = parseNumber(headers.getFirst("x-ratelimit-remaining-" + kind));
+        if (remaining != null) {
+            bucket.clampTo(remaining, now, rateFactor);
+            Duration reset = parseDuration(headers.getFirst("x-ratelimit-reset-" + kind));
+            if (remaining < 1 && reset != null) {
+                blockedUntil = Math.max(blockedUntil, now + reset.toNanos());
+            }
+        }
+    }
+
+    private synchronized double currentRateFactor() {
+        return rateFactor;
+    }
+
+    private Duration retryDelay(Throwable error, long attempt) {
+        if (error instanceof WebClientResponseException response) {
+            Duration retryAfter = retryAfter(response.getHeaders());
+            if (retryAfter != null) {
+                return retryAfter.compareTo(maxDelay) > 0 ? maxDelay : retryAfter;
+            }
+        }
+        // Equal jitter: half the exponential step plus a random share of the other half
+        long exponential = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << Math.min(attempt - 1, 20));
+        long half = exponential / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private Counter retryCounter(Throwable error) {
+        String reason = error instanceof WebClientResponseException response
+                ? String.valueOf(response.getStatusCode().value())
+                : error instanceof TimeoutException ? "timeout" : "connection";
+        return Counter.builder("openai.retries")
+                .description("OpenAI calls retried after a transient failure")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == 429 || status == 500 || status == 502 || status == 503 || status == 504;
+        }
+        return error instanceof TimeoutException || error instanceof WebClientRequestException;
+    }
+
+    /**
+     * Retry-After (seconds) or retry-after-ms, whichever the server sent
+     */
+    static Duration retryAfter(HttpHeaders headers) {
+        Double millis = parseNumber(headers.getFirst("retry-after-ms"));
+        if (millis != null) {
+            return Duration.ofMillis(millis.longValue());
+        }
+        Double seconds = parseNumber(headers.getFirst(HttpHeaders.RETRY_AFTER));
+        return seconds != null ? Duration.ofMillis((long) (seconds * 1000)) : null;
+    }
+
+    /**
+     * Parse reset durations in the header format, e.g. "20ms", "1s", "6m0s", "1h2m3.5s"
+     */
+    static Duration parseDuration(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        Matcher matcher = DURATION_PART.matcher(value.trim());
+        double millis = 0;
+        boolean matched = false;
+        while (matcher.find()) {
+            matched = true;
+            double amount = Double.parseDouble(matcher.group(1));
+            switch (matcher.group(2)) {
+                case "ms" -> millis += amount;
+                case "s" -> millis += amount * 1000;
+                case "m" -> millis += amount * 60_000;
+                default -> millis += amount * 3_600_000;
+            }
+        }
+        return matched ? Duration.ofMillis((long) millis) : null;
+    }
+
+    private static Double parseNumber(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Per-minute bucket refilled continuously at {@code limit * rateFactor} per minute.
+     * The level may go negative: that is the debt later reservations wait behind.
+     */
+    private static final class TokenBucket {
+        double limit;
+        double level;
+        long lastRefill = System.nanoTime();
+
+        TokenBucket(double limit) {
+            this.limit = limit;
+            this.level = limit;
+        }
+
+        /** Take {@code amount} and return the nanos until the bucket is back at zero */
+        long reserve(double amount, long now, double rateFactor) {
+            refill(now, rateFactor);
+            level -= amount;
+            return level >= 0 ? 0 : (long) (-level / perNano(rateFactor));
+        }
+
+        void refund(double amount) {
+            level = Math.min(limit, level + amount);
+        }
+
+        void clampTo(double remaining, long now, double rateFactor) {
+            refill(now, rateFactor);
+            level = Math.min(level, remaining);
+        }
+
+        private void refill(long now, double rateFactor) {
+            level = Math.min(limit, level + (now - lastRefill) * perNano(rateFactor));
+            lastRefill = now;
+        }
+
+        private double perNano(double rateFactor) {
+            return limit * rateFactor / TimeUnit.MINUTES.toNanos(1);
+        }
+    }
+}
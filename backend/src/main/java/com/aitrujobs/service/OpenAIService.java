@@ -1,26 +1,60 @@
 package com.aitrujobs.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 public class OpenAIService {
     
+    private static final String CHAT_MODEL = "gpt-3.5-turbo";
+    private static final int CHAT_MAX_TOKENS = 500;
+    
     private final WebClient webClient;
+    private final EmbeddingCacheService embeddingCache;
+    private final String embeddingModel;
+    private final EmbeddingBatcher embeddingBatcher;
+    private final InFlightRequests inFlightRequests;
+    private final OpenAIRateLimiter rateLimiter;
+    private final OpenAICircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
     
     @Value("${openai.api.key}")
     private String apiKey;
     
-    public OpenAIService(@Value("${openai.api.url}") String apiUrl) {
+    public OpenAIService(@Value("${openai.api.url}") String apiUrl,
+                         @Value("${openai.embedding.model:text-embedding-ada-002}") String embeddingModel,
+                         @Value("${openai.embedding.batch.max-size:64}") int batchMaxSize,
+                         @Value("${openai.embedding.batch.max-tokens:50000}") int batchMaxTokens,
+                         @Value("${openai.embedding.batch.max-wait-ms:5}") long batchMaxWaitMs,
+                         @Value("${openai.bulkhead.max-concurrent:16}") int bulkheadMaxConcurrent,
+                         @Value("${openai.bulkhead.max-queued:200}") int bulkheadMaxQueued,
+                         EmbeddingCacheService embeddingCache,
+                         OpenAIRateLimiter rateLimiter,
+                         OpenAICircuitBreaker circuitBreaker,
+                         MeterRegistry meterRegistry) {
+        this.embeddingCache = embeddingCache;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = new Bulkhead("openai", bulkheadMaxConcurrent, bulkheadMaxQueued, meterRegistry);
+        this.embeddingModel = embeddingModel;
+        this.embeddingBatcher = new EmbeddingBatcher(this::requestEmbeddings,
+                batchMaxSize, batchMaxTokens, Duration.ofMillis(batchMaxWaitMs), meterRegistry);
+        this.inFlightRequests = new InFlightRequests(meterRegistry);
         this.webClient = WebClient.builder()
                 .baseUrl(apiUrl)
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
@@ -32,30 +66,65 @@ public class OpenAIService {
     }
     
     /**
-     * Generate embeddings for text using OpenAI's text-embedding-ada-002 model
+     * True while the circuit breaker is failing AI calls fast
      */
-    public Mono<List<Double>> generateEmbedding(String text) {
+    public boolean isCircuitOpen() {
+        return circuitBreaker.isOpen();
+    }
+    
+    /**
+     * Generate embeddings for text using the configured OpenAI embedding model.
+     * Results are cached by content hash so identical text is only embedded once;
+     * cache misses from concurrent callers are batched into one request, and
+     * concurrent calls for the same text share a single lookup/request.
+     */
+    public Mono<float[]> generateEmbedding(String text) {
         if (!isConfigured()) {
             log.warn("OpenAI API key not configured; returning empty embedding");
-            return Mono.just(List.of());
+            return Mono.just(new float[0]);
         }
+        String cacheKey = embeddingCache.key(text, embeddingModel);
+        return inFlightRequests.join("embedding", cacheKey, () -> embeddingCache.lookup(cacheKey)
+                .switchIfEmpty(Mono.defer(() -> embeddingBatcher.submit(text)
+                        .doOnNext(vector -> embeddingCache.store(cacheKey, embeddingModel, vector)))));
+    }
+    
+    public String getEmbeddingModel() {
+        return embeddingModel;
+    }
+    
+    public String getChatModel() {
+        return CHAT_MODEL;
+    }
+    
+    /**
+     * One /embeddings request for several inputs; vectors come back in input order
+     */
+    private Mono<List<float[]>> requestEmbeddings(List<String> texts) {
         Map<String, Object> request = Map.of(
-                "model", "text-embedding-ada-002",
-                "input", text
+                "model", embeddingModel,
+                "input", texts
         );
         
-        return webClient.post()
-                .uri("/embeddings")
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(Map.class)
+        int tokens = texts.stream().mapToInt(EmbeddingBatcher::estimateTokens).sum();
+        
+        return callApi(tokens, () -> webClient.post()
+                        .uri("/embeddings")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                        .bodyValue(request)
+                        .retrieve()
+                        .toEntity(Map.class))
                 .map(response -> {
                     @SuppressWarnings("unchecked")
-                    List<Map<String, Object>> data = (List<Map<String, Object>>) response.get("data");
-                    @SuppressWarnings("unchecked")
-                    List<Double> embedding = (List<Double>) data.get(0).get("embedding");
-                    return embedding;
+                    List<Map<String, Object>> data = new ArrayList<>((List<Map<String, Object>>) response.get("data"));
+                    data.sort(Comparator.comparingInt(item -> item.get("index") instanceof Number index ? index.intValue() : 0));
+                    List<float[]> vectors = new ArrayList<>(data.size());
+                    for (Map<String, Object> item : data) {
+                        @SuppressWarnings("unchecked")
+                        List<Number> embedding = (List<Number>) item.get("embedding");
+                        vectors.add(toFloatArray(embedding));
+                    }
+                    return vectors;
                 })
                 .doOnError(error -> log.error("Error generating embedding: ", error));
     }
@@ -107,45 +176,36 @@ public class OpenAIService {
     }
     
     /**
-     * Calculate ATS score based on resume and job description similarity
-     */
-    public Mono<Double> calculateATSScore(String resumeText, String jobDescription) {
-        return Mono.zip(
-                generateEmbedding(resumeText),
-                generateEmbedding(jobDescription)
-        ).map(tuple -> {
-            List<Double> resumeEmbedding = tuple.getT1();
-            List<Double> jobEmbedding = tuple.getT2();
-            
-            double similarity = calculateCosineSimilarity(resumeEmbedding, jobEmbedding);
-            // Convert to 0-100 scale
-            return Math.max(0, Math.min(100, similarity * 100));
-        });
-    }
-    
-    /**
-     * Generic chat completion method
+     * Generic chat completion method. Concurrent calls with the same prompt share one request.
      */
     public Mono<String> generateChatCompletion(String prompt) {
         if (!isConfigured()) {
             log.warn("OpenAI API key not configured; returning placeholder chat response");
             return Mono.just("[AI disabled in dev]");
         }
+        return inFlightRequests.join("chat", InFlightRequests.hash(CHAT_MODEL, prompt),
+                () -> requestChatCompletion(prompt));
+    }
+    
+    private Mono<String> requestChatCompletion(String prompt) {
         Map<String, Object> request = Map.of(
-                "model", "gpt-3.5-turbo",
+                "model", CHAT_MODEL,
                 "messages", List.of(
                         Map.of("role", "user", "content", prompt)
                 ),
-                "max_tokens", 500,
+                "max_tokens", CHAT_MAX_TOKENS,
                 "temperature", 0.7
         );
         
-        return webClient.post()
-                .uri("/chat/completions")
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(Map.class)
+        // Budget for the prompt plus the longest completion we allow
+        int tokens = EmbeddingBatcher.estimateTokens(prompt) + CHAT_MAX_TOKENS;
+        
+        return callApi(tokens, () -> webClient.post()
+                        .uri("/chat/completions")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                        .bodyValue(request)
+                        .retrieve()
+                        .toEntity(Map.class))
                 .map(response -> {
                     @SuppressWarnings("unchecked")
                     List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
@@ -157,23 +217,20 @@ public class OpenAIService {
     }
     
     /**
-     * Calculate cosine similarity between two embedding vectors
+     * Send a request through the circuit breaker, the concurrency bulkhead and the rate limiter,
+     * in that order, so an open circuit fails fast without waiting for a permit or budget.
+     * The breaker measures each HTTP attempt only, not the queueing, budget waits or retries.
      */
-    public double calculateCosineSimilarity(List<Double> vectorA, List<Double> vectorB) {
-        if (vectorA.size() != vectorB.size()) {
-            throw new IllegalArgumentException("Vectors must have the same dimension");
-        }
-        
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-        
-        for (int i = 0; i < vectorA.size(); i++) {
-            dotProduct += vectorA.get(i) * vectorB.get(i);
-            normA += Math.pow(vectorA.get(i), 2);
-            normB += Math.pow(vectorB.get(i), 2);
+    private <T> Mono<T> callApi(int tokens, Supplier<Mono<ResponseEntity<T>>> request) {
+        return circuitBreaker.run(() -> bulkhead.run(() ->
+                rateLimiter.execute(tokens, request, circuitBreaker::measure)));
+    }
+    
+    private static float[] toFloatArray(List<Number> values) {
+        float[] vector = new float[values.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = values.get(i).floatValue();
         }
-        
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+        return vector;
     }
 }
@@ -0,0 +1,69 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.repository.ResumeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reference counting for stored resume files. A file's references are the resumes whose
+ * {@code filePath} points at it; when the last one is deleted the file goes with it, and
+ * a periodic sweep removes any file no resume references (files left by an in-memory
+ * database, failed requests, or older uploads). Files touched within the grace period are
+ * kept so an upload that is reusing one is never raced.
+ */
+@Service
+@Slf4j
+public class OrphanFileSweeper {
+
+    private static final String RESUMES = "resumes";
+
+    private final FileUploadService fileUploadService;
+    private final ResumeRepository resumeRepository;
+    private final long graceMs;
+
+    public OrphanFileSweeper(FileUploadService fileUploadService,
+                             ResumeRepository resumeRepository,
+                             @Value("${app.upload.sweep.grace-ms:600000}") long graceMs) {
+        this.fileUploadService = fileUploadService;
+        this.resumeRepository = resumeRepository;
+        this.graceMs = graceMs;
+    }
+
+    /**
+     * Drop one reference to the file: delete it now if no resume uses it any more
+     */
+    public void release(String filePath) {
+        if (filePath != null && fileUploadService.deleteUnreferenced(filePath, cutoff(), resumeRepository::existsByFilePath)) {
+            log.debug("Deleted unreferenced file {}", filePath);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.upload.sweep.initial-delay-ms:60000}",
+               fixedDelayString = "${app.upload.sweep.interval-ms:3600000}")
+    public void sweep() {
+        Instant cutoff = cutoff();
+        Set<String> referenced = new HashSet<>(resumeRepository.findAllFilePaths());
+        int deleted = 0;
+        for (String filePath : fileUploadService.listFiles(RESUMES)) {
+            if (!referenced.contains(filePath)
+                    && fileUploadService.deleteUnreferenced(filePath, cutoff, resumeRepository::existsByFilePath)) {
+                deleted++;
+            }
+        }
+        deleted += fileUploadService.sweepTrash(cutoff, resumeRepository::existsByFilePath);
+        deleted += fileUploadService.deleteStaleStagingFiles(cutoff);
+        if (deleted > 0) {
+            log.info("Removed {} orphaned upload files", deleted);
+        }
+    }
+
+    private Instant cutoff() {
+        return Instant.now().minusMillis(graceMs);
+    }
+}
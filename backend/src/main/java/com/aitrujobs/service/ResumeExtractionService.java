@@ -0,0 +1,138 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.entity.Resume;
+import com.aitrujobs.repository.ResumeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Background stage that turns an uploaded resume file into {@code extractedText}.
+ * Runs on a bounded worker pool with a bounded queue; the resume moves from PENDING to
+ * EXTRACTED or FAILED, and a successful extraction immediately warms the skill and term
+ * caches and embeds the text. Resumes still PENDING at startup are queued again.
+ */
+@Service
+@Slf4j
+public class ResumeExtractionService {
+
+    private final ResumeRepository resumeRepository;
+    private final ResumeTextExtractor extractor;
+    private final FileUploadService fileUploadService;
+    private final AtsScoringService atsScoringService;
+    private final SkillService skillService;
+    private final JobLexicalIndexService jobLexicalIndexService;
+    private final MeterRegistry meterRegistry;
+    private final Scheduler workers;
+
+    public ResumeExtractionService(ResumeRepository resumeRepository,
+                                   ResumeTextExtractor extractor,
+                                   FileUploadService fileUploadService,
+                                   AtsScoringService atsScoringService,
+                                   SkillService skillService,
+                                   JobLexicalIndexService jobLexicalIndexService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.resume.extraction.workers:2}") int workers,
+                                   @Value("${app.resume.extraction.max-queued:100}") int maxQueued) {
+        this.resumeRepository = resumeRepository;
+        this.extractor = extractor;
+        this.fileUploadService = fileUploadService;
+        this.atsScoringService = atsScoringService;
+        this.skillService = skillService;
+        this.jobLexicalIndexService = jobLexicalIndexService;
+        this.meterRegistry = meterRegistry;
+        this.workers = Schedulers.newBoundedElastic(Math.max(1, workers), Math.max(1, maxQueued), "resume-extraction");
+    }
+
+    /**
+     * Queue the resume for extraction and return at once
+     */
+    public void submit(Resume resume) {
+        if (resume.getId() == null) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Mono.fromCallable(() -> {
+                    try (BlobStore.LocalCopy copy = fileUploadService.locate(resume.getFilePath())) {
+                        return extractor.extract(copy.getPath(), resume.getFileType());
+                    }
+                })
+                .subscribeOn(workers)
+                .subscribe(
+                        text -> {
+                            sample.stop(timer("extracted"));
+                            completed(resume, text);
+                        },
+                        error -> {
+                            sample.stop(timer(error instanceof RejectedExecutionException ? "rejected" : "failed"));
+                            failed(resume, error);
+                        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePending() {
+        // Rows from before the column existed have no status and would never be queued
+        int backfilled = resumeRepository.backfillExtractionStatus(
+                Resume.ExtractionStatus.PENDING, Resume.ExtractionStatus.EXTRACTED);
+        if (backfilled > 0) {
+            log.info("Set the extraction status of {} resumes saved before it was tracked", backfilled);
+        }
+        List<Resume> pending = resumeRepository.findByExtractionStatus(Resume.ExtractionStatus.PENDING);
+        if (!pending.isEmpty()) {
+            log.info("Queueing text extraction for {} pending resumes", pending.size());
+            pending.forEach(this::submit);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.dispose();
+    }
+
+    private void completed(Resume resume, String text) {
+        if (text.isBlank()) {
+            failed(resume, new IllegalStateException("No text found in the file"));
+            return;
+        }
+        resumeRepository.updateExtraction(resume.getId(), text, Resume.ExtractionStatus.EXTRACTED, null);
+        resume.setExtractedText(text);
+        resume.setExtractionStatus(Resume.ExtractionStatus.EXTRACTED);
+        resume.setExtractionError(null);
+        log.info("Extracted {} characters from resume {}", text.length(), resume.getId());
+
+        skillService.skillsIn(text);
+        jobLexicalIndexService.terms(text);
+        atsScoringService.embedResumeAsync(resume);
+    }
+
+    private void failed(Resume resume, Throwable error) {
+        String message = error instanceof RejectedExecutionException
+                ? "Extraction queue is full; please re-upload the resume"
+                : error.getMessage();
+        if (message != null && message.length() > 500) {
+            message = message.substring(0, 500);
+        }
+        log.warn("Text extraction failed for resume {}: {}", resume.getId(), error.toString());
+        resumeRepository.updateExtraction(resume.getId(), null, Resume.ExtractionStatus.FAILED, message);
+        resume.setExtractionStatus(Resume.ExtractionStatus.FAILED);
+        resume.setExtractionError(message);
+    }
+
+    private Timer timer(String result) {
+        return Timer.builder("resume.extraction")
+                .description("Time from queueing a resume to its extraction result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
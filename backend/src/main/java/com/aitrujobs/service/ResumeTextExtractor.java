@@ -0,0 +1,203 @@
+package com.aitrujobs.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.poi.hwpf.extractor.WordExtractor;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Plain text from uploaded resumes, capped at {@code app.resume.extraction.max-chars}.
+ *
+ * PDFs are opened from the file with a temp-file stream cache and stripped page by page;
+ * .docx is read as a stream of word/document.xml events straight from the zip. Neither
+ * builds the whole document in memory, and both stop once the cap is reached. Legacy
+ * .doc goes through POI's WordExtractor, which reads the (small, binary) file whole.
+ */
+@Component
+public class ResumeTextExtractor {
+
+    private static final String WORD_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    private final int maxChars;
+    private final XMLInputFactory xmlInputFactory;
+
+    public ResumeTextExtractor(@Value("${app.resume.extraction.max-chars:100000}") int maxChars) {
+        this.maxChars = maxChars;
+        this.xmlInputFactory = XMLInputFactory.newFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Normalized text of the file; the type comes from the extension, then the content type
+     */
+    public String extract(Path file, String contentType) throws IOException {
+        BoundedWriter text = new BoundedWriter(maxChars);
+        switch (typeOf(file, contentType)) {
+            case "pdf" -> extractPdf(file, text);
+            case "docx" -> extractDocx(file, text);
+            case "doc" -> extractDoc(file, text);
+            default -> throw new IOException("Unsupported resume file type: " + file.getFileName());
+        }
+        return normalize(text.toString());
+    }
+
+    private void extractPdf(Path file, BoundedWriter text) throws IOException {
+        try (PDDocument document = Loader.loadPDF(file.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setSortByPosition(true);
+            for (int page = 1; page <= document.getNumberOfPages() && !text.isFull(); page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                stripper.writeText(document, text);
+            }
+        }
+    }
+
+    private void extractDocx(Path file, BoundedWriter text) throws IOException {
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            ZipEntry entry = zip.getEntry("word/document.xml");
+            if (entry == null) {
+                throw new IOException("Not a Word document: word/document.xml missing");
+            }
+            try (InputStream in = zip.getInputStream(entry)) {
+                XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+                try {
+                    boolean inText = false;
+                    while (reader.hasNext() && !text.isFull()) {
+                        int event = reader.next();
+                        if (event == XMLStreamConstants.START_ELEMENT && WORD_NS.equals(reader.getNamespaceURI())) {
+                            switch (reader.getLocalName()) {
+                                case "t" -> inText = true;
+                                case "tab" -> text.write('\t');
+                                case "br", "cr" -> text.write('\n');
+                                default -> { }
+                            }
+                        } else if (event == XMLStreamConstants.END_ELEMENT && WORD_NS.equals(reader.getNamespaceURI())) {
+                            if ("t".equals(reader.getLocalName())) {
+                                inText = false;
+                            } else if ("p".equals(reader.getLocalName())) {
+                                text.write('\n');
+                            }
+                        } else if (inText && event == XMLStreamConstants.CHARACTERS) {
+                            text.write(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                    }
+                } finally {
+                    reader.close();
+                }
+            } catch (XMLStreamException e) {
+                throw new IOException("Malformed Word document: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void extractDoc(Path file, BoundedWriter text) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(file.toFile(), true);
+             WordExtractor extractor = new WordExtractor(fs)) {
+            text.write(extractor.getText());
+        }
+    }
+
+    private static String typeOf(Path file, String contentType) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        String extension = dot >= 0 ? name.substring(dot + 1) : "";
+        if (!extension.isEmpty()) {
+            return extension;
+        }
+        if (contentType == null) {
+            return "";
+        }
+        if (contentType.contains("pdf")) {
+            return "pdf";
+        }
+        if (contentType.contains("officedocument.wordprocessingml")) {
+            return "docx";
+        }
+        return contentType.contains("msword") ? "doc" : "";
+    }
+
+    /**
+     * NFC, control characters removed, runs of spaces collapsed, at most one blank line in a row
+     */
+    static String normalize(String raw) {
+        String text = Normalizer.normalize(raw, Normalizer.Form.NFC)
+                .replace('\u00A0', ' ')
+                .replaceAll("\r\n?", "\n")
+                .replaceAll("[\\p{Cntrl}&&[^\n\t]]", "")
+                .replaceAll("[ \t]+", " ")
+                .replaceAll(" ?\n ?", "\n")
+                .replaceAll("\n{3,}", "\n\n");
+        return text.trim();
+    }
+
+    /**
+     * Writer that keeps the first {@code limit} characters and drops the rest
+     */
+    private static final class BoundedWriter extends Writer {
+        private final StringBuilder buffer = new StringBuilder();
+        private final int limit;
+
+        private BoundedWriter(int limit) {
+            this.limit = limit;
+        }
+
+        boolean isFull() {
+            return buffer.length() >= limit;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            int room = limit - buffer.length();
+            if (room > 0) {
+                buffer.append(chars, offset, Math.min(room, length));
+            }
+        }
+
+        @Override
+        public void write(String text) {
+            int room = limit - buffer.length();
+            if (room > 0) {
+                buffer.append(text, 0, Math.min(room, text.length()));
+            }
+        }
+
+        @Override
+        public void write(int c) {
+            if (buffer.length() < limit) {
+                buffer.append((char) c);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.aitrujobs.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Blobs in an S3-compatible bucket (AWS, MinIO, LocalStack, ...), so every node can serve
+ * every upload. Files larger than one part go up as a multipart upload streamed from disk
+ * part by part; partial reads are ranged GETs. Whole-file reads go through a small LRU
+ * disk cache ({@code app.storage.cache.*}), and a node caches what it uploads, so hot
+ * resumes and freshly uploaded ones are served from local disk.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+@Slf4j
+public class S3BlobStore implements BlobStore {
+
+    /** S3 rejects multipart parts under 5 MiB, except the last */
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final S3Client s3;
+    private final String bucket;
+    private final long partSize;
+    private final DiskBlobCache cache;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    public S3BlobStore(@Value("${app.storage.s3.bucket}") String bucket,
+                       @Value("${app.storage.s3.region:us-east-1}") String region,
+                       @Value("${app.storage.s3.endpoint:}") String endpoint,
+                       @Value("${app.storage.s3.path-style-access:false}") boolean pathStyleAccess,
+                       @Value("${app.storage.s3.access-key:}") String accessKey,
+                       @Value("${app.storage.s3.secret-key:}") String secretKey,
+                       @Value("${app.storage.s3.part-size-bytes:5242880}") long partSize,
+                       @Value("${app.storage.cache.dir:uploads/.cache}") String cacheDir,
+                       @Value("${app.storage.cache.max-bytes:268435456}") long cacheMaxBytes,
+                       MeterRegistry meterRegistry) {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .forcePathStyle(pathStyleAccess)
+                .credentialsProvider(accessKey.isBlank()
+                        ? DefaultCredentialsProvider.create()
+                        : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        this.s3 = builder.build();
+        this.bucket = bucket;
+        this.partSize = Math.max(MIN_PART_SIZE, partSize);
+        this.cache = new DiskBlobCache(Paths.get(cacheDir), cacheMaxBytes);
+        this.cacheHits = Counter.builder("blob.cache").tag("result", "hit").register(meterRegistry);
+        this.cacheMisses = Counter.builder("blob.cache").tag("result", "miss").register(meterRegistry);
+        log.info("Storing uploads in S3 bucket {}{}", bucket, endpoint.isBlank() ? "" : " at " + endpoint);
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        long size = Files.size(source);
+        if (size <= partSize) {
+            s3.putObject(request -> request.bucket(bucket).key(key), RequestBody.fromFile(source));
+        } else {
+            putMultipart(key, source, size);
+        }
+        cache.put(key, source);
+    }
+
+    private void putMultipart(String key, Path source, long size) throws IOException {
+        String uploadId = s3.createMultipartUpload(request -> request.bucket(bucket).key(key)).uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            for (long offset = 0; offset < size; offset += partSize) {
+                long partOffset = offset;
+                long length = Math.min(partSize, size - offset);
+                int partNumber = parts.size() + 1;
+                // Each part is read from the file as it is sent; nothing is held in memory
+                String etag = s3.uploadPart(
+                        request -> request.bucket(bucket).key(key).uploadId(uploadId).partNumber(partNumber),
+                        RequestBody.fromContentProvider(() -> openPart(source, partOffset, length), length,
+                                "application/octet-stream")).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(etag).build());
+            }
+            s3.completeMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(upload -> upload.parts(parts)));
+        } catch (RuntimeException e) {
+            s3.abortMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId));
+            throw new IOException("Multipart upload of " + key + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static InputStream openPart(Path source, long offset, long length) {
+        try {
+            FileChannel channel = FileChannel.open(source, StandardOpenOption.READ).position(offset);
+            return BoundedInputStream.builder()
+                    .setInputStream(Channels.newInputStream(channel))
+                    .setMaxCount(length)
+                    .get();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public BlobInfo stat(String key) {
+        try {
+            HeadObjectResponse head = s3.headObject(request -> request.bucket(bucket).key(key));
+            return new BlobInfo(key, head.contentLength(), head.lastModified());
+        } catch (NoSuchKeyException e) {
+            return null;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void touch(String key) throws IOException {
+        // Copying an object onto itself with replaced metadata refreshes Last-Modified
+        copy(key, key, MetadataDirective.REPLACE);
+    }
+
+    private void copy(String from, String to, MetadataDirective directive) throws NoSuchFileException {
+        try {
+            s3.copyObject(request -> request.sourceBucket(bucket).sourceKey(from)
+                    .destinationBucket(bucket).destinationKey(to)
+                    .metadataDirective(directive));
+        } catch (S3Exception e) {
+            if (e instanceof NoSuchKeyException || e.statusCode() == 404) {
+                throw new NoSuchFileException(from);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        Optional<LocalCopy> cached = counted(cache.get(key));
+        if (cached.isPresent()) {
+            // The open channel keeps reading the file even if it is evicted once unpinned
+            try (LocalCopy copy = cached.get()) {
+                FileChannel channel = FileChannel.open(copy.getPath(), StandardOpenOption.READ).position(offset);
+                return BoundedInputStream.builder()
+                        .setInputStream(Channels.newInputStream(channel))
+                        .setMaxCount(length)
+                        .get();
+            }
+        }
+        try {
+            return s3.getObject(request -> request.bucket(bucket).key(key)
+                    .range("bytes=" + offset + "-" + (offset + length - 1)));
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(key);
+        }
+    }
+
+    @Override
+    public Optional<LocalCopy> cachedFile(String key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public LocalCopy localFile(String key) throws IOException {
+        Optional<LocalCopy> cached = counted(cache.get(key));
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        try {
+            return cache.fill(key, file -> s3.getObject(request -> request.bucket(bucket).key(key), file));
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(key);
+        }
+    }
+
+    private Optional<LocalCopy> counted(Optional<LocalCopy> cached) {
+        (cached.isPresent() ? cacheHits : cacheMisses).increment();
+        return cached;
+    }
+
+    @Override
+    public boolean move(String from, String to) throws IOException {
+        try {
+            copy(from, to, MetadataDirective.COPY);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        delete(from);
+        return true;
+    }
+
+    @Override
+    public boolean delete(String key) {
+        cache.evict(key);
+        s3.deleteObject(request -> request.bucket(bucket).key(key));
+        return true;
+    }
+
+    @Override
+    public List<BlobInfo> list(String directory) {
+        String prefix = directory.endsWith("/") ? directory : directory + "/";
+        return s3.listObjectsV2Paginator(request -> request.bucket(bucket).prefix(prefix))
+                .contents()
+                .stream()
+                .map(object -> new BlobInfo(object.key(), object.size(), object.lastModified()))
+                .toList();
+    }
+
+    @PreDestroy
+    void close() {
+        s3.close();
+    }
+}
@@ -0,0 +1,183 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.search.SkillDictionary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Skill extraction and overlap over the skill taxonomy ({@code app.skills.taxonomy}).
+ * A resume is scanned once per text and kept as a skill-id bitset; a job's skills
+ * field resolves to ids through the same dictionary, so overlap is a bitset intersection.
+ * Job skills missing from the taxonomy are added under their own name on first use.
+ */
+@Service
+@Slf4j
+public class SkillService {
+
+    private volatile SkillDictionary dictionary;
+    private final Cache<String, ScannedText> scans;
+
+    public SkillService(@Value("${app.skills.taxonomy:classpath:skills.txt}") Resource taxonomy,
+                        @Value("${app.skills.scan-cache-size:500}") long scanCacheSize) {
+        this.dictionary = load(taxonomy);
+        this.scans = Caffeine.newBuilder().maximumSize(scanCacheSize).build();
+        log.info("Loaded {} skills from {}", dictionary.size(), taxonomy.getDescription());
+    }
+
+    /**
+     * Ids of the skills mentioned in the text. Shared with other callers; do not modify.
+     */
+    public BitSet skillsIn(String text) {
+        if (text == null || text.isBlank()) {
+            return new BitSet();
+        }
+        SkillDictionary current = dictionary;
+        ScannedText scanned = scans.getIfPresent(text);
+        if (scanned == null || scanned.dictionary != current) {
+            // Rescan after the dictionary grew; a skill added since may occur in this text
+            scanned = new ScannedText(current, current.scan(text));
+            scans.put(text, scanned);
+        }
+        return scanned.skills;
+    }
+
+    /**
+     * Ids of a job's comma-separated skills, in listed order (-1 entries removed)
+     */
+    public int[] jobSkillIds(String skills) {
+        if (skills == null || skills.isBlank()) {
+            return new int[0];
+        }
+        List<String> entries = Arrays.stream(skills.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .toList();
+        SkillDictionary current = dictionary;
+        for (String entry : entries) {
+            if (current.idOf(entry) < 0) {
+                current = register(entries);
+                break;
+            }
+        }
+        return entries.stream().mapToInt(current::idOf).filter(id -> id >= 0).distinct().toArray();
+    }
+
+    /**
+     * Add skills known outside the taxonomy, e.g. stored by an earlier run; returns how
+     * many were new
+     */
+    public synchronized int addSkills(Collection<String> names) {
+        int before = dictionary.size();
+        return register(names).size() - before;
+    }
+
+    /**
+     * Id of a skill name or alias, or -1 when it is not known; never adds a skill
+     */
+    public int skillId(String nameOrAlias) {
+        return nameOrAlias == null ? -1 : dictionary.idOf(nameOrAlias.trim());
+    }
+
+    /**
+     * Display name of a skill id
+     */
+    public String skillName(int id) {
+        return dictionary.nameOf(id);
+    }
+
+    /**
+     * Share (0-1) of the job's skills found in the resume, or -1 when the job lists none
+     */
+    public double overlap(String resumeText, String jobSkills) {
+        int[] jobIds = jobSkillIds(jobSkills);
+        if (jobIds.length == 0) {
+            return -1;
+        }
+        BitSet required = new BitSet();
+        for (int id : jobIds) {
+            required.set(id);
+        }
+        required.and(skillsIn(resumeText));
+        return (double) required.cardinality() / jobIds.length;
+    }
+
+    /**
+     * Display names of the job's skills found in the resume, in the job's order
+     */
+    public List<String> matchingSkills(String resumeText, String jobSkills, int limit) {
+        // Resolve the job first: it may add skills the resume scan and the names must include
+        int[] jobIds = jobSkillIds(jobSkills);
+        BitSet resumeSkills = skillsIn(resumeText);
+        SkillDictionary current = dictionary;
+        List<String> matches = new ArrayList<>();
+        for (int id : jobIds) {
+            if (matches.size() >= limit) {
+                break;
+            }
+            if (resumeSkills.get(id)) {
+                matches.add(current.nameOf(id));
+            }
+        }
+        return matches;
+    }
+
+    private synchronized SkillDictionary register(Collection<String> names) {
+        SkillDictionary extended = dictionary.withSkills(names);
+        if (extended != dictionary) {
+            log.debug("Skill dictionary grew from {} to {} entries", dictionary.size(), extended.size());
+            dictionary = extended;
+        }
+        return extended;
+    }
+
+    private static SkillDictionary load(Resource taxonomy) {
+        List<String> names = new ArrayList<>();
+        List<List<String>> aliases = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(taxonomy.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] forms = line.split("\\|");
+                names.add(forms[0].trim());
+                List<String> skillAliases = new ArrayList<>();
+                for (int i = 1; i < forms.length; i++) {
+                    if (!forms[i].isBlank()) {
+                        skillAliases.add(forms[i].trim());
+                    }
+                }
+                aliases.add(skillAliases);
+            }
+        } catch (IOException e) {
+            log.warn("Could not read skill taxonomy {}: {}", taxonomy.getDescription(), e.getMessage());
+            return SkillDictionary.EMPTY;
+        }
+        return new SkillDictionary(names, aliases);
+    }
+
+    private static final class ScannedText {
+        private final SkillDictionary dictionary;
+        private final BitSet skills;
+
+        private ScannedText(SkillDictionary dictionary, BitSet skills) {
+            this.dictionary = dictionary;
+            this.skills = skills;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.aitrujobs.search;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API (jdk.incubator.vector) kernel using the platform's preferred lane
+ * width with fused multiply-add accumulators and a scalar tail.
+ */
+final class SimdVectorKernel implements VectorKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    // Byte species with one lane per float lane; null when that shape is narrower than 64 bits
+    private static final VectorSpecies<Byte> BYTE_SPECIES = SPECIES.length() >= 8
+            ? VectorSpecies.of(byte.class, VectorShape.forBitSize(SPECIES.length() * 8))
+            : null;
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        int upper = SPECIES.loopBound(a.length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, i);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double cosine(float[] a, float[] b) {
+        int upper = SPECIES.loopBound(a.length);
+        FloatVector dotAcc = FloatVector.zero(SPECIES);
+        FloatVector normAAcc = FloatVector.zero(SPECIES);
+        FloatVector normBAcc = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, i);
+            dotAcc = va.fma(vb, dotAcc);
+            normAAcc = va.fma(va, normAAcc);
+            normBAcc = vb.fma(vb, normBAcc);
+        }
+        float dot = dotAcc.reduceLanes(VectorOperators.ADD);
+        float normA = normAAcc.reduceLanes(VectorOperators.ADD);
+        float normB = normBAcc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return VectorMath.cosineFrom(dot, normA, normB);
+    }
+
+    @Override
+    public float squaredNorm(float[] a) {
+        return dot(a, a);
+    }
+
+    @Override
+    public float dot(float[] a, byte[] codes) {
+        if (BYTE_SPECIES == null) {
+            return scalarDot(a, codes, 0, 0f);
+        }
+        int upper = SPECIES.loopBound(a.length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+            FloatVector vb = (FloatVector) ByteVector.fromArray(BYTE_SPECIES, codes, i).castShape(SPECIES, 0);
+            acc = va.fma(vb, acc);
+        }
+        return scalarDot(a, codes, i, acc.reduceLanes(VectorOperators.ADD));
+    }
+
+    private static float scalarDot(float[] a, byte[] codes, int from, float sum) {
+        for (int i = from; i < a.length; i++) {
+            sum += a[i] * codes[i];
+        }
+        return sum;
+    }
+}
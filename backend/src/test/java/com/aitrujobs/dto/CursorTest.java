@@ -0,0 +1,45 @@
+package com.aitrujobs.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        Cursor cursor = new Cursor(LocalDateTime.of(2024, 3, 9, 14, 5, 7, 123_456_000), 42L);
+
+        String token = cursor.encode();
+        Cursor decoded = Cursor.decode(token);
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(decoded.getCreatedAt()).isEqualTo(cursor.getCreatedAt());
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        for (String token : new String[]{
+                "not base64!",
+                "",
+                token("1|2024-03-09T14:05:07"),
+                token("2|2024-03-09T14:05:07|42"),
+                token("1|yesterday|42"),
+                token("1|2024-03-09T14:05:07|forty-two")}) {
+            assertThatThrownBy(() -> Cursor.decode(token))
+                    .as(token)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
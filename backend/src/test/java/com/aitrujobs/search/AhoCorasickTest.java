@@ -0,0 +1,39 @@
+package com.aitrujobs.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AhoCorasickTest {
+
+    @Test
+    void reportsEveryOccurrenceIncludingOverlaps() {
+        AhoCorasick automaton = new AhoCorasick(List.of("he", "she", "his", "hers"));
+
+        assertThat(matches(automaton, "ushers")).containsExactly("she@1", "he@2", "hers@2");
+        assertThat(matches(automaton, "hishe")).containsExactly("his@0", "she@2", "he@3");
+        assertThat(matches(automaton, "xyz")).isEmpty();
+    }
+
+    @Test
+    void scansOnlyTheGivenLength() {
+        AhoCorasick automaton = new AhoCorasick(List.of("java", "javascript"));
+        char[] text = "javascript".toCharArray();
+        List<String> found = new ArrayList<>();
+
+        automaton.scan(text, 6, (pattern, start, end) -> found.add(pattern + "@" + start + "-" + end));
+
+        assertThat(found).containsExactly("0@0-4");
+    }
+
+    private static List<String> matches(AhoCorasick automaton, String text) {
+        List<String> patterns = List.of("he", "she", "his", "hers");
+        List<String> found = new ArrayList<>();
+        automaton.scan(text.toCharArray(), text.length(),
+                (pattern, start, end) -> found.add(patterns.get(pattern) + "@" + start));
+        return found;
+    }
+}
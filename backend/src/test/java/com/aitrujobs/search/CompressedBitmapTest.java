@@ -0,0 +1,140 @@
+package com.aitrujobs.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Set operations checked against a {@link TreeSet}. A group switches from a sorted array
+ * to a bitmap above 4096 values, so the inputs sit on both sides of that line.
+ */
+class CompressedBitmapTest {
+
+    private static final int GROUP = 1 << 16;
+
+    @Test
+    void andOrAndCardinalityMatchSetOperations() {
+        Random random = new Random(5);
+        List<int[]> inputs = List.of(
+                range(0, 4096, 1),                      // array at its limit
+                range(0, 4097, 1),                      // smallest bitmap
+                range(0, 20000, 2),                     // dense evens, bitmap
+                range(1, 20000, 2),                     // dense odds, disjoint from the evens
+                range(0, 9000, 3),                      // 3000 values, array
+                range(0, 6000, 1),                      // ANDed with the evens: two bitmaps, array result
+                range(3000, 3000 + 2 * GROUP, 7),       // spans groups 0 to 2
+                randomValues(random, 5000, 3 * GROUP),  // about 1700 per group
+                randomValues(random, 12000, GROUP),     // one dense group
+                new int[0]);
+
+        for (int[] left : inputs) {
+            for (int[] right : inputs) {
+                CompressedBitmap a = CompressedBitmap.of(left);
+                CompressedBitmap b = CompressedBitmap.of(right);
+                TreeSet<Integer> intersection = set(left);
+                intersection.retainAll(set(right));
+                TreeSet<Integer> union = set(left);
+                union.addAll(set(right));
+
+                assertThat(a.and(b).toArray()).containsExactly(toArray(intersection));
+                assertThat(a.andCardinality(b)).isEqualTo(intersection.size());
+                assertThat(a.or(b).toArray()).containsExactly(toArray(union));
+                assertThat(a.or(b).cardinality()).isEqualTo(union.size());
+            }
+        }
+    }
+
+    @Test
+    void descendingPagesWalkEveryValueOnce() {
+        int[] values = IntStream.concat(IntStream.concat(
+                        IntStream.rangeClosed(1, 10),
+                        IntStream.range(GROUP, GROUP + 10)),
+                        IntStream.range(2 * GROUP, 2 * GROUP + 5000))
+                .toArray();
+        CompressedBitmap bitmap = CompressedBitmap.of(values);
+
+        List<Integer> walked = new ArrayList<>();
+        for (int skip = 0; ; skip += 7) {
+            int[] page = bitmap.descending(skip, 7);
+            if (page.length == 0) {
+                break;
+            }
+            for (int value : page) {
+                walked.add(value);
+            }
+        }
+
+        assertThat(walked).containsExactlyElementsOf(set(values).descendingSet());
+        // A page starting in one group and ending in the next
+        assertThat(bitmap.descending(4998, 4)).containsExactly(2 * GROUP + 1, 2 * GROUP, GROUP + 9, GROUP + 8);
+        assertThat(bitmap.descending(values.length, 5)).isEmpty();
+        assertThat(bitmap.descending(values.length - 2, 5)).containsExactly(2, 1);
+    }
+
+    @Test
+    void withAndWithoutOnArrayGroups() {
+        CompressedBitmap bitmap = CompressedBitmap.of(9, 1, 5, 5);
+
+        assertThat(bitmap.with(5)).isSameAs(bitmap);
+        assertThat(bitmap.without(7)).isSameAs(bitmap);
+        assertThat(bitmap.with(7).toArray()).containsExactly(1, 5, 7, 9);
+        assertThat(bitmap.without(5).toArray()).containsExactly(1, 9);
+        assertThat(bitmap.with(GROUP + 3).toArray()).containsExactly(1, 5, 9, GROUP + 3);
+        assertThat(CompressedBitmap.of(GROUP).without(GROUP).isEmpty()).isTrue();
+        // Unchanged: every update returns a new bitmap
+        assertThat(bitmap.toArray()).containsExactly(1, 5, 9);
+        assertThatThrownBy(() -> bitmap.with(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void withAndWithoutAcrossTheArrayBitmapSwitch() {
+        CompressedBitmap array = CompressedBitmap.of(range(0, 4096, 1));
+        CompressedBitmap bitmap = array.with(5000);
+
+        assertThat(bitmap.cardinality()).isEqualTo(4097);
+        assertThat(bitmap.contains(5000)).isTrue();
+        assertThat(bitmap.with(5000)).isSameAs(bitmap);
+        assertThat(bitmap.with(4500).contains(4500)).isTrue();
+
+        CompressedBitmap shrunk = bitmap.without(0);
+        assertThat(shrunk.cardinality()).isEqualTo(4096);
+        assertThat(shrunk.contains(0)).isFalse();
+        assertThat(shrunk.contains(5000)).isTrue();
+        assertThat(shrunk.without(0)).isSameAs(shrunk);
+
+        CompressedBitmap emptied = bitmap;
+        for (int value : bitmap.toArray()) {
+            emptied = emptied.without(value);
+        }
+        assertThat(emptied.isEmpty()).isTrue();
+        assertThat(array.cardinality()).isEqualTo(4096);
+        assertThat(bitmap.cardinality()).isEqualTo(4097);
+    }
+
+    private static int[] range(int from, int to, int step) {
+        return IntStream.iterate(from, value -> value < to, value -> value + step).toArray();
+    }
+
+    private static int[] randomValues(Random random, int count, int bound) {
+        return random.ints(count, 0, bound).toArray();
+    }
+
+    private static TreeSet<Integer> set(int[] values) {
+        TreeSet<Integer> set = new TreeSet<>();
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    private static int[] toArray(TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
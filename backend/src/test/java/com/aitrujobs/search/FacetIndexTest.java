@@ -0,0 +1,73 @@
+package com.aitrujobs.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacetIndexTest {
+
+    @Test
+    void countsFollowUpsertsAndRemovals() {
+        FacetIndex index = new FacetIndex();
+        index.upsert(1, Map.of("location", List.of("Remote"), "skill", List.of("Java", "SQL")));
+        index.upsert(2, Map.of("location", List.of("Berlin"), "skill", List.of("Java")));
+        index.upsert(3, Map.of("location", List.of(" Remote ", ""), "skill", List.of()));
+
+        FacetIndex.Snapshot snapshot = index.snapshot();
+        assertThat(snapshot.all().toArray()).containsExactly(1, 2, 3);
+        assertThat(counts(snapshot, "location")).isEqualTo(Map.of("Remote", 2, "Berlin", 1));
+        assertThat(counts(snapshot, "skill")).isEqualTo(Map.of("Java", 2, "SQL", 1));
+        CompressedBitmap remote = snapshot.bitmap("location", "Remote");
+        assertThat(remote.and(snapshot.bitmap("skill", "Java")).toArray()).containsExactly(1);
+        assertThat(remote.andCardinality(snapshot.bitmap("skill", "SQL"))).isEqualTo(1);
+
+        // Replacing a document moves it between values and drops values left empty
+        index.upsert(1, Map.of("location", List.of("Berlin"), "skill", List.of("Java")));
+        FacetIndex.Snapshot updated = index.snapshot();
+        assertThat(counts(updated, "location")).isEqualTo(Map.of("Remote", 1, "Berlin", 2));
+        assertThat(counts(updated, "skill")).isEqualTo(Map.of("Java", 2));
+
+        index.remove(2);
+        index.remove(42);
+        FacetIndex.Snapshot removed = index.snapshot();
+        assertThat(removed.all().toArray()).containsExactly(1, 3);
+        assertThat(counts(removed, "location")).isEqualTo(Map.of("Remote", 1, "Berlin", 1));
+        assertThat(counts(removed, "skill")).isEqualTo(Map.of("Java", 1));
+        assertThat(removed.bitmap("skill", "SQL").isEmpty()).isTrue();
+
+        // Snapshots already handed out do not change
+        assertThat(counts(snapshot, "location")).isEqualTo(Map.of("Remote", 2, "Berlin", 1));
+    }
+
+    @Test
+    void replaceAllMatchesIncrementalUpserts() {
+        Map<Integer, Map<String, List<String>>> documents = Map.of(
+                1, Map.of("location", List.of("Remote"), "skill", List.of("Java", "SQL")),
+                2, Map.of("location", List.of("Berlin"), "skill", List.of("Java")),
+                70000, Map.of("location", List.of("Remote")));
+        FacetIndex bulk = new FacetIndex();
+        bulk.upsert(9, Map.of("location", List.of("Paris")));
+        bulk.replaceAll(documents);
+        FacetIndex incremental = new FacetIndex();
+        documents.forEach(incremental::upsert);
+
+        for (String dimension : List.of("location", "skill")) {
+            assertThat(counts(bulk.snapshot(), dimension)).isEqualTo(counts(incremental.snapshot(), dimension));
+        }
+        assertThat(bulk.snapshot().all().toArray()).containsExactly(1, 2, 70000);
+
+        // The bulk-built index keeps tracking documents for later updates
+        bulk.remove(70000);
+        assertThat(counts(bulk.snapshot(), "location")).isEqualTo(Map.of("Remote", 1, "Berlin", 1));
+    }
+
+    private static Map<String, Integer> counts(FacetIndex.Snapshot snapshot, String dimension) {
+        Map<String, Integer> counts = new HashMap<>();
+        snapshot.values(dimension).forEach((value, bitmap) -> counts.put(value, bitmap.cardinality()));
+        return counts;
+    }
+}
@@ -0,0 +1,128 @@
+package com.aitrujobs.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Recall of the graph against a brute-force cosine scan. Random Gaussian vectors have no
+ * cluster structure and are the hard case for HNSW; real embeddings recall higher.
+ */
+class HnswIndexTest {
+
+    private static final int DIMENSION = 64;
+    private static final int DOCUMENTS = 3000;
+    private static final int QUERIES = 100;
+    private static final int K = 10;
+
+    @Test
+    void recallAt10AgainstExactScan() {
+        List<float[]> vectors = randomVectors(DOCUMENTS, new Random(7));
+        HnswIndex index = build(vectors, false);
+
+        double recall = recall(index, vectors, 1);
+        assertThat(recall).as("HNSW recall@10 vs exact scan = %.3f", recall).isGreaterThanOrEqualTo(0.9);
+    }
+
+    @Test
+    void quantizedRecallAt10AfterRerank() {
+        List<float[]> vectors = randomVectors(DOCUMENTS, new Random(7));
+        HnswIndex index = build(vectors, true);
+
+        // Over-fetch 4x from the int8 graph and re-rank exactly, as JobVectorIndexService does
+        double recall = recall(index, vectors, 4);
+        assertThat(recall).as("int8 HNSW recall@10 after re-rank vs exact scan = %.3f", recall)
+                .isGreaterThanOrEqualTo(0.9);
+    }
+
+    @Test
+    void removedKeysAreNeverReturned() {
+        List<float[]> vectors = randomVectors(500, new Random(11));
+        HnswIndex index = build(vectors, false);
+        for (long key = 0; key < 250; key++) {
+            index.remove(key);
+        }
+
+        assertThat(index.size()).isEqualTo(250);
+        for (int q = 0; q < 20; q++) {
+            for (HnswIndex.SearchResult result : index.search(vectors.get(q), K)) {
+                assertThat(result.getKey()).isGreaterThanOrEqualTo(250);
+            }
+        }
+    }
+
+    @Test
+    void upsertReplacesTheStoredVector() {
+        HnswIndex index = new HnswIndex(16, 200, 64);
+        index.upsert(1, new float[] {1, 0, 0});
+        index.upsert(2, new float[] {0, 1, 0});
+        index.upsert(1, new float[] {0, 0, 1});
+
+        List<HnswIndex.SearchResult> results = index.search(new float[] {0, 0, 1}, 1);
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getKey()).isEqualTo(1);
+        assertThat(results.get(0).getSimilarity()).isCloseTo(1.0, within(1e-6));
+    }
+
+    private static HnswIndex build(List<float[]> vectors, boolean quantized) {
+        HnswIndex index = new HnswIndex(16, 200, 64, quantized);
+        for (int i = 0; i < vectors.size(); i++) {
+            index.upsert(i, vectors.get(i));
+        }
+        return index;
+    }
+
+    /** Mean share of the exact top-k found by the index, reading {@code overFetch * k} candidates */
+    private static double recall(HnswIndex index, List<float[]> vectors, int overFetch) {
+        Random random = new Random(13);
+        double total = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            float[] query = randomVectors(1, random).get(0);
+            Set<Long> truth = topK(query, vectors, allKeys(vectors.size()));
+
+            Set<Long> candidates = new HashSet<>();
+            for (HnswIndex.SearchResult result : index.search(query, K * overFetch)) {
+                candidates.add(result.getKey());
+            }
+            Set<Long> found = topK(query, vectors, candidates);
+            found.retainAll(truth);
+            total += (double) found.size() / K;
+        }
+        return total / QUERIES;
+    }
+
+    private static Set<Long> topK(float[] query, List<float[]> vectors, Set<Long> keys) {
+        List<Long> ranked = new ArrayList<>(keys);
+        ranked.sort(Comparator.comparingDouble((Long key) -> VectorMath.cosine(query, vectors.get(key.intValue()))).reversed());
+        return new HashSet<>(ranked.subList(0, Math.min(K, ranked.size())));
+    }
+
+    private static Set<Long> allKeys(int size) {
+        Set<Long> keys = new HashSet<>();
+        for (long key = 0; key < size; key++) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private static List<float[]> randomVectors(int count, Random random) {
+        List<float[]> vectors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            float[] vector = new float[DIMENSION];
+            for (int d = 0; d < DIMENSION; d++) {
+                vector[d] = (float) random.nextGaussian();
+            }
+            vectors.add(vector);
+        }
+        return vectors;
+    }
+}
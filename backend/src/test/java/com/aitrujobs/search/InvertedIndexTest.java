@@ -0,0 +1,125 @@
+package com.aitrujobs.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class InvertedIndexTest {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    @Test
+    void ranksByBm25() {
+        InvertedIndex index = new InvertedIndex(K1, B);
+        Map<Long, Map<String, Integer>> documents = Map.of(
+                1L, Map.of("java", 1, "developer", 1, "spring", 1, "sql", 1),
+                2L, Map.of("java", 3, "developer", 1),
+                3L, Map.of("kotlin", 1, "developer", 1),
+                4L, Map.of("python", 1, "developer", 1, "django", 1, "sql", 1, "aws", 1, "docker", 1));
+        documents.forEach(index::upsert);
+
+        InvertedIndex.Hits java = index.search(List.of("java"), 10);
+        // Same term, more often and in a shorter document
+        assertThat(java.getIds()).containsExactly(2L, 1L);
+        assertThat(java.getTotal()).isEqualTo(2);
+        for (int i = 0; i < java.getIds().length; i++) {
+            assertThat(java.getScores()[i]).isCloseTo(bm25(documents, List.of("java"), java.getIds()[i]), within(1e-9));
+        }
+
+        // The rare term outweighs the common one, and every matching document is counted
+        InvertedIndex.Hits hits = index.search(List.of("kotlin", "developer"), 2);
+        assertThat(hits.getIds()).containsExactly(3L, 2L);
+        assertThat(hits.getTotal()).isEqualTo(4);
+        assertThat(hits.getScores()[0]).isCloseTo(bm25(documents, List.of("kotlin", "developer"), 3L), within(1e-9));
+
+        assertThat(index.search(List.of("rust"), 10).getTotal()).isZero();
+    }
+
+    @Test
+    void equalScoresRankHigherIdsFirst() {
+        InvertedIndex index = new InvertedIndex(K1, B);
+        for (long id = 1; id <= 5; id++) {
+            index.upsert(id, Map.of("remote", 1));
+        }
+
+        assertThat(index.search(List.of("remote"), 3).getIds()).containsExactly(5L, 4L, 3L);
+    }
+
+    @Test
+    void expandsPrefixesToIndexedTerms() {
+        InvertedIndex index = new InvertedIndex(K1, B);
+        index.upsert(1, Map.of("developer", 1, "java", 1));
+        index.upsert(2, Map.of("devops", 1, "engineer", 1));
+        index.upsert(3, Map.of("designer", 1));
+
+        assertThat(index.termsWithPrefix("dev", 10)).containsExactly("developer", "devops");
+        assertThat(index.termsWithPrefix("dev", 1)).containsExactly("developer");
+        assertThat(index.termsWithPrefix("x", 10)).isEmpty();
+        assertThat(index.containsTerm("dev")).isFalse();
+        assertThat(index.search(index.termsWithPrefix("dev", 10), 10).getIds()).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void upsertAndRemoveChangeResults() {
+        InvertedIndex index = new InvertedIndex(K1, B);
+        index.upsert(1, Map.of("java", 1, "developer", 1));
+        index.upsert(2, Map.of("python", 1, "developer", 1));
+
+        index.upsert(1, Map.of("rust", 1, "developer", 1));
+        assertThat(index.search(List.of("java"), 10).getTotal()).isZero();
+        assertThat(index.containsTerm("java")).isFalse();
+        assertThat(index.search(List.of("rust"), 10).getIds()).containsExactly(1L);
+
+        index.remove(2);
+        index.remove(99);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search(List.of("python"), 10).getTotal()).isZero();
+        assertThat(index.search(List.of("developer"), 10).getIds()).containsExactly(1L);
+    }
+
+    @Test
+    void replaceAllScoresLikeIncrementalUpserts() {
+        Map<Long, Map<String, Integer>> documents = new HashMap<>();
+        documents.put(1L, Map.of("java", 3, "developer", 1));
+        documents.put(2L, Map.of("java", 1, "spring", 2, "developer", 1));
+        documents.put(3L, Map.of("developer", 1));
+        InvertedIndex bulk = new InvertedIndex(K1, B);
+        bulk.upsert(7, Map.of("stale", 1));
+        bulk.replaceAll(documents);
+        InvertedIndex incremental = new InvertedIndex(K1, B);
+        documents.forEach(incremental::upsert);
+
+        List<String> query = List.of("java", "developer");
+        assertThat(bulk.search(query, 10).getIds()).containsExactly(incremental.search(query, 10).getIds());
+        assertThat(bulk.search(query, 10).getScores()).containsExactly(incremental.search(query, 10).getScores());
+        assertThat(bulk.containsTerm("stale")).isFalse();
+        assertThat(bulk.termCount()).isEqualTo(3);
+    }
+
+    /** Textbook BM25, for checking the postings merge */
+    private static double bm25(Map<Long, Map<String, Integer>> documents, List<String> query, long id) {
+        double averageLength = documents.values().stream().mapToInt(InvertedIndexTest::length).average().orElse(0);
+        Map<String, Integer> document = documents.get(id);
+        double score = 0;
+        for (String term : query) {
+            int tf = document.getOrDefault(term, 0);
+            if (tf == 0) {
+                continue;
+            }
+            long df = documents.values().stream().filter(d -> d.containsKey(term)).count();
+            double idf = Math.log(1 + (documents.size() - df + 0.5) / (df + 0.5));
+            score += idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length(document) / averageLength));
+        }
+        return score;
+    }
+
+    private static int length(Map<String, Integer> document) {
+        return document.values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
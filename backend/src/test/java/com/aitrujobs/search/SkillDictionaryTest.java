@@ -0,0 +1,74 @@
+package com.aitrujobs.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkillDictionaryTest {
+
+    // As in skills.txt: name, then aliases; '=' marks an exact-case alias
+    private static final SkillDictionary DICTIONARY = new SkillDictionary(
+            List.of("Java", "JavaScript", "C", "C++", "C#", "Go", "R", "Spring Boot", "Node.js"),
+            List.of(
+                    List.of("java ee"),
+                    List.of("js"),
+                    List.of("=C"),
+                    List.of("cpp"),
+                    List.of("csharp"),
+                    List.of("golang", "=Go"),
+                    List.of("=R"),
+                    List.of(),
+                    List.of("nodejs")));
+
+    @Test
+    void matchesOnlyWholeWords() {
+        assertThat(skills("Senior JavaScript engineer")).containsExactly("JavaScript");
+        assertThat(skills("Java and JavaScript")).containsExactly("Java", "JavaScript");
+        assertThat(skills("Modern C++ and C# services")).containsExactly("C++", "C#");
+        assertThat(skills("Embedded C, some C++")).containsExactly("C", "C++");
+        assertThat(skills("Javanese cooking")).isEmpty();
+        assertThat(skills("Java8 / JavaEE")).isEmpty();
+    }
+
+    @Test
+    void wordBoundariesIncludePunctuationAndTextEdges() {
+        assertThat(skills("Java")).containsExactly("Java");
+        assertThat(skills("(Java), Node.js.")).containsExactly("Java", "Node.js");
+        assertThat(skills("spring-boot / SPRING_BOOT")).containsExactly("Spring Boot");
+        assertThat(skills("java  ee")).containsExactly("Java");
+        // A dot inside a name is part of the word; a full stop is not
+        assertThat(skills("Node.js and JS")).containsExactly("JavaScript", "Node.js");
+        assertThat(skills("Node.js only")).containsExactly("Node.js");
+        assertThat(skills("Knows C.")).containsExactly("C");
+    }
+
+    @Test
+    void exactCaseEntriesIgnoreOrdinaryWords() {
+        assertThat(skills("Services written in Go")).containsExactly("Go");
+        assertThat(skills("Ready to go live, will go far")).isEmpty();
+        assertThat(skills("GO")).isEmpty();
+        // Other aliases of the same skill still ignore case
+        assertThat(skills("GoLang microservices")).containsExactly("Go");
+        assertThat(skills("Statistics in R")).containsExactly("R");
+        assertThat(skills("r and d")).isEmpty();
+        assertThat(skills("c programming")).isEmpty();
+    }
+
+    @Test
+    void lookupIgnoresCaseAndSeparators() {
+        assertThat(DICTIONARY.idOf("go")).isEqualTo(DICTIONARY.idOf("Golang"));
+        assertThat(DICTIONARY.idOf("spring_boot")).isEqualTo(DICTIONARY.idOf("Spring Boot"));
+        assertThat(DICTIONARY.idOf("Rust")).isEqualTo(-1);
+
+        SkillDictionary extended = DICTIONARY.withSkills(List.of("Rust", "golang", "rust"));
+        assertThat(extended.size()).isEqualTo(DICTIONARY.size() + 1);
+        assertThat(extended.nameOf(extended.idOf("RUST"))).isEqualTo("Rust");
+        assertThat(DICTIONARY.withSkills(List.of("GO"))).isSameAs(DICTIONARY);
+    }
+
+    private static List<String> skills(String text) {
+        return DICTIONARY.scan(text).stream().mapToObj(DICTIONARY::nameOf).toList();
+    }
+}
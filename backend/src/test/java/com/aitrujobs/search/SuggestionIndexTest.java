@@ -0,0 +1,90 @@
+package com.aitrujobs.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionIndexTest {
+
+    @Test
+    void completesPrefixesMostPopularFirst() {
+        SuggestionIndex index = new SuggestionIndex();
+        add(index, "title", "JavaScript Engineer", 1);
+        add(index, "title", "Java Developer", 3);
+        add(index, "title", "Senior Java Architect", 2);
+        add(index, "location", "Jakarta", 5);
+        add(index, "title", "Python Developer", 4);
+
+        List<SuggestionIndex.Suggestion> suggestions = index.suggest("ja", 10);
+
+        assertThat(suggestions).extracting(SuggestionIndex.Suggestion::getText)
+                .containsExactly("Jakarta", "Java Developer", "Senior Java Architect", "JavaScript Engineer");
+        assertThat(suggestions).extracting(SuggestionIndex.Suggestion::getPopularity).containsExactly(5, 3, 2, 1);
+        assertThat(suggestions.get(0).getField()).isEqualTo("location");
+        // Any word of a phrase can start the match
+        assertThat(index.suggest("dev", 10)).extracting(SuggestionIndex.Suggestion::getText)
+                .containsExactly("Python Developer", "Java Developer");
+        assertThat(index.suggest("ja", 2)).extracting(SuggestionIndex.Suggestion::getText)
+                .containsExactly("Jakarta", "Java Developer");
+    }
+
+    @Test
+    void correctsAOneCharacterTypo() {
+        SuggestionIndex index = new SuggestionIndex();
+        add(index, "title", "Kubernetes Engineer", 2);
+        add(index, "title", "Data Engineer", 1);
+
+        // Substitution in a whole word, and a swap in the word still being typed
+        assertThat(index.suggest("kubernetas engineer", 5)).extracting(SuggestionIndex.Suggestion::getText)
+                .containsExactly("Kubernetes Engineer");
+        assertThat(index.suggest("kubenr", 5)).extracting(SuggestionIndex.Suggestion::getText)
+                .containsExactly("Kubernetes Engineer");
+        assertThat(index.suggest("zzzzzzz", 5)).isEmpty();
+    }
+
+    @Test
+    void removingEveryAddDropsThePhrase() {
+        SuggestionIndex index = new SuggestionIndex();
+        add(index, "skill", "Kubernetes", 2);
+        add(index, "skill", "Kotlin", 1);
+
+        index.remove("skill", "kubernetes");
+        assertThat(index.suggest("ku", 5)).extracting(SuggestionIndex.Suggestion::getPopularity).containsExactly(1);
+
+        index.remove("skill", "Kubernetes");
+        index.remove("skill", "Kubernetes");
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.suggest("ku", 5)).isEmpty();
+        // Its words are gone too, so nothing is corrected towards it
+        assertThat(index.suggest("kubernetas", 5)).isEmpty();
+        assertThat(index.suggest("k", 5)).extracting(SuggestionIndex.Suggestion::getText).containsExactly("Kotlin");
+
+        add(index, "skill", "Kubernetes", 1);
+        assertThat(index.suggest("ku", 5)).extracting(SuggestionIndex.Suggestion::getPopularity).containsExactly(1);
+    }
+
+    @Test
+    void replaceAllCountsEachPhraseOncePerDocument() {
+        SuggestionIndex index = new SuggestionIndex();
+        add(index, "title", "Stale Title", 1);
+
+        index.replaceAll(List.of(
+                Map.entry("title", "Java Developer"),
+                Map.entry("title", " java developer "),
+                Map.entry("location", "Java"),
+                Map.entry("title", "")));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.suggest("stale", 5)).isEmpty();
+        assertThat(index.suggest("java", 5)).extracting(SuggestionIndex.Suggestion::getPopularity).containsExactly(2, 1);
+    }
+
+    private static void add(SuggestionIndex index, String field, String text, int times) {
+        for (int i = 0; i < times; i++) {
+            index.add(field, text);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.aitrujobs.service;
+
+import com.aitrujobs.entity.Application;
+import com.aitrujobs.entity.Job;
+import com.aitrujobs.entity.Resume;
+import com.aitrujobs.repository.ApplicationRepository;
+import com.aitrujobs.repository.JobRepository;
+import com.aitrujobs.repository.ResumeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AtsScoringServiceTest {
+
+    private static final String MODEL = "test/model";
+
+    private EmbeddingProvider embeddingProvider;
+    private JobRepository jobRepository;
+    private ResumeRepository resumeRepository;
+    private ApplicationRepository applicationRepository;
+    private AtsScoringService service;
+
+    @BeforeEach
+    void setUp() {
+        embeddingProvider = mock(EmbeddingProvider.class);
+        when(embeddingProvider.getModelId()).thenReturn(MODEL);
+        jobRepository = mock(JobRepository.class);
+        resumeRepository = mock(ResumeRepository.class);
+        applicationRepository = mock(ApplicationRepository.class);
+        JobLexicalIndexService lexical = new JobLexicalIndexService(jobRepository, new SimpleMeterRegistry(), 1.2, 0.75, 100);
+        SkillService skills = new SkillService(new ClassPathResource("skills.txt"), 100);
+        service = new AtsScoringService(embeddingProvider, jobRepository, resumeRepository, applicationRepository,
+                mock(JobVectorIndexService.class), lexical, skills, 0.6, 0.25, 0.15);
+    }
+
+    @Test
+    void fallbackScoreIsLexicalWithoutVectors() {
+        Resume resume = resume("Backend engineer, eight years of Java, Spring Boot and SQL");
+        Job matching = job(1L, "Java backend engineer", "Build Spring services", "Java,Spring,SQL");
+        Job unrelated = job(2L, "Pastry chef", "Bake bread and cakes", "Baking");
+
+        double matchingScore = service.fallbackScore(resume, matching);
+        assertThat(matchingScore).isGreaterThan(0.0);
+        assertThat(matchingScore).isGreaterThan(service.fallbackScore(resume, unrelated));
+    }
+
+    @Test
+    void fallbackScoreUsesStoredVectorsWhenBothArePresent() {
+        Resume resume = resume("Java developer");
+        resume.setEmbeddingVector(new float[] {1, 0});
+        resume.setEmbeddingModel(MODEL);
+        Job job = job(1L, "Java developer", "Java", "Java");
+        job.setEmbeddingVector(new float[] {1, 0});
+        job.setEmbeddingModel(MODEL);
+
+        assertThat(service.scoreLocally(resume, job)).isPresent();
+        assertThat(service.fallbackScore(resume, job)).isEqualTo(service.scoreLocally(resume, job).get());
+    }
+
+    @Test
+    void cannotEmbedWhileProviderIsUnavailable() {
+        when(embeddingProvider.isAvailable()).thenReturn(false);
+
+        assertThat(service.canEmbed(resume("Java developer"), job(1L, "Java developer", "", "Java"))).isFalse();
+    }
+
+    @Test
+    void cannotEmbedResumeWithoutText() {
+        when(embeddingProvider.isAvailable()).thenReturn(true);
+
+        assertThat(service.canEmbed(resume(null), job(1L, "Java developer", "", "Java"))).isFalse();
+        assertThat(service.canEmbed(resume("Java developer"), job(1L, "Java developer", "", "Java"))).isTrue();
+    }
+
+    @Test
+    void scoreFallsBackToLexicalWhenProviderIsUnavailable() {
+        when(embeddingProvider.isAvailable()).thenReturn(false);
+        Resume resume = resume("Java and Spring developer");
+        Job job = job(1L, "Java developer", "Spring services", "Java,Spring");
+
+        Double score = service.score(resume, job).block();
+
+        assertThat(score).isEqualTo(service.fallbackScore(resume, job));
+        assertThat(score).isGreaterThan(0.0);
+        verify(embeddingProvider, never()).embed(anyString());
+    }
+
+    @Test
+    void scoreFallsBackToLexicalWhenEmbeddingFails() {
+        when(embeddingProvider.isAvailable()).thenReturn(true);
+        when(embeddingProvider.embed(anyString())).thenReturn(Mono.error(new IllegalStateException("circuit open")));
+        Resume resume = resume("Java and Spring developer");
+        Job job = job(1L, "Java developer", "Spring services", "Java,Spring");
+
+        assertThat(service.score(resume, job).block()).isGreaterThan(0.0);
+    }
+
+    @Test
+    void deferredScoreFallsBackToLexicalWhenEmbeddingFails() {
+        when(embeddingProvider.isAvailable()).thenReturn(true);
+        when(embeddingProvider.embed(anyString())).thenReturn(Mono.error(new IllegalStateException("timeout")));
+        Application application = new Application();
+        application.setId(5L);
+        application.setResume(resume("Java and Spring developer"));
+        application.setJob(job(1L, "Java developer", "Spring services", "Java,Spring"));
+        double expected = service.fallbackScore(application.getResume(), application.getJob());
+
+        service.scoreLaterAsync(application);
+
+        verify(applicationRepository, timeout(2000)).updateAtsScoreIfUnscored(eq(5L), eq(expected));
+    }
+
+    private static Resume resume(String text) {
+        Resume resume = new Resume();
+        resume.setId(10L);
+        resume.setExtractedText(text);
+        return resume;
+    }
+
+    private static Job job(Long id, String title, String description, String skills) {
+        Job job = new Job();
+        job.setId(id);
+        job.setTitle(title);
+        job.setDescription(description);
+        job.setSkills(skills);
+        job.setIsPublished(true);
+        return job;
+    }
+}
@@ -0,0 +1,66 @@
+package com.aitrujobs.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskBlobCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void pinnedCopyIsNotEvictedWhenOverCapacity() throws IOException {
+        DiskBlobCache cache = new DiskBlobCache(directory, 10);
+
+        BlobStore.LocalCopy first = fill(cache, "resumes/a.pdf", 8);
+        fill(cache, "resumes/b.pdf", 8).close();
+
+        assertThat(first.getPath()).exists();
+        assertThat(Files.readAllBytes(first.getPath())).hasSize(8);
+        first.close();
+
+        // Unpinned now, so the next fill evicts it as least recently used
+        fill(cache, "resumes/c.pdf", 8).close();
+        assertThat(directory.resolve("resumes/a.pdf")).doesNotExist();
+        assertThat(cache.get("resumes/a.pdf")).isEmpty();
+    }
+
+    @Test
+    void evictingPinnedCopyDeletesItOnClose() throws IOException {
+        DiskBlobCache cache = new DiskBlobCache(directory, 1024);
+        BlobStore.LocalCopy copy = fill(cache, "resumes/a.pdf", 8);
+
+        cache.evict("resumes/a.pdf");
+
+        assertThat(cache.get("resumes/a.pdf")).isEmpty();
+        assertThat(copy.getPath()).exists();
+        copy.close();
+        assertThat(copy.getPath()).doesNotExist();
+    }
+
+    @Test
+    void closingTwiceReleasesOnePin() throws IOException {
+        DiskBlobCache cache = new DiskBlobCache(directory, 1024);
+        fill(cache, "resumes/a.pdf", 8).close();
+        BlobStore.LocalCopy first = cache.get("resumes/a.pdf").orElseThrow();
+        BlobStore.LocalCopy second = cache.get("resumes/a.pdf").orElseThrow();
+
+        first.close();
+        first.close();
+
+        assertThat(cache.isPinned("resumes/a.pdf")).isTrue();
+        assertThat(second.isDurable()).isFalse();
+        second.close();
+        assertThat(cache.isPinned("resumes/a.pdf")).isFalse();
+    }
+
+    private static BlobStore.LocalCopy fill(DiskBlobCache cache, String key, int size) throws IOException {
+        return cache.fill(key, file -> Files.write(file, new byte[size]));
+    }
+}
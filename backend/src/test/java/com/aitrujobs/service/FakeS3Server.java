@@ -0,0 +1,293 @@
+package com.aitrujobs.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for an S3 endpoint with path-style addressing: one bucket, object
+ * PUT/GET (ranged)/HEAD/DELETE, copy, ListObjectsV2 and multipart uploads. Request
+ * signatures are not checked; aws-chunked bodies are decoded.
+ */
+final class FakeS3Server implements AutoCloseable {
+
+    static final class StoredObject {
+        final byte[] content;
+        final Instant lastModified;
+
+        StoredObject(byte[] content, Instant lastModified) {
+            this.content = content;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private final String bucket;
+    private final HttpServer server;
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+    private final Map<String, TreeMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final AtomicInteger objectGets = new AtomicInteger();
+
+    FakeS3Server(String bucket) throws IOException {
+        this.bucket = bucket;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    StoredObject object(String key) {
+        return objects.get(key);
+    }
+
+    void putObject(String key, byte[] content, Instant lastModified) {
+        objects.put(key, new StoredObject(content, lastModified));
+    }
+
+    void removeObject(String key) {
+        objects.remove(key);
+    }
+
+    /** Whole or ranged object GETs served so far */
+    int objectGets() {
+        return objectGets.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String prefix = "/" + bucket;
+            if (!path.startsWith(prefix)) {
+                error(exchange, 404, "NoSuchBucket");
+                return;
+            }
+            String key = path.length() > prefix.length() + 1 ? path.substring(prefix.length() + 1) : "";
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> put(exchange, key, query);
+                case "HEAD" -> head(exchange, key);
+                case "GET" -> {
+                    if (query.containsKey("list-type")) {
+                        list(exchange, query.getOrDefault("prefix", ""));
+                    } else {
+                        get(exchange, key);
+                    }
+                }
+                case "DELETE" -> {
+                    if (query.containsKey("uploadId")) {
+                        uploads.remove(query.get("uploadId"));
+                    } else {
+                        objects.remove(key);
+                    }
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                case "POST" -> multipart(exchange, key, query);
+                default -> error(exchange, 405, "MethodNotAllowed");
+            }
+        }
+    }
+
+    private void put(HttpExchange exchange, String key, Map<String, String> query) throws IOException {
+        String copySource = exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+        if (copySource != null) {
+            String source = URLDecoder.decode(copySource, StandardCharsets.UTF_8);
+            source = source.startsWith("/") ? source.substring(1) : source;
+            StoredObject original = objects.get(source.substring(bucket.length() + 1));
+            if (original == null) {
+                error(exchange, 404, "NoSuchKey");
+                return;
+            }
+            StoredObject copy = new StoredObject(original.content, now());
+            objects.put(key, copy);
+            xml(exchange, 200, "<CopyObjectResult><LastModified>" + copy.lastModified + "</LastModified>"
+                    + "<ETag>" + etag(copy.content) + "</ETag></CopyObjectResult>");
+            return;
+        }
+        byte[] body = body(exchange);
+        if (query.containsKey("uploadId")) {
+            uploads.get(query.get("uploadId")).put(Integer.parseInt(query.get("partNumber")), body);
+        } else {
+            objects.put(key, new StoredObject(body, now()));
+        }
+        exchange.getResponseHeaders().add("ETag", etag(body));
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void head(HttpExchange exchange, String key) throws IOException {
+        StoredObject object = objects.get(key);
+        if (object == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.content.length));
+        exchange.getResponseHeaders().add("ETag", etag(object.content));
+        exchange.getResponseHeaders().add("Last-Modified", httpDate(object.lastModified));
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void get(HttpExchange exchange, String key) throws IOException {
+        StoredObject object = objects.get(key);
+        if (object == null) {
+            error(exchange, 404, "NoSuchKey");
+            return;
+        }
+        objectGets.incrementAndGet();
+        byte[] content = object.content;
+        int status = 200;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null) {
+            String[] bounds = range.substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(bounds[0]);
+            int end = Math.min(content.length - 1, Integer.parseInt(bounds[1]));
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+            byte[] part = new byte[end - start + 1];
+            System.arraycopy(content, start, part, 0, part.length);
+            content = part;
+            status = 206;
+        }
+        exchange.getResponseHeaders().add("ETag", etag(object.content));
+        exchange.getResponseHeaders().add("Last-Modified", httpDate(object.lastModified));
+        send(exchange, status, content);
+    }
+
+    private void list(HttpExchange exchange, String prefix) throws IOException {
+        StringBuilder xml = new StringBuilder("<ListBucketResult><Name>").append(bucket).append("</Name>")
+                .append("<Prefix>").append(prefix).append("</Prefix><IsTruncated>false</IsTruncated>");
+        int count = 0;
+        for (Map.Entry<String, StoredObject> entry : new TreeMap<>(objects).entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                count++;
+                xml.append("<Contents><Key>").append(entry.getKey()).append("</Key>")
+                        .append("<LastModified>").append(entry.getValue().lastModified).append("</LastModified>")
+                        .append("<ETag>").append(etag(entry.getValue().content)).append("</ETag>")
+                        .append("<Size>").append(entry.getValue().content.length).append("</Size></Contents>");
+            }
+        }
+        xml.append("<KeyCount>").append(count).append("</KeyCount></ListBucketResult>");
+        xml(exchange, 200, xml.toString());
+    }
+
+    private void multipart(HttpExchange exchange, String key, Map<String, String> query) throws IOException {
+        if (query.containsKey("uploads")) {
+            String uploadId = UUID.randomUUID().toString();
+            uploads.put(uploadId, new TreeMap<>());
+            xml(exchange, 200, "<InitiateMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key
+                    + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+            return;
+        }
+        body(exchange);
+        TreeMap<Integer, byte[]> parts = uploads.remove(query.get("uploadId"));
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (byte[] part : parts.values()) {
+            content.write(part);
+        }
+        objects.put(key, new StoredObject(content.toByteArray(), now()));
+        xml(exchange, 200, "<CompleteMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key
+                + "</Key><ETag>" + etag(content.toByteArray()) + "</ETag></CompleteMultipartUploadResult>");
+    }
+
+    /**
+     * Request body, decoding aws-chunked framing ("size;chunk-signature=...\r\ndata\r\n")
+     */
+    private static byte[] body(HttpExchange exchange) throws IOException {
+        byte[] raw = exchange.getRequestBody().readAllBytes();
+        String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (sha == null || !sha.startsWith("STREAMING-")) {
+            return raw;
+        }
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < raw.length) {
+            int lineEnd = indexOfCrlf(raw, position);
+            String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+            position = lineEnd + 2;
+            if (size == 0) {
+                break;
+            }
+            decoded.write(raw, position, size);
+            position += size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length - 1; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return bytes.length;
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+                query.put(name, eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static void error(HttpExchange exchange, int status, String code) throws IOException {
+        xml(exchange, status, "<Error><Code>" + code + "</Code><Message>" + code + "</Message></Error>");
+    }
+
+    private static void xml(HttpExchange exchange, int status, String body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        send(exchange, status, ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + body).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Instant now() {
+        // S3 timestamps have second precision
+        return Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atOffset(ZoneOffset.UTC));
+    }
+
+    private static String etag(byte[] content) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
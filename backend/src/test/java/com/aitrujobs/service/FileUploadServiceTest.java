@@ -0,0 +1,112 @@
+package com.aitrujobs.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileUploadServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private LocalBlobStore blobStore;
+    private FileUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new LocalBlobStore(uploadDir.toString());
+        service = new FileUploadService(blobStore);
+        ReflectionTestUtils.setField(service, "uploadDir", uploadDir.toString());
+    }
+
+    @Test
+    void identicalUploadsShareOneFile() {
+        FileUploadService.StoredFile first = service.uploadFile(pdf("same bytes"), "resumes");
+        FileUploadService.StoredFile second = service.uploadFile(pdf("same bytes"), "resumes");
+
+        assertThat(first.isDeduplicated()).isFalse();
+        assertThat(second.isDeduplicated()).isTrue();
+        assertThat(second.getPath()).isEqualTo(first.getPath());
+        assertThat(service.listFiles("resumes")).containsExactly(first.getPath());
+    }
+
+    @Test
+    void deletesUnreferencedFile() throws IOException {
+        FileUploadService.StoredFile stored = service.uploadFile(pdf("orphan"), "resumes");
+
+        assertThat(service.deleteUnreferenced(stored.getPath(), later(), path -> false)).isTrue();
+
+        assertThat(blobStore.stat(stored.getPath())).isNull();
+        assertThat(blobStore.list(".trash")).isEmpty();
+    }
+
+    @Test
+    void keepsRecentlyTouchedFile() {
+        FileUploadService.StoredFile stored = service.uploadFile(pdf("fresh"), "resumes");
+
+        assertThat(service.deleteUnreferenced(stored.getPath(), Instant.now().minusSeconds(600), path -> false)).isFalse();
+    }
+
+    @Test
+    void keepsFileReferencedWhileItIsDeleted() throws IOException {
+        FileUploadService.StoredFile stored = service.uploadFile(pdf("shared"), "resumes");
+        // Unreferenced at the first check; another node saves a reference before the second
+        AtomicInteger checks = new AtomicInteger();
+
+        boolean deleted = service.deleteUnreferenced(stored.getPath(), later(), path -> checks.incrementAndGet() > 1);
+
+        assertThat(deleted).isFalse();
+        assertThat(checks).hasValue(2);
+        assertThat(blobStore.stat(stored.getPath())).isNotNull();
+        assertThat(blobStore.list(".trash")).isEmpty();
+    }
+
+    @Test
+    void ensureStoredRestoresFileDeletedBeforeTheReferenceWasSaved() throws IOException {
+        MockMultipartFile upload = pdf("reused");
+        FileUploadService.StoredFile stored = service.uploadFile(upload, "resumes");
+        service.deleteUnreferenced(stored.getPath(), later(), path -> false);
+
+        service.ensureStored(stored, upload);
+
+        try (BlobStore.LocalCopy copy = service.locate(stored.getPath())) {
+            assertThat(Files.readString(copy.getPath())).isEqualTo("reused");
+            assertThat(copy.isDurable()).isTrue();
+        }
+    }
+
+    @Test
+    void sweepTrashPutsBackReferencedFiles() throws IOException {
+        FileUploadService.StoredFile kept = service.uploadFile(pdf("kept"), "resumes");
+        FileUploadService.StoredFile dropped = service.uploadFile(pdf("dropped"), "resumes");
+        // As left by a node that stopped between setting the files aside and purging them
+        blobStore.move(kept.getPath(), ".trash/" + kept.getPath());
+        blobStore.move(dropped.getPath(), ".trash/" + dropped.getPath());
+
+        int deleted = service.sweepTrash(later(), path -> path.equals(kept.getPath()));
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(blobStore.stat(kept.getPath())).isNotNull();
+        assertThat(blobStore.stat(dropped.getPath())).isNull();
+        assertThat(blobStore.list(".trash")).isEmpty();
+    }
+
+    private static MockMultipartFile pdf(String content) {
+        return new MockMultipartFile("file", "resume.pdf", "application/pdf", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Instant later() {
+        return Instant.now().plusSeconds(60);
+    }
+}
@@ -0,0 +1,52 @@
+package com.aitrujobs.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenAICircuitBreakerTest {
+
+    private OpenAICircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        // Two calls decide; one slow call (over 50 ms) in two trips it
+        breaker = new OpenAICircuitBreaker(2, 2, 50, 50, 50, 60_000, 1, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void waitingBeforeTheAttemptIsNotASlowCall() {
+        for (int i = 0; i < 4; i++) {
+            String result = breaker.run(() -> Mono.delay(Duration.ofMillis(150))
+                    .then(breaker.measure(Mono.just("ok")))).block();
+            assertThat(result).isEqualTo("ok");
+        }
+
+        assertThat(breaker.getState()).isEqualTo(OpenAICircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void slowAttemptsOpenTheCircuit() {
+        for (int i = 0; i < 2; i++) {
+            breaker.run(() -> breaker.measure(Mono.delay(Duration.ofMillis(150)).thenReturn("slow"))).block();
+        }
+
+        assertThat(breaker.getState()).isEqualTo(OpenAICircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void attemptsInsideTheBulkheadAreMeasured() {
+        Bulkhead bulkhead = new Bulkhead("test", 1, new SimpleMeterRegistry());
+        for (int i = 0; i < 2; i++) {
+            breaker.run(() -> bulkhead.run(() -> breaker.measure(Mono.delay(Duration.ofMillis(150)).thenReturn("slow"))))
+                    .block();
+        }
+
+        assertThat(breaker.getState()).isEqualTo(OpenAICircuitBreaker.State.OPEN);
+    }
+}
@@ -0,0 +1,171 @@
+package com.aitrujobs.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link S3BlobStore} against {@link FakeS3Server}, an in-process S3 endpoint
+ */
+class S3BlobStoreTest {
+
+    private static final String BUCKET = "uploads";
+    private static final long PART_SIZE = 5L * 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private FakeS3Server s3;
+    private S3BlobStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        s3 = new FakeS3Server(BUCKET);
+        store = newStore("node-a", 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+        s3.close();
+    }
+
+    @Test
+    void storesStatsReadsListsAndDeletes() throws IOException {
+        store.put("resumes/ab/cd/abcd.pdf", file("0123456789"));
+
+        assertThat(store.stat("resumes/ab/cd/abcd.pdf").getSize()).isEqualTo(10);
+        try (InputStream in = store.open("resumes/ab/cd/abcd.pdf", 2, 5)) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("23456");
+        }
+        assertThat(store.list("resumes")).extracting(BlobStore.BlobInfo::getKey).containsExactly("resumes/ab/cd/abcd.pdf");
+
+        assertThat(store.delete("resumes/ab/cd/abcd.pdf")).isTrue();
+        assertThat(store.stat("resumes/ab/cd/abcd.pdf")).isNull();
+        assertThat(store.cachedFile("resumes/ab/cd/abcd.pdf")).isEmpty();
+    }
+
+    @Test
+    void uploadsLargeFilesInParts() throws IOException {
+        byte[] content = new byte[(int) (PART_SIZE + PART_SIZE / 2)];
+        new Random(7).nextBytes(content);
+        Path source = tempDir.resolve("large.pdf");
+        Files.write(source, content);
+
+        store.put("resumes/large.pdf", source);
+
+        assertThat(s3.object("resumes/large.pdf").content).isEqualTo(content);
+    }
+
+    @Test
+    void localFileIsFetchedOnceThenServedFromCache() throws IOException {
+        s3.putObject("resumes/remote.pdf", "remote".getBytes(StandardCharsets.UTF_8), Instant.now());
+
+        try (BlobStore.LocalCopy copy = store.localFile("resumes/remote.pdf")) {
+            assertThat(Files.readString(copy.getPath())).isEqualTo("remote");
+            assertThat(copy.isDurable()).isFalse();
+        }
+        try (BlobStore.LocalCopy copy = store.localFile("resumes/remote.pdf")) {
+            assertThat(Files.readString(copy.getPath())).isEqualTo("remote");
+        }
+
+        assertThat(s3.objectGets()).isEqualTo(1);
+        assertThatThrownBy(() -> store.localFile("resumes/missing.pdf")).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void copyInUseSurvivesEvictionAndDeletion() throws IOException {
+        store.close();
+        store = newStore("node-small", 8);
+        s3.putObject("resumes/a.pdf", "aaaaaaaa".getBytes(StandardCharsets.UTF_8), Instant.now());
+        s3.putObject("resumes/b.pdf", "bbbbbbbb".getBytes(StandardCharsets.UTF_8), Instant.now());
+
+        try (BlobStore.LocalCopy a = store.localFile("resumes/a.pdf")) {
+            // Over capacity, but the copy being read is kept
+            store.localFile("resumes/b.pdf").close();
+            assertThat(Files.readString(a.getPath())).isEqualTo("aaaaaaaa");
+
+            store.delete("resumes/a.pdf");
+            assertThat(Files.readString(a.getPath())).isEqualTo("aaaaaaaa");
+            a.close();
+            assertThat(a.getPath()).doesNotExist();
+        }
+    }
+
+    @Test
+    void touchRefreshesLastModified() throws IOException {
+        Instant old = Instant.parse("2020-01-01T00:00:00Z");
+        s3.putObject("resumes/old.pdf", "old".getBytes(StandardCharsets.UTF_8), old);
+
+        store.touch("resumes/old.pdf");
+
+        assertThat(store.stat("resumes/old.pdf").getLastModified()).isAfter(old);
+        assertThatThrownBy(() -> store.touch("resumes/missing.pdf")).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void movesBlobs() throws IOException {
+        s3.putObject("resumes/a.pdf", "a".getBytes(StandardCharsets.UTF_8), Instant.now());
+
+        assertThat(store.move("resumes/a.pdf", ".trash/resumes/a.pdf")).isTrue();
+
+        assertThat(store.stat("resumes/a.pdf")).isNull();
+        assertThat(new String(s3.object(".trash/resumes/a.pdf").content, StandardCharsets.UTF_8)).isEqualTo("a");
+        assertThat(store.move("resumes/a.pdf", ".trash/resumes/a.pdf")).isFalse();
+    }
+
+    @Test
+    void uploadSurvivesDeleteOnAnotherNode() throws IOException {
+        S3BlobStore otherStore = newStore("node-b", 1024 * 1024);
+        try {
+            FileUploadService nodeA = uploadService(store, "node-a");
+            FileUploadService nodeB = uploadService(otherStore, "node-b");
+            MockMultipartFile upload = new MockMultipartFile("file", "cv.pdf", "application/pdf",
+                    "shared resume".getBytes(StandardCharsets.UTF_8));
+
+            // Node A finds the file already stored and reuses it; node B, not seeing a
+            // reference yet, deletes it before A saves its resume row
+            FileUploadService.StoredFile first = nodeA.uploadFile(upload, "resumes");
+            FileUploadService.StoredFile reused = nodeA.uploadFile(upload, "resumes");
+            assertThat(reused.isDeduplicated()).isTrue();
+            assertThat(nodeB.deleteUnreferenced(first.getPath(), Instant.now().plusSeconds(60), path -> false)).isTrue();
+
+            nodeA.ensureStored(reused, upload);
+
+            assertThat(new String(s3.object(reused.getPath()).content, StandardCharsets.UTF_8)).isEqualTo("shared resume");
+        } finally {
+            otherStore.close();
+        }
+    }
+
+    private S3BlobStore newStore(String node, long cacheBytes) {
+        return new S3BlobStore(BUCKET, "us-east-1", s3.endpoint(), true, "test", "test", PART_SIZE,
+                tempDir.resolve(node).resolve(".cache").toString(), cacheBytes, new SimpleMeterRegistry());
+    }
+
+    private FileUploadService uploadService(BlobStore blobStore, String node) {
+        FileUploadService service = new FileUploadService(blobStore);
+        ReflectionTestUtils.setField(service, "uploadDir", tempDir.resolve(node).toString());
+        return service;
+    }
+
+    private Path file(String content) throws IOException {
+        return Files.writeString(Files.createTempFile(tempDir, "blob-", ".pdf"), content);
+    }
+}